@@ -0,0 +1,79 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Keeps native AddImageOptions for the most recently used add image   *'
+//  settings, so that adding images of the same size and compression,   *'
+//  such as the pages of a scanned batch, creates and configures the    *'
+//  native options only once. The least recently used options are       *'
+//  deleted when the cache is full.                                     *'
+//                                                                      *'
+//  A cache is not thread-safe; use one cache per thread.               *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.AddImageSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class AddImageOptionsCache implements AutoCloseable
+{
+    private final LinkedHashMap<AddImageSettings, AddImageOptions> entries;
+
+    // Create a cache keeping the native options of at most maxEntries add image settings.
+    public AddImageOptionsCache(final int maxEntries)
+    {
+        if (maxEntries < 1)
+        {
+            throw new IllegalArgumentException("The maximum number of entries must be a positive integer, not '" + maxEntries + "'.");
+        }
+
+        this.entries = new LinkedHashMap<AddImageSettings, AddImageOptions>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<AddImageSettings, AddImageOptions> eldest)
+            {
+                if (this.size() <= maxEntries)
+                {
+                    return false;
+                }
+
+                eldest.getValue().delete();
+                return true;
+            }
+        };
+    }
+
+    // Get the native options for the settings, valid until they are evicted or the cache is closed.
+    // Callers must not modify the returned options.
+    public AddImageOptions get(AddImageSettings settings)
+    {
+        AddImageOptions options = this.entries.get(settings);
+        if (options == null)
+        {
+            options = settings.createOptions();
+            this.entries.put(settings, options);
+        }
+
+        return options;
+    }
+
+    // Delete all cached native options.
+    @Override
+    public void close()
+    {
+        for (AddImageOptions options : this.entries.values())
+        {
+            options.delete();
+        }
+
+        this.entries.clear();
+    }
+}
@@ -11,7 +11,9 @@
 //                                                                      *'
 //  ARGUMENTS                                                           *'
 //                                                                      *'
-//   First:              The path to source image file.                 *'
+//   First:              The path to source image file, or to a         *'
+//                       directory whose image files are added one      *'
+//                       page per image.                                *'
 //   Second (optional):  The path to output PDF file                    *'
 //                       (default is <input_file_path>.pdf).            *'
 //   Third (optional):   Horizontal location of image                   *'
@@ -23,7 +25,9 @@
 //   Sixth (optional):   Resulting image height                         *'
 //                       (default is 0 - original height).              *'
 //   Seventh (optional): Resulting image compression type               *'
-//                       (default is 0 - no compression).               *'
+//                       (default is 0 - no compression), or -1 to      *'
+//                       keep the compression of JPEG, CCITT G4 and     *'
+//                       JPEG 2000 images.                              *'
 //   Eighth (optional):  Indicator of image source (image filename      *'
 //                       or a BufferedImage, default is 'false').       *'
 //                                                                      *'
@@ -37,6 +41,9 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import javax.imageio.ImageIO;
 import java.io.*;
 
@@ -169,12 +176,12 @@ public class AddImageSample
         }
         catch (NumberFormatException ex)
         {
-            compression = -1;
+            compression = -2;
         }
 
-        if (compression < 0)
+        if (compression < -1)
         {
-            System.err.println("The 'compression_type' must be a non-negative integer, not '" + args[6] + "'.");
+            System.err.println("The 'compression_type' must be a non-negative integer or -1, not '" + args[6] + "'.");
             return;
         }
 
@@ -192,6 +199,12 @@ public class AddImageSample
         }
 
         AddImageSample sample = new AddImageSample();
+        if (new File(inputPath).isDirectory())
+        {
+            sample.performAddImages(inputPath, outputPath, compression);
+            return;
+        }
+
         sample.performAddImage(inputPath, outputPath, centerImage, x, y, width, height, compression, useBufferedImage);
     }
 
@@ -201,13 +214,13 @@ public class AddImageSample
         System.out.println("Usage:");
         System.out.println("       AddImageSample.jar <input_file_path> [<output_file_path> [<x_location> <y_location> <resulting_width> <resulting_height> [<compression_type> [<use_buffered_image>]]]]");
         System.out.println("where:");
-        System.out.println("       <input_file_path>:       The path to source image file.");
+        System.out.println("       <input_file_path>:       The path to source image file, or to a directory of image files to add one page per image.");
         System.out.println("       <output_file_path>:      The path to output PDF file (default is <input_file_path>.pdf).");
         System.out.println("       <x_location>:            The Horizontal location of image (default is 0).");
         System.out.println("       <y_location>:            The Vertical location of image (default is 0).");
         System.out.println("       <resulting_width>:       The resulting image width (default is 0 - original width).");
         System.out.println("       <resulting_height>:      The resulting image height (default is 0 - original height).");
-        System.out.println("       <compression_type>:      The resulting image compression type (default is 0 - no compression).");
+        System.out.println("       <compression_type>:      The resulting image compression type (default is 0 - no compression), or -1 to keep the compression of JPEG, CCITT G4 and JPEG 2000 images.");
         System.out.println("       <use_buffered_image>:    The indicator that image file should be processed as BufferedImage (default is 'false').");
     }
 
@@ -219,12 +232,28 @@ public class AddImageSample
             this.initPdf();
             this.createDocument();
 
+            // Read the image header only; the pixels are decoded in Java only when a BufferedImage is
+            // requested or the header does not give the image size.
+            ImageInfo info = ImageInfo.read(Paths.get(inputPath));
             BufferedImage bufferedImage = null;
-            if (centerImage || useBufferedImage)
+            if (useBufferedImage || (centerImage && !info.hasSize()))
             {
                 bufferedImage = ImageIO.read(new File(inputPath));
             }
 
+            boolean keepCompression = false;
+            if (compression < 0)
+            {
+                // On request, JPEG, CCITT G4 and JPEG 2000 files keep their own compression, so that the native
+                // side may embed their data without decoding and compressing it again.
+                compression = CompressionType.NoneCompression;
+                if (bufferedImage == null && info.isEmbeddable())
+                {
+                    compression = info.getEmbeddedCompression();
+                    keepCompression = true;
+                }
+            }
+
             // Set up options.
             if (centerImage)
             {
@@ -232,8 +261,8 @@ public class AddImageSample
                 int pageWidth = 612;
                 int pageHeight = 792;
 
-                width = bufferedImage.getWidth();
-                height = bufferedImage.getHeight();
+                width = info.hasSize() ? info.getWidth() : bufferedImage.getWidth();
+                height = info.hasSize() ? info.getHeight() : bufferedImage.getHeight();
                 if (width > pageWidth || height > pageHeight)
                 {
                     // Image size is larger than page size, set to fit.
@@ -255,6 +284,10 @@ public class AddImageSample
             {
                 // Save the resulting document.
                 this.saveDocument(outputPath);
+                if (keepCompression)
+                {
+                    this.checkEmbedded(inputPath, outputPath);
+                }
             }
         }
         catch (IOException ex)
@@ -271,6 +304,75 @@ public class AddImageSample
         }
     }
 
+    // Create a new PDF document with one page per image file of the input directory, in file name order.
+    private void performAddImages(String inputDirectory, String outputPath, int compression)
+    {
+        BatchDocumentBuilder builder = null;
+        try
+        {
+            this.initPdf();
+
+            File[] files = new File(inputDirectory).listFiles();
+            if (files == null)
+            {
+                System.err.println("The input directory '" + inputDirectory + "' could not be listed.");
+                return;
+            }
+
+            Arrays.sort(files);
+
+            int threadCount = Runtime.getRuntime().availableProcessors();
+            builder = new BatchDocumentBuilder(this.pdf, threadCount, 2 * threadCount);
+            if (compression < 0)
+            {
+                builder.setKeepEmbeddedCompression(true);
+                compression = CompressionType.NoneCompression;
+            }
+
+            builder.setCompressionType(compression);
+            for (File file : files)
+            {
+                if (file.isFile())
+                {
+                    builder.add(ImageSource.fromPath(file.getPath()));
+                }
+            }
+
+            SaveOptions saveOptions = new SaveOptions();
+            try
+            {
+                builder.save(outputPath, saveOptions);
+            }
+            finally
+            {
+                saveOptions.delete();
+            }
+
+            // Files that are not images, or that the native side rejects, do not stop the other pages.
+            for (String skipped : builder.getSkippedImages())
+            {
+                System.err.println("Skipped " + skipped);
+            }
+        }
+        catch (IOException ex)
+        {
+            System.err.println("IOException: " + ex.toString());
+        }
+        catch (Throwable ex)
+        {
+            System.err.println("Exception: " + ex.toString());
+        }
+        finally
+        {
+            if (builder != null)
+            {
+                builder.close();
+            }
+
+            this.terminatePdf();
+        }
+    }
+
     // Initialize the PDF session.
     private void initPdf()
     {
@@ -296,33 +398,7 @@ public class AddImageSample
     // Prepare add image options.
     private AddImageOptions createOptions(int x, int y, int width, int height, int compression)
     {
-        AddImageOptions options = new AddImageOptions();
-        if (x > 0)
-        {
-            options.setX(x);
-        }
-
-        if (y > 0)
-        {
-            options.setY(y);
-        }
-
-        if (width > 0)
-        {
-            options.setWidth(width);
-        }
-
-        if (height > 0)
-        {
-            options.setHeight(height);
-        }
-
-        if (compression >= 0)
-        {
-            options.setCompressionType(compression);
-        }
-
-        return options;
+        return new AddImageSettings(x, y, width, height, compression).createOptions();
     }
 
     // Add an image from file to the page of PDF document.
@@ -338,25 +414,43 @@ public class AddImageSample
             return true;
         }
 
-        // Convert BufferedImage to byte array.
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        if (!ImageIO.write(bufferedImage, "png", outputStream))
+        // Add the pixels of the BufferedImage to the page. They are compressed once, natively, using
+        // the compression type of the options.
+        RasterImages.addImage(this.page, bufferedImage, options);
+        return true;
+    }
+
+    // Report whether the library embedded the image data as it is. If it decodes and compresses the image
+    // again instead, keeping its compression gives a second lossy pass for JPEG and should not be used.
+    private void checkEmbedded(String inputPath, String outputPath) throws IOException
+    {
+        byte[] imageData = Files.readAllBytes(Paths.get(inputPath));
+        if (!EmbeddedImageCheck.canCheck(imageData))
         {
-            System.err.println("The source image could not be written as a PNG image stream.");
-            return false;
+            System.out.println("Only JPEG and JPEG 2000 images can be checked for being embedded as is.");
+        }
+        else if (EmbeddedImageCheck.isEmbeddedAsIs(Paths.get(outputPath), imageData))
+        {
+            System.out.println("The image data was embedded as is.");
+        }
+        else
+        {
+            System.out.println("The image data was not embedded as is; the library compressed it again.");
         }
-
-        // Add an image to the page.
-        byte[] imageData = outputStream.toByteArray();
-        this.page.addImage(imageData, options);
-        return true;
     }
 
     // Save PDF document to a file.
     private void saveDocument(String outputPath)
     {
         SaveOptions saveOptions = new SaveOptions();
-        this.document.saveDocument(outputPath, saveOptions);
+        try
+        {
+            this.document.saveDocument(outputPath, saveOptions);
+        }
+        finally
+        {
+            saveOptions.delete();
+        }
     }
 
     // Close the PDF page, document and terminate the PDF session.
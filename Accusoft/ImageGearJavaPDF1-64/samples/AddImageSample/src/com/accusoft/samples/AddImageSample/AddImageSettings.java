@@ -0,0 +1,135 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Immutable add image settings: the placement, size and compression   *'
+//  of an image held in Java. Unlike AddImageOptions they cost no       *'
+//  native allocation or JNI call to create, compare or hash. They are  *'
+//  turned into native options once, through createOptions or an        *'
+//  AddImageOptionsCache.                                               *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.AddImageSample;
+
+import com.accusoft.imagegearpdf.*;
+
+public final class AddImageSettings
+{
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+    private final int compressionType;
+
+    // Create add image settings. Non-positive locations and sizes and a negative compression type keep
+    // the corresponding AddImageOptions default.
+    public AddImageSettings(int x, int y, int width, int height, int compressionType)
+    {
+        this.x = Math.max(x, 0);
+        this.y = Math.max(y, 0);
+        this.width = Math.max(width, 0);
+        this.height = Math.max(height, 0);
+        this.compressionType = compressionType >= 0 ? compressionType : -1;
+    }
+
+    public int getX()
+    {
+        return this.x;
+    }
+
+    public int getY()
+    {
+        return this.y;
+    }
+
+    public int getWidth()
+    {
+        return this.width;
+    }
+
+    public int getHeight()
+    {
+        return this.height;
+    }
+
+    // Get the compression type, or -1 for the default.
+    public int getCompressionType()
+    {
+        return this.compressionType;
+    }
+
+    // Create native add image options with these settings. The caller owns the options and must delete them.
+    public AddImageOptions createOptions()
+    {
+        AddImageOptions options = new AddImageOptions();
+        if (this.x > 0)
+        {
+            options.setX(this.x);
+        }
+
+        if (this.y > 0)
+        {
+            options.setY(this.y);
+        }
+
+        if (this.width > 0)
+        {
+            options.setWidth(this.width);
+        }
+
+        if (this.height > 0)
+        {
+            options.setHeight(this.height);
+        }
+
+        if (this.compressionType >= 0)
+        {
+            options.setCompressionType(this.compressionType);
+        }
+
+        return options;
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        if (this == other)
+        {
+            return true;
+        }
+
+        if (!(other instanceof AddImageSettings))
+        {
+            return false;
+        }
+
+        AddImageSettings settings = (AddImageSettings)other;
+        return this.x == settings.x &&
+            this.y == settings.y &&
+            this.width == settings.width &&
+            this.height == settings.height &&
+            this.compressionType == settings.compressionType;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hash = this.x;
+        hash = 31 * hash + this.y;
+        hash = 31 * hash + this.width;
+        hash = 31 * hash + this.height;
+        hash = 31 * hash + this.compressionType;
+        return hash;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.width + "x" + this.height + "@" + this.x + "," + this.y + "/" + this.compressionType;
+    }
+}
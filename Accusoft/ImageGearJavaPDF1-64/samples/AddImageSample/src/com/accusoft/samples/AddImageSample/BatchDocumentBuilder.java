@@ -0,0 +1,403 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Builds one PDF document out of many images, one page per image,     *'
+//  each page sized to its image. Images are read, their headers        *'
+//  parsed and, when precompression is enabled, compressed on           *'
+//  background threads, at most maxPrefetched ahead of the page being   *'
+//  added, while the calling thread adds the pages to the document in   *'
+//  order. The image data is released once its page has been added.     *'
+//  Sources that cannot be read as an image, or that the native side    *'
+//  rejects, are skipped and reported through getSkippedImages instead  *'
+//  of failing the whole document.                                      *'
+//                                                                      *'
+//  The document is only used by the thread calling add and save.       *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.AddImageSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.imageio.ImageIO;
+
+public class BatchDocumentBuilder implements AutoCloseable
+{
+    // Resolution assumed for images that do not record one, so that a pixel becomes a point.
+    private static final double POINTS_PER_INCH = 72.0;
+
+    private final ExecutorService executor;
+    private final int maxPrefetched;
+    private final ArrayDeque<Future<PreparedImage>> pending = new ArrayDeque<Future<PreparedImage>>();
+    private final List<String> skippedImages = new ArrayList<String>();
+
+    // Pages of the same size and compression share their native options.
+    private final AddImageOptionsCache optionsCache = new AddImageOptionsCache(8);
+
+    private Document document;
+    private int compressionType = -1;
+    private boolean keepEmbeddedCompression = false;
+    private boolean precompress = false;
+    private float quality = -1;
+    private double defaultResolution = POINTS_PER_INCH;
+    private int pageCount;
+
+    // Create a builder adding pages to a new document of the PDF session, reading images on
+    // threadCount background threads and at most maxPrefetched images ahead.
+    public BatchDocumentBuilder(PDF pdf, int threadCount, int maxPrefetched)
+    {
+        if (pdf == null)
+        {
+            throw new IllegalArgumentException("The PDF session must not be null.");
+        }
+
+        if (threadCount < 1)
+        {
+            throw new IllegalArgumentException("The thread count must be a positive integer, not '" + threadCount + "'.");
+        }
+
+        if (maxPrefetched < 1)
+        {
+            throw new IllegalArgumentException("The number of prefetched images must be a positive integer, not '" + maxPrefetched + "'.");
+        }
+
+        this.maxPrefetched = maxPrefetched;
+        this.executor = Executors.newFixedThreadPool(threadCount);
+        this.document = pdf.createDocument();
+    }
+
+    // Set the compression type of the added images (see CompressionType). A negative value keeps the default.
+    public void setCompressionType(int compressionType)
+    {
+        this.compressionType = compressionType;
+    }
+
+    // Set whether JPEG, CCITT G4 and JPEG 2000 images keep their own compression rather than the one set
+    // by setCompressionType, so that the native side may embed their data without decoding and compressing
+    // it again (default is false). Whether it does is up to the library: check a saved document with
+    // EmbeddedImageCheck before enabling this, since a library that re-encodes would give JPEG images a
+    // second lossy pass.
+    public void setKeepEmbeddedCompression(boolean keepEmbeddedCompression)
+    {
+        this.keepEmbeddedCompression = keepEmbeddedCompression;
+    }
+
+    // Set whether images are compressed on the background threads, when an ImageIO writer is available
+    // for the compression type, rather than by the native side while the page is added (default is false).
+    // The JDK provides a JPEG writer; a JPEG 2000 writer comes from an ImageIO plug-in. This only pays off
+    // when the library embeds the compressed data as it is; if it re-encodes it, a lossy compression type
+    // gets two lossy passes and the work is done twice. Check a saved document with EmbeddedImageCheck
+    // before enabling it.
+    public void setPrecompress(boolean precompress)
+    {
+        this.precompress = precompress;
+    }
+
+    // Set the quality, between 0 and 1, of images compressed on the background threads with a lossy
+    // compression type. A negative value keeps the writer default.
+    public void setQuality(float quality)
+    {
+        if (quality > 1)
+        {
+            throw new IllegalArgumentException("The quality must not be greater than 1, not '" + quality + "'.");
+        }
+
+        this.quality = quality;
+    }
+
+    // Set the resolution assumed for images that do not record one (default is 72, one point per pixel).
+    public void setDefaultResolution(double defaultResolution)
+    {
+        if (defaultResolution <= 0)
+        {
+            throw new IllegalArgumentException("The resolution must be a positive number, not '" + defaultResolution + "'.");
+        }
+
+        this.defaultResolution = defaultResolution;
+    }
+
+    // Queue an image for a new page at the end of the document. Pages whose images are ready are
+    // added right away; when maxPrefetched images are pending, this waits for the oldest one.
+    public void add(final ImageSource source) throws IOException, InterruptedException
+    {
+        this.checkOpen();
+        while (this.pending.size() >= this.maxPrefetched)
+        {
+            this.addPage(this.pending.poll());
+        }
+
+        // The settings in effect now apply to this image, even if they change before its page is added.
+        final int compressionType = this.compressionType;
+        final boolean keepEmbeddedCompression = this.keepEmbeddedCompression;
+        final ImageCompressor compressor = this.getCompressor();
+        this.pending.add(this.executor.submit(new Callable<PreparedImage>()
+        {
+            public PreparedImage call() throws IOException
+            {
+                return PreparedImage.prepare(source, compressionType, keepEmbeddedCompression, compressor);
+            }
+        }));
+
+        while (!this.pending.isEmpty() && this.pending.peek().isDone())
+        {
+            this.addPage(this.pending.poll());
+        }
+    }
+
+    // Add the pages of all queued images and return the number of pages in the document.
+    public int flush() throws IOException, InterruptedException
+    {
+        this.checkOpen();
+        while (!this.pending.isEmpty())
+        {
+            this.addPage(this.pending.poll());
+        }
+
+        return this.pageCount;
+    }
+
+    // Add the pages of all queued images and save the document.
+    public void save(String outputPath, SaveOptions options) throws IOException, InterruptedException
+    {
+        this.flush();
+        this.document.saveDocument(outputPath, options);
+    }
+
+    // Get a description of each image skipped so far, with the reason it was skipped.
+    public List<String> getSkippedImages()
+    {
+        return Collections.unmodifiableList(new ArrayList<String>(this.skippedImages));
+    }
+
+    // Get the document built so far. Queued images may not have been added yet; see flush.
+    public Document getDocument()
+    {
+        this.checkOpen();
+        return this.document;
+    }
+
+    // Stop the background threads and close the document.
+    @Override
+    public void close()
+    {
+        this.executor.shutdownNow();
+        for (Future<PreparedImage> future : this.pending)
+        {
+            future.cancel(true);
+        }
+
+        this.pending.clear();
+        this.optionsCache.close();
+        if (this.document != null)
+        {
+            try
+            {
+                this.document.close();
+            }
+            finally
+            {
+                this.document.delete();
+                this.document = null;
+            }
+        }
+    }
+
+    // Wait for a prepared image and add it on a new page sized to the image, or skip it when it cannot be
+    // read or added.
+    private void addPage(Future<PreparedImage> future) throws InterruptedException
+    {
+        PreparedImage image;
+        try
+        {
+            image = getPrepared(future);
+        }
+        catch (IOException ex)
+        {
+            this.skippedImages.add(ex.getMessage());
+            return;
+        }
+
+        ImageInfo info = image.info;
+        if (!info.hasSize())
+        {
+            this.skippedImages.add(image.source + ": the image format is not supported.");
+            return;
+        }
+
+        // Page size in points.
+        int pageWidth = toPoints(info.getWidth(), info.getHorizontalResolution());
+        int pageHeight = toPoints(info.getHeight(), info.getVerticalResolution());
+        int pageNumber = this.pageCount;
+        this.document.insertBlankPage(pageNumber, pageWidth, pageHeight);
+
+        // The image covers the whole page; the vertical location is the top edge of the image.
+        AddImageOptions options = this.optionsCache.get(new AddImageSettings(0, pageHeight, pageWidth, pageHeight, image.compressionType));
+        String failure = null;
+        Page page = this.document.getPage(pageNumber);
+        try
+        {
+            if (image.path != null)
+            {
+                page.addImage(image.path, options);
+            }
+            else
+            {
+                page.addImage(image.data, options);
+            }
+        }
+        catch (RuntimeException ex)
+        {
+            failure = ex.getMessage();
+        }
+        finally
+        {
+            page.close();
+            page.delete();
+        }
+
+        if (failure != null)
+        {
+            // Remove the blank page of the rejected image.
+            this.document.deletePage(pageNumber);
+            this.skippedImages.add(image.source + ": " + failure);
+            return;
+        }
+
+        this.pageCount++;
+    }
+
+    // Get the compressor used on the background threads for the current settings, or null when images
+    // are left to the native side.
+    private ImageCompressor getCompressor()
+    {
+        if (!this.precompress || this.compressionType < 0)
+        {
+            return null;
+        }
+
+        ImageCompressor compressor = new ImageCompressor(this.compressionType, this.quality);
+        return compressor.isAvailable() ? compressor : null;
+    }
+
+    // Convert a length in pixels to points at the resolution of the image, or the default one.
+    private int toPoints(int pixels, double resolution)
+    {
+        double dotsPerInch = resolution > 0 ? resolution : this.defaultResolution;
+        return Math.max(1, (int)Math.round(pixels * POINTS_PER_INCH / dotsPerInch));
+    }
+
+    private void checkOpen()
+    {
+        if (this.document == null)
+        {
+            throw new IllegalStateException("The document builder has been closed.");
+        }
+    }
+
+    // Wait for a prepared image and rethrow the failure to read it, if any. Read failures are reported
+    // as IOException with the source in the message.
+    private static PreparedImage getPrepared(Future<PreparedImage> future) throws IOException, InterruptedException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (ExecutionException ex)
+        {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException)cause;
+            }
+
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException)cause;
+            }
+
+            if (cause instanceof Error)
+            {
+                throw (Error)cause;
+            }
+
+            throw new IOException(cause);
+        }
+    }
+
+    // An image read, inspected and possibly compressed on a background thread, with the compression
+    // type to request when adding it.
+    private static class PreparedImage
+    {
+        final ImageSource source;
+        final String path;
+        final byte[] data;
+        final ImageInfo info;
+        final int compressionType;
+
+        private PreparedImage(ImageSource source, String path, byte[] data, ImageInfo info, int compressionType)
+        {
+            this.source = source;
+            this.path = path;
+            this.data = data;
+            this.info = info;
+            this.compressionType = compressionType;
+        }
+
+        // Read the image header. Image files are passed to the page by path, so only their header is read
+        // here and only the native side holds their data. With a compressor, other images are decoded and
+        // compressed here, so that the native side receives data it can embed as it is.
+        static PreparedImage prepare(ImageSource source, int compressionType, boolean keepEmbeddedCompression, ImageCompressor compressor)
+            throws IOException
+        {
+            try
+            {
+                String path = source.getPath();
+                byte[] data = path != null ? null : source.read();
+                ImageInfo info = path != null ? ImageInfo.read(Paths.get(path)) : ImageInfo.read(data);
+                if (keepEmbeddedCompression && info.isEmbeddable())
+                {
+                    return new PreparedImage(source, path, data, info, info.getEmbeddedCompression());
+                }
+
+                if (compressor != null && info.hasSize() && info.getEmbeddedCompression() != compressor.getCompressionType())
+                {
+                    BufferedImage image = ImageIO.read(new ByteArrayInputStream(data != null ? data : source.read()));
+                    if (image != null)
+                    {
+                        return new PreparedImage(source, null, compressor.compress(image), info, compressor.getCompressionType());
+                    }
+                }
+
+                return new PreparedImage(source, path, data, info, compressionType);
+            }
+            catch (IOException ex)
+            {
+                throw new IOException(source + ": " + ex.getMessage(), ex);
+            }
+            catch (RuntimeException ex)
+            {
+                // Decoding corrupt data can fail with any unchecked exception; skip the image like an
+                // unreadable one instead of aborting the batch.
+                throw new IOException(source + ": the image data is corrupt: " + ex, ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Checks whether the native side embedded an image in a saved PDF as  *'
+//  it is, rather than decoding and compressing it again. The check     *'
+//  looks for the compressed image data, the scan data of a JPEG file   *'
+//  or the codestream of a JPEG 2000 file, byte for byte in the PDF     *'
+//  file. A match shows that the data was copied; no match means that   *'
+//  it was re-encoded, or wrapped in another filter.                    *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.AddImageSample;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public final class EmbeddedImageCheck
+{
+    // Number of bytes compared, so that a short common sequence cannot give a false match.
+    private static final int MIN_MATCH_LENGTH = 256;
+
+    private EmbeddedImageCheck()
+    {
+    }
+
+    // Check whether the compressed data of a JPEG or JPEG 2000 image can be checked: the image must be
+    // one of these formats and hold enough compressed data.
+    public static boolean canCheck(byte[] imageData)
+    {
+        return getCompressedData(imageData) >= 0;
+    }
+
+    // Check whether the compressed data of the image appears as it is in the PDF file.
+    public static boolean isEmbeddedAsIs(Path pdfFile, byte[] imageData) throws IOException
+    {
+        int start = getCompressedData(imageData);
+        if (start < 0)
+        {
+            throw new IllegalArgumentException("Only JPEG and JPEG 2000 images can be checked.");
+        }
+
+        return indexOf(Files.readAllBytes(pdfFile), imageData, start) >= 0;
+    }
+
+    // Get the offset of the compressed data to look for: the first start of scan marker of a JPEG file,
+    // or the start of the codestream of a JPEG 2000 file. Returns -1 for other data.
+    private static int getCompressedData(byte[] imageData)
+    {
+        int start = -1;
+        if (imageData.length > 2 && (imageData[0] & 0xff) == 0xff && (imageData[1] & 0xff) == 0xd8)
+        {
+            start = find(imageData, new byte[] { (byte)0xff, (byte)0xda });
+        }
+        else if (imageData.length > 4)
+        {
+            start = find(imageData, new byte[] { (byte)0xff, 0x4f, (byte)0xff, 0x51 });
+        }
+
+        return start >= 0 && imageData.length - start >= MIN_MATCH_LENGTH ? start : -1;
+    }
+
+    // Find the data from the start offset to its end in the PDF file.
+    private static int indexOf(byte[] pdfData, byte[] imageData, int start)
+    {
+        int length = imageData.length - start;
+        byte first = imageData[start];
+        for (int i = 0; i + length <= pdfData.length; i++)
+        {
+            if (pdfData[i] != first)
+            {
+                continue;
+            }
+
+            int j = 1;
+            while (j < length && pdfData[i + j] == imageData[start + j])
+            {
+                j++;
+            }
+
+            if (j == length)
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    // Find the first occurrence of a marker.
+    private static int find(byte[] data, byte[] marker)
+    {
+        for (int i = 0; i + marker.length <= data.length; i++)
+        {
+            int j = 0;
+            while (j < marker.length && data[i + j] == marker[j])
+            {
+                j++;
+            }
+
+            if (j == marker.length)
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,159 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Compresses decoded images into data that a PDF can embed as it is,  *'
+//  using the ImageIO writers available to the application: the JDK     *'
+//  JPEG writer, and a JPEG 2000 writer when an ImageIO plug-in         *'
+//  provides one. JBIG2 is not supported: ImageIO JBIG2 writers produce *'
+//  JBIG2 files, not the embedded stream format a PDF needs. Instances  *'
+//  are immutable and may be shared by any number of threads.           *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.AddImageSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+public class ImageCompressor
+{
+    private final int compressionType;
+    private final String formatName;
+    private final float quality;
+
+    // Create a compressor for the given compression type (see CompressionType). A quality between 0
+    // and 1 applies to lossy compression; a negative value keeps the writer default.
+    public ImageCompressor(int compressionType, float quality)
+    {
+        if (quality > 1)
+        {
+            throw new IllegalArgumentException("The quality must not be greater than 1, not '" + quality + "'.");
+        }
+
+        this.compressionType = compressionType;
+        this.formatName = getFormatName(compressionType);
+        this.quality = quality;
+    }
+
+    // Check whether an ImageIO writer is available for the compression type of this compressor.
+    public boolean isAvailable()
+    {
+        return this.formatName != null && ImageIO.getImageWritersByFormatName(this.formatName).hasNext();
+    }
+
+    // Get the compression type of the compressed data.
+    public int getCompressionType()
+    {
+        return this.compressionType;
+    }
+
+    // Compress the image. Transparency is dropped for JPEG, which has no alpha channel.
+    public byte[] compress(BufferedImage image) throws IOException
+    {
+        if (this.formatName == null)
+        {
+            throw new IOException("The compression type '" + this.compressionType + "' is not supported.");
+        }
+
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(this.formatName);
+        if (!writers.hasNext())
+        {
+            throw new IOException("No ImageIO writer is available for the '" + this.formatName + "' format.");
+        }
+
+        if (this.compressionType == CompressionType.JpegCompression)
+        {
+            image = toOpaque(image);
+        }
+
+        ImageWriter writer = writers.next();
+        try
+        {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (this.quality >= 0 && param.canWriteCompressed())
+            {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionType() == null)
+                {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+
+                param.setCompressionQuality(this.quality);
+            }
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ImageOutputStream output = new MemoryCacheImageOutputStream(outputStream);
+            try
+            {
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), param);
+            }
+            finally
+            {
+                output.close();
+            }
+
+            return outputStream.toByteArray();
+        }
+        finally
+        {
+            writer.dispose();
+        }
+    }
+
+    // Get the ImageIO format name of the writer producing data for the compression type, or null.
+    private static String getFormatName(int compressionType)
+    {
+        switch (compressionType)
+        {
+            case CompressionType.JpegCompression:
+                return "jpeg";
+            case CompressionType.Jpeg2000Compression:
+                return "jpeg2000";
+            default:
+                return null;
+        }
+    }
+
+    // Copy an image with an alpha channel or an indexed color model to 24-bit RGB on white.
+    private static BufferedImage toOpaque(BufferedImage image)
+    {
+        int type = image.getType();
+        if (type == BufferedImage.TYPE_3BYTE_BGR || type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_BYTE_GRAY)
+        {
+            return image;
+        }
+
+        BufferedImage opaque = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D graphics = opaque.createGraphics();
+        try
+        {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+            graphics.drawImage(image, 0, 0, null);
+        }
+        finally
+        {
+            graphics.dispose();
+        }
+
+        return opaque;
+    }
+}
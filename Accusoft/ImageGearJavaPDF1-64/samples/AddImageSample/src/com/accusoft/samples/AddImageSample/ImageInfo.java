@@ -0,0 +1,632 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Reads the format, pixel size and resolution of an encoded image     *'
+//  from its header, without decoding the pixels. TIFF and JPEG 2000    *'
+//  headers are parsed directly; other formats go through the ImageIO   *'
+//  readers. Image files are read through a seekable stream, so only    *'
+//  the header bytes are loaded. Offsets read from a header are checked *'
+//  against the length of the data, and corrupt data of any format is   *'
+//  reported as an IOException.                                         *'
+//  It also tells whether the encoded data can be embedded in a PDF     *'
+//  as it is, without decoding and compressing it again.                *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.AddImageSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.Iterator;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataFormatImpl;
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import org.w3c.dom.Node;
+
+public final class ImageInfo
+{
+    public static final String FORMAT_TIFF = "tiff";
+    public static final String FORMAT_JPEG = "jpeg";
+    public static final String FORMAT_JPEG2000 = "jpeg2000";
+    public static final String FORMAT_UNKNOWN = "unknown";
+
+    // TIFF compression value of CCITT Group 4 (T.6) data.
+    public static final int TIFF_COMPRESSION_CCITT_G4 = 4;
+
+    private static final byte[] JP2_SIGNATURE = { 0x00, 0x00, 0x00, 0x0C, 0x6A, 0x50, 0x20, 0x20, 0x0D, 0x0A, (byte)0x87, 0x0A };
+    private static final byte[] J2K_SIGNATURE = { (byte)0xFF, 0x4F, (byte)0xFF, 0x51 };
+
+    // JP2 box types: JP2 header, image header, resolution, capture and default display resolution.
+    private static final int JP2_HEADER_BOX = 0x6A703268;
+    private static final int JP2_IMAGE_HEADER_BOX = 0x69686472;
+    private static final int JP2_RESOLUTION_BOX = 0x72657320;
+    private static final int JP2_CAPTURE_RESOLUTION_BOX = 0x72657363;
+    private static final int JP2_DISPLAY_RESOLUTION_BOX = 0x72657364;
+    private static final double INCHES_PER_METER = 0.0254;
+
+    private static final int TIFF_IMAGE_WIDTH = 256;
+    private static final int TIFF_IMAGE_LENGTH = 257;
+    private static final int TIFF_COMPRESSION = 259;
+    private static final int TIFF_FILL_ORDER = 266;
+    private static final int TIFF_STRIP_OFFSETS = 273;
+    private static final int TIFF_TILE_WIDTH = 322;
+    private static final int TIFF_X_RESOLUTION = 282;
+    private static final int TIFF_Y_RESOLUTION = 283;
+    private static final int TIFF_RESOLUTION_UNIT = 296;
+    private static final int TIFF_UNIT_CENTIMETER = 3;
+
+    private final String format;
+    private final int width;
+    private final int height;
+    private final double horizontalResolution;
+    private final double verticalResolution;
+    private final int tiffCompression;
+    private final int embeddedCompression;
+
+    private ImageInfo(String format, int width, int height, double horizontalResolution, double verticalResolution, int tiffCompression, int embeddedCompression)
+    {
+        this.format = format;
+        this.width = width;
+        this.height = height;
+        this.horizontalResolution = horizontalResolution;
+        this.verticalResolution = verticalResolution;
+        this.tiffCompression = tiffCompression;
+        this.embeddedCompression = embeddedCompression;
+    }
+
+    // Read the header of an encoded image. Unknown formats give an ImageInfo without size.
+    public static ImageInfo read(final byte[] imageData) throws IOException
+    {
+        // A memory cache stream does not know the length of its source, so report it for the offset checks.
+        ImageInputStream input = new MemoryCacheImageInputStream(new ByteArrayInputStream(imageData))
+        {
+            @Override
+            public long length()
+            {
+                return imageData.length;
+            }
+        };
+        try
+        {
+            return read(input);
+        }
+        finally
+        {
+            input.close();
+        }
+    }
+
+    // Read the header of an image file, loading only the bytes of the header.
+    public static ImageInfo read(Path file) throws IOException
+    {
+        ImageInputStream input = new FileImageInputStream(file.toFile());
+        try
+        {
+            return read(input);
+        }
+        finally
+        {
+            input.close();
+        }
+    }
+
+    // Read the header of an encoded image from the start of a seekable stream.
+    public static ImageInfo read(ImageInputStream input) throws IOException
+    {
+        try
+        {
+            return readHeader(input);
+        }
+        catch (RuntimeException ex)
+        {
+            // The ImageIO readers do not validate every field, and fail on corrupt data with exceptions
+            // such as NegativeArraySizeException or IndexOutOfBoundsException.
+            throw new IOException("The image data is corrupt: " + ex, ex);
+        }
+    }
+
+    // Read the header of an encoded image from the start of a seekable stream, detecting its format.
+    private static ImageInfo readHeader(ImageInputStream input) throws IOException
+    {
+        byte[] signature = new byte[JP2_SIGNATURE.length];
+        int signatureLength = readFully(input, signature);
+        try
+        {
+            if (startsWith(signature, signatureLength, JP2_SIGNATURE))
+            {
+                return readJp2(input);
+            }
+
+            if (startsWith(signature, signatureLength, J2K_SIGNATURE))
+            {
+                return readCodestream(input, 0);
+            }
+
+            if (signatureLength >= 8 &&
+                ((signature[0] == 'I' && signature[1] == 'I' && signature[2] == 42 && signature[3] == 0) ||
+                 (signature[0] == 'M' && signature[1] == 'M' && signature[2] == 0 && signature[3] == 42)))
+            {
+                return readTiff(input, signature[0] == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+            }
+        }
+        catch (EOFException ex)
+        {
+            throw new IOException("The image header is truncated.", ex);
+        }
+
+        input.seek(0);
+        return readWithImageIO(input);
+    }
+
+    // Get the image format, one of the FORMAT_ constants or an ImageIO format name.
+    public String getFormat()
+    {
+        return this.format;
+    }
+
+    // Get the width in pixels, or 0 when unknown.
+    public int getWidth()
+    {
+        return this.width;
+    }
+
+    // Get the height in pixels, or 0 when unknown.
+    public int getHeight()
+    {
+        return this.height;
+    }
+
+    // Check whether the pixel size is known.
+    public boolean hasSize()
+    {
+        return this.width > 0 && this.height > 0;
+    }
+
+    // Get the horizontal resolution in dots per inch, or 0 when the image does not record it.
+    public double getHorizontalResolution()
+    {
+        return this.horizontalResolution;
+    }
+
+    // Get the vertical resolution in dots per inch, or 0 when the image does not record it.
+    public double getVerticalResolution()
+    {
+        return this.verticalResolution;
+    }
+
+    // Get the TIFF compression tag value of the first image, or 0 for other formats.
+    public int getTiffCompression()
+    {
+        return this.tiffCompression;
+    }
+
+    // Get the compression type (see CompressionType) whose PDF filter decodes the image data as it is
+    // stored, so that the data can be embedded without being decoded and compressed again: JPEG for
+    // DCT-based JPEG files, CCITT for single-strip CCITT G4 TIFF files and JPEG 2000 for JP2 files.
+    // Returns -1 when the data has to be recompressed.
+    public int getEmbeddedCompression()
+    {
+        return this.embeddedCompression;
+    }
+
+    // Check whether the image data can be embedded in a PDF without being recompressed.
+    public boolean isEmbeddable()
+    {
+        return this.embeddedCompression >= 0;
+    }
+
+    // Parse the boxes of a JP2 file up to the image header, and the resolution box when it precedes the
+    // contiguous codestream. Both the JP2 file format and a bare codestream are valid JPXDecode data.
+    private static ImageInfo readJp2(ImageInputStream input) throws IOException
+    {
+        input.setByteOrder(ByteOrder.BIG_ENDIAN);
+        long offset = JP2_SIGNATURE.length;
+        while (true)
+        {
+            seek(input, offset, 8);
+            long length = input.readUnsignedInt();
+            int type = input.readInt();
+            long contentOffset = offset + 8;
+            if (length == 1)
+            {
+                length = input.readLong();
+                contentOffset += 8;
+            }
+
+            if (type == JP2_HEADER_BOX)
+            {
+                return readJp2Header(input, contentOffset, length == 0 ? Long.MAX_VALUE : offset + length);
+            }
+
+            if (length < 8)
+            {
+                // The box runs to the end of the file, or is corrupt, and no header has been found.
+                return new ImageInfo(FORMAT_JPEG2000, 0, 0, 0, 0, 0, CompressionType.Jpeg2000Compression);
+            }
+
+            offset += length;
+        }
+    }
+
+    // Read the image size and resolution from the boxes of a JP2 header box.
+    private static ImageInfo readJp2Header(ImageInputStream input, long offset, long end) throws IOException
+    {
+        int width = 0;
+        int height = 0;
+        double[] captureResolution = null;
+        double[] displayResolution = null;
+        while (offset + 8 <= end)
+        {
+            seek(input, offset, 8);
+            long length = input.readUnsignedInt();
+            int type = input.readInt();
+            if (type == JP2_IMAGE_HEADER_BOX)
+            {
+                height = input.readInt();
+                width = input.readInt();
+            }
+            else if (type == JP2_RESOLUTION_BOX)
+            {
+                long resolutionOffset = offset + 8;
+                while (resolutionOffset + 18 <= offset + length)
+                {
+                    seek(input, resolutionOffset, 18);
+                    long resolutionLength = input.readUnsignedInt();
+                    int resolutionType = input.readInt();
+                    if (resolutionType == JP2_CAPTURE_RESOLUTION_BOX)
+                    {
+                        captureResolution = readJp2Resolution(input);
+                    }
+                    else if (resolutionType == JP2_DISPLAY_RESOLUTION_BOX)
+                    {
+                        displayResolution = readJp2Resolution(input);
+                    }
+
+                    if (resolutionLength < 8)
+                    {
+                        break;
+                    }
+
+                    resolutionOffset += resolutionLength;
+                }
+            }
+
+            if (length < 8)
+            {
+                break;
+            }
+
+            offset += length;
+        }
+
+        double[] resolution = displayResolution != null ? displayResolution : captureResolution;
+        return new ImageInfo(FORMAT_JPEG2000, width, height, resolution != null ? resolution[0] : 0, resolution != null ? resolution[1] : 0,
+            0, CompressionType.Jpeg2000Compression);
+    }
+
+    // Read the horizontal and vertical resolution of a JP2 resolution box, converted to dots per inch.
+    private static double[] readJp2Resolution(ImageInputStream input) throws IOException
+    {
+        int verticalNumerator = input.readUnsignedShort();
+        int verticalDenominator = input.readUnsignedShort();
+        int horizontalNumerator = input.readUnsignedShort();
+        int horizontalDenominator = input.readUnsignedShort();
+        int verticalExponent = input.readByte();
+        int horizontalExponent = input.readByte();
+        if (verticalDenominator == 0 || horizontalDenominator == 0)
+        {
+            return null;
+        }
+
+        // The resolutions are given in pixels per meter.
+        return new double[] {
+            (double)horizontalNumerator / horizontalDenominator * Math.pow(10, horizontalExponent) * INCHES_PER_METER,
+            (double)verticalNumerator / verticalDenominator * Math.pow(10, verticalExponent) * INCHES_PER_METER
+        };
+    }
+
+    // Read the image size from the SIZ marker segment of a JPEG 2000 codestream starting at the offset.
+    private static ImageInfo readCodestream(ImageInputStream input, long offset) throws IOException
+    {
+        input.setByteOrder(ByteOrder.BIG_ENDIAN);
+
+        // Skip the SOC and SIZ markers, Lsiz and Rsiz.
+        seek(input, offset + 8, 16);
+        long width = input.readUnsignedInt();
+        long height = input.readUnsignedInt();
+        long xOffset = input.readUnsignedInt();
+        long yOffset = input.readUnsignedInt();
+        return new ImageInfo(FORMAT_JPEG2000, (int)(width - xOffset), (int)(height - yOffset), 0, 0, 0, CompressionType.Jpeg2000Compression);
+    }
+
+    // Parse the first image file directory of a TIFF file.
+    private static ImageInfo readTiff(ImageInputStream input, ByteOrder byteOrder) throws IOException
+    {
+        input.setByteOrder(byteOrder);
+        seek(input, 4, 4);
+        long offset = input.readUnsignedInt();
+        seek(input, offset, 2);
+        int entryCount = input.readUnsignedShort();
+        int width = 0;
+        int height = 0;
+        int compression = 1;
+        int fillOrder = 1;
+        long stripCount = 0;
+        boolean tiled = false;
+        int unit = 2;
+        long xResolutionOffset = -1;
+        long yResolutionOffset = -1;
+        for (int i = 0; i < entryCount; i++)
+        {
+            long entry = offset + 2 + 12 * i;
+            seek(input, entry, 12);
+            int tag = input.readUnsignedShort();
+            int type = input.readUnsignedShort();
+            long count = input.readUnsignedInt();
+            switch (tag)
+            {
+                case TIFF_IMAGE_WIDTH:
+                    width = readTiffInteger(input, type);
+                    break;
+                case TIFF_IMAGE_LENGTH:
+                    height = readTiffInteger(input, type);
+                    break;
+                case TIFF_COMPRESSION:
+                    compression = readTiffInteger(input, type);
+                    break;
+                case TIFF_FILL_ORDER:
+                    fillOrder = readTiffInteger(input, type);
+                    break;
+                case TIFF_STRIP_OFFSETS:
+                    stripCount = count;
+                    break;
+                case TIFF_TILE_WIDTH:
+                    tiled = true;
+                    break;
+                case TIFF_RESOLUTION_UNIT:
+                    unit = readTiffInteger(input, type);
+                    break;
+                case TIFF_X_RESOLUTION:
+                    xResolutionOffset = input.readUnsignedInt();
+                    break;
+                case TIFF_Y_RESOLUTION:
+                    yResolutionOffset = input.readUnsignedInt();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        double xResolution = readTiffRational(input, xResolutionOffset);
+        double yResolution = readTiffRational(input, yResolutionOffset);
+        if (unit == TIFF_UNIT_CENTIMETER)
+        {
+            xResolution *= 2.54;
+            yResolution *= 2.54;
+        }
+        else if (unit != 2)
+        {
+            xResolution = 0;
+            yResolution = 0;
+        }
+
+        // A single G4 strip in the usual bit order is exactly a CCITTFaxDecode stream with K < 0.
+        int embeddedCompression = -1;
+        if (compression == TIFF_COMPRESSION_CCITT_G4 && stripCount == 1 && fillOrder == 1 && !tiled)
+        {
+            embeddedCompression = CompressionType.CCITTCompression;
+        }
+
+        return new ImageInfo(FORMAT_TIFF, width, height, xResolution, yResolution, compression, embeddedCompression);
+    }
+
+    // Read the SHORT or LONG value of the TIFF directory entry the stream is positioned at.
+    private static int readTiffInteger(ImageInputStream input, int type) throws IOException
+    {
+        if (type == 3)
+        {
+            return input.readUnsignedShort();
+        }
+
+        return input.readInt();
+    }
+
+    // Read a RATIONAL value stored at the offset, or return 0 when there is none.
+    private static double readTiffRational(ImageInputStream input, long offset) throws IOException
+    {
+        if (offset < 0)
+        {
+            return 0;
+        }
+
+        seek(input, offset, 8);
+        long numerator = input.readUnsignedInt();
+        long denominator = input.readUnsignedInt();
+        return denominator == 0 ? 0 : (double)numerator / denominator;
+    }
+
+    // Read the size and resolution through an ImageIO reader, if any supports the format.
+    private static ImageInfo readWithImageIO(ImageInputStream input) throws IOException
+    {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext())
+        {
+            return new ImageInfo(FORMAT_UNKNOWN, 0, 0, 0, 0, 0, -1);
+        }
+
+        ImageReader reader = readers.next();
+        String format;
+        int width;
+        int height;
+        double xResolution = 0;
+        double yResolution = 0;
+        try
+        {
+            reader.setInput(input, true, false);
+            format = reader.getFormatName().toLowerCase();
+            if (format.equals("jpg"))
+            {
+                format = FORMAT_JPEG;
+            }
+
+            width = reader.getWidth(0);
+            height = reader.getHeight(0);
+            IIOMetadata metadata = reader.getImageMetadata(0);
+            if (metadata != null && metadata.isStandardMetadataFormatSupported())
+            {
+                Node root = metadata.getAsTree(IIOMetadataFormatImpl.standardMetadataFormatName);
+                xResolution = getStandardResolution(root, "HorizontalPixelSize");
+                yResolution = getStandardResolution(root, "VerticalPixelSize");
+            }
+        }
+        finally
+        {
+            reader.dispose();
+        }
+
+        int embeddedCompression = -1;
+        if (format.equals(FORMAT_JPEG) && isDctJpeg(input))
+        {
+            embeddedCompression = CompressionType.JpegCompression;
+        }
+
+        return new ImageInfo(format, width, height, xResolution, yResolution, 0, embeddedCompression);
+    }
+
+    // Check whether a JPEG file is Huffman-coded baseline, extended or progressive DCT data, which
+    // DCTDecode reads as it is. Lossless and arithmetic-coded JPEG files are not.
+    private static boolean isDctJpeg(ImageInputStream input) throws IOException
+    {
+        input.setByteOrder(ByteOrder.BIG_ENDIAN);
+        long offset = 2;
+        try
+        {
+            while (true)
+            {
+                seek(input, offset, 2);
+                if (input.readUnsignedByte() != 0xff)
+                {
+                    return false;
+                }
+
+                int marker = input.readUnsignedByte();
+                if (marker == 0xff)
+                {
+                    // Fill byte.
+                    offset++;
+                    continue;
+                }
+
+                if (marker == 0xc0 || marker == 0xc1 || marker == 0xc2)
+                {
+                    return true;
+                }
+
+                if (marker >= 0xc3 && marker <= 0xcf && marker != 0xc4 && marker != 0xc8 && marker != 0xcc)
+                {
+                    return false;
+                }
+
+                if (marker == 0xd9 || marker == 0xda)
+                {
+                    // End of image or start of scan before any frame header.
+                    return false;
+                }
+
+                offset += 2 + input.readUnsignedShort();
+            }
+        }
+        catch (EOFException ex)
+        {
+            return false;
+        }
+    }
+
+    // Convert a pixel size in millimeters from standard ImageIO metadata to dots per inch.
+    private static double getStandardResolution(Node root, String name)
+    {
+        for (Node dimension = root.getFirstChild(); dimension != null; dimension = dimension.getNextSibling())
+        {
+            if (!"Dimension".equals(dimension.getNodeName()))
+            {
+                continue;
+            }
+
+            for (Node node = dimension.getFirstChild(); node != null; node = node.getNextSibling())
+            {
+                if (name.equals(node.getNodeName()))
+                {
+                    Node value = node.getAttributes().getNamedItem("value");
+                    double millimeters = value != null ? Double.parseDouble(value.getNodeValue()) : 0;
+                    return millimeters > 0 ? 25.4 / millimeters : 0;
+                }
+            }
+        }
+
+        return 0;
+    }
+
+    // Seek to an offset read from a header, which must leave room for the given number of bytes when the
+    // length of the stream is known. Without the check a memory cache stream fails with an
+    // IndexOutOfBoundsException past its end.
+    private static void seek(ImageInputStream input, long offset, long size) throws IOException
+    {
+        long length = input.length();
+        if (offset < 0 || (length >= 0 && offset + size > length))
+        {
+            throw new EOFException("The offset " + offset + " lies outside the image data.");
+        }
+
+        input.seek(offset);
+    }
+
+    // Read up to the length of the buffer from the stream and return the number of bytes read.
+    private static int readFully(ImageInputStream input, byte[] buffer) throws IOException
+    {
+        int length = 0;
+        while (length < buffer.length)
+        {
+            int count = input.read(buffer, length, buffer.length - length);
+            if (count < 0)
+            {
+                break;
+            }
+
+            length += count;
+        }
+
+        return length;
+    }
+
+    private static boolean startsWith(byte[] data, int length, byte[] prefix)
+    {
+        if (length < prefix.length)
+        {
+            return false;
+        }
+
+        for (int i = 0; i < prefix.length; i++)
+        {
+            if (data[i] != prefix[i])
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,125 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  An encoded image to add to a PDF document: an image file, an        *'
+//  in-memory byte array or the content of a channel.                   *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.AddImageSample;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+public abstract class ImageSource
+{
+    private static final int CHANNEL_BUFFER_SIZE = 64 * 1024;
+
+    // Create a source reading an image file.
+    public static ImageSource fromPath(final String path)
+    {
+        if (path == null)
+        {
+            throw new IllegalArgumentException("The image path must not be null.");
+        }
+
+        return new ImageSource()
+        {
+            public String getPath()
+            {
+                return path;
+            }
+
+            public byte[] read() throws IOException
+            {
+                return Files.readAllBytes(Paths.get(path));
+            }
+
+            @Override
+            public String toString()
+            {
+                return path;
+            }
+        };
+    }
+
+    // Create a source for an encoded image held in memory. The array must not be modified afterwards.
+    public static ImageSource fromBytes(final byte[] imageData)
+    {
+        if (imageData == null)
+        {
+            throw new IllegalArgumentException("The image data must not be null.");
+        }
+
+        return new ImageSource()
+        {
+            public byte[] read()
+            {
+                return imageData;
+            }
+
+            @Override
+            public String toString()
+            {
+                return "Image data of " + imageData.length + " bytes";
+            }
+        };
+    }
+
+    // Create a source reading the rest of a channel, which is closed once read.
+    public static ImageSource fromChannel(final ReadableByteChannel channel)
+    {
+        if (channel == null)
+        {
+            throw new IllegalArgumentException("The image channel must not be null.");
+        }
+
+        return new ImageSource()
+        {
+            public byte[] read() throws IOException
+            {
+                try
+                {
+                    ByteArrayOutputStream output = new ByteArrayOutputStream(CHANNEL_BUFFER_SIZE);
+                    ByteBuffer buffer = ByteBuffer.allocate(CHANNEL_BUFFER_SIZE);
+                    while (channel.read(buffer) >= 0)
+                    {
+                        buffer.flip();
+                        output.write(buffer.array(), 0, buffer.limit());
+                        buffer.clear();
+                    }
+
+                    return output.toByteArray();
+                }
+                finally
+                {
+                    channel.close();
+                }
+            }
+
+            @Override
+            public String toString()
+            {
+                return "Image channel " + channel;
+            }
+        };
+    }
+
+    // Get the path of the image file, or null when the image does not come from a file.
+    public String getPath()
+    {
+        return null;
+    }
+
+    // Read the encoded image.
+    public abstract byte[] read() throws IOException;
+}
@@ -0,0 +1,32 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Pixel layouts accepted by RasterImages for raw pixel buffers.       *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.AddImageSample;
+
+public final class PixelFormat
+{
+    // 1 bit per pixel, 8 pixels per byte with the leftmost pixel in the most significant bit; 0 is black.
+    public static final int Bilevel = 0;
+
+    // 8 bits per pixel, 0 is black.
+    public static final int Gray8 = 1;
+
+    // 24 bits per pixel, in red, green, blue byte order.
+    public static final int Rgb24 = 2;
+
+    // 24 bits per pixel, in blue, green, red byte order (as in BufferedImage.TYPE_3BYTE_BGR).
+    public static final int Bgr24 = 3;
+
+    private PixelFormat()
+    {
+    }
+}
@@ -0,0 +1,302 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Adds in-memory images to PDF pages without compressing them in      *'
+//  Java. The pixels are wrapped in an uncompressed bitmap, which is    *'
+//  mostly a row-by-row copy, so that the image is compressed only      *'
+//  once, by the native side, with the CompressionType chosen in the    *'
+//  AddImageOptions.                                                    *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.AddImageSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.IndexColorModel;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+
+public final class RasterImages
+{
+    private static final int FILE_HEADER_SIZE = 14;
+    private static final int INFO_HEADER_SIZE = 40;
+
+    private RasterImages()
+    {
+    }
+
+    // Add a BufferedImage to the page. Transparency is ignored.
+    public static void addImage(Page page, BufferedImage image, AddImageOptions options)
+    {
+        page.addImage(encodeBitmap(image), options);
+    }
+
+    // Add a raw pixel buffer to the page. Rows start every stride bytes from the first byte of the buffer.
+    public static void addImage(Page page, byte[] pixels, int width, int height, int stride, int pixelFormat, AddImageOptions options)
+    {
+        page.addImage(encodeBitmap(pixels, width, height, stride, pixelFormat), options);
+    }
+
+    // Wrap a raw pixel buffer in an uncompressed BMP image.
+    public static byte[] encodeBitmap(byte[] pixels, int width, int height, int stride, int pixelFormat)
+    {
+        int bitsPerPixel = getBitsPerPixel(pixelFormat);
+        int rowSize = (width * bitsPerPixel + 7) / 8;
+        if (width < 1 || height < 1 || stride < rowSize || (long)stride * (height - 1) + rowSize > pixels.length)
+        {
+            throw new IllegalArgumentException("The pixel buffer does not hold " + width + "x" + height + " pixels with a stride of " + stride + " bytes.");
+        }
+
+        int[] palette = null;
+        if (pixelFormat == PixelFormat.Bilevel)
+        {
+            palette = new int[] { 0x000000, 0xffffff };
+        }
+        else if (pixelFormat == PixelFormat.Gray8)
+        {
+            palette = getGrayPalette();
+        }
+
+        Bitmap bitmap = new Bitmap(width, height, bitsPerPixel, palette);
+        for (int y = 0; y < height; y++)
+        {
+            int source = y * stride;
+            int target = bitmap.getRowOffset(y);
+            if (pixelFormat == PixelFormat.Rgb24)
+            {
+                for (int x = 0; x < width; x++, source += 3, target += 3)
+                {
+                    bitmap.data[target] = pixels[source + 2];
+                    bitmap.data[target + 1] = pixels[source + 1];
+                    bitmap.data[target + 2] = pixels[source];
+                }
+            }
+            else
+            {
+                System.arraycopy(pixels, source, bitmap.data, target, rowSize);
+            }
+        }
+
+        return bitmap.data;
+    }
+
+    // Wrap the pixels of a BufferedImage in an uncompressed BMP image, copying rows as they are for
+    // byte-interleaved BGR, 8-bit gray and 1-bit images.
+    public static byte[] encodeBitmap(BufferedImage image)
+    {
+        Raster raster = image.getRaster();
+        DataBuffer dataBuffer = raster.getDataBuffer();
+        switch (image.getType())
+        {
+            case BufferedImage.TYPE_3BYTE_BGR:
+            case BufferedImage.TYPE_BYTE_GRAY:
+            {
+                PixelInterleavedSampleModel sampleModel = (PixelInterleavedSampleModel)raster.getSampleModel();
+                if (raster.getParent() == null && dataBuffer.getNumBanks() == 1)
+                {
+                    int format = image.getType() == BufferedImage.TYPE_BYTE_GRAY ? PixelFormat.Gray8 : PixelFormat.Bgr24;
+                    return encodeBitmap(((DataBufferByte)dataBuffer).getData(), image.getWidth(), image.getHeight(),
+                        sampleModel.getScanlineStride(), format);
+                }
+
+                break;
+            }
+            case BufferedImage.TYPE_BYTE_BINARY:
+            {
+                IndexColorModel colorModel = (IndexColorModel)image.getColorModel();
+                if (colorModel.getPixelSize() == 1 && raster.getParent() == null)
+                {
+                    return encodeBilevel(image, colorModel, (DataBufferByte)dataBuffer);
+                }
+
+                break;
+            }
+            case BufferedImage.TYPE_INT_RGB:
+            case BufferedImage.TYPE_INT_ARGB:
+            case BufferedImage.TYPE_INT_ARGB_PRE:
+            {
+                if (raster.getParent() == null)
+                {
+                    return encodePackedRgb(image, (DataBufferInt)dataBuffer,
+                        ((SinglePixelPackedSampleModel)raster.getSampleModel()).getScanlineStride());
+                }
+
+                break;
+            }
+            default:
+                break;
+        }
+
+        return encodeGeneric(image);
+    }
+
+    // Copy the packed rows of a 1-bit indexed image with its two palette entries.
+    private static byte[] encodeBilevel(BufferedImage image, IndexColorModel colorModel, DataBufferByte dataBuffer)
+    {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int stride = (width + 7) / 8;
+        int[] palette = new int[] { colorModel.getRGB(0) & 0xffffff, colorModel.getRGB(1) & 0xffffff };
+
+        Bitmap bitmap = new Bitmap(width, height, 1, palette);
+        byte[] pixels = dataBuffer.getData();
+        for (int y = 0; y < height; y++)
+        {
+            System.arraycopy(pixels, y * stride, bitmap.data, bitmap.getRowOffset(y), stride);
+        }
+
+        return bitmap.data;
+    }
+
+    // Convert the rows of an int-packed RGB image to BGR bytes.
+    private static byte[] encodePackedRgb(BufferedImage image, DataBufferInt dataBuffer, int stride)
+    {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        Bitmap bitmap = new Bitmap(width, height, 24, null);
+        int[] pixels = dataBuffer.getData();
+        for (int y = 0; y < height; y++)
+        {
+            int source = y * stride;
+            int target = bitmap.getRowOffset(y);
+            for (int x = 0; x < width; x++, target += 3)
+            {
+                int rgb = pixels[source + x];
+                bitmap.data[target] = (byte)rgb;
+                bitmap.data[target + 1] = (byte)(rgb >> 8);
+                bitmap.data[target + 2] = (byte)(rgb >> 16);
+            }
+        }
+
+        return bitmap.data;
+    }
+
+    // Convert any other image row by row through its color model.
+    private static byte[] encodeGeneric(BufferedImage image)
+    {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        Bitmap bitmap = new Bitmap(width, height, 24, null);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++)
+        {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            int target = bitmap.getRowOffset(y);
+            for (int x = 0; x < width; x++, target += 3)
+            {
+                int rgb = row[x];
+                bitmap.data[target] = (byte)rgb;
+                bitmap.data[target + 1] = (byte)(rgb >> 8);
+                bitmap.data[target + 2] = (byte)(rgb >> 16);
+            }
+        }
+
+        return bitmap.data;
+    }
+
+    private static int getBitsPerPixel(int pixelFormat)
+    {
+        switch (pixelFormat)
+        {
+            case PixelFormat.Bilevel:
+                return 1;
+            case PixelFormat.Gray8:
+                return 8;
+            case PixelFormat.Rgb24:
+            case PixelFormat.Bgr24:
+                return 24;
+            default:
+                throw new IllegalArgumentException("The pixel format '" + pixelFormat + "' is not supported.");
+        }
+    }
+
+    private static int[] getGrayPalette()
+    {
+        int[] palette = new int[256];
+        for (int i = 0; i < palette.length; i++)
+        {
+            palette[i] = i << 16 | i << 8 | i;
+        }
+
+        return palette;
+    }
+
+    // An uncompressed BMP image with its headers and palette written and room for the pixel rows.
+    private static class Bitmap
+    {
+        final byte[] data;
+        private final int pixelOffset;
+        private final int rowSize;
+        private final int height;
+
+        Bitmap(int width, int height, int bitsPerPixel, int[] palette)
+        {
+            int paletteSize = palette != null ? palette.length * 4 : 0;
+            long rowSize = ((long)width * bitsPerPixel + 31) / 32 * 4;
+            long fileSize = FILE_HEADER_SIZE + INFO_HEADER_SIZE + paletteSize + rowSize * height;
+            if (fileSize > Integer.MAX_VALUE - 8)
+            {
+                throw new IllegalArgumentException("The image of " + width + "x" + height + " pixels is too large.");
+            }
+
+            this.rowSize = (int)rowSize;
+            this.height = height;
+            this.pixelOffset = FILE_HEADER_SIZE + INFO_HEADER_SIZE + paletteSize;
+            this.data = new byte[(int)fileSize];
+
+            // BITMAPFILEHEADER.
+            this.data[0] = 'B';
+            this.data[1] = 'M';
+            this.putInt(2, (int)fileSize);
+            this.putInt(10, this.pixelOffset);
+
+            // BITMAPINFOHEADER; a positive height stores the rows bottom-up.
+            this.putInt(14, INFO_HEADER_SIZE);
+            this.putInt(18, width);
+            this.putInt(22, height);
+            this.putShort(26, 1);
+            this.putShort(28, bitsPerPixel);
+            this.putInt(34, this.rowSize * height);
+            this.putInt(46, palette != null ? palette.length : 0);
+
+            if (palette != null)
+            {
+                for (int i = 0; i < palette.length; i++)
+                {
+                    this.putInt(FILE_HEADER_SIZE + INFO_HEADER_SIZE + i * 4, palette[i]);
+                }
+            }
+        }
+
+        // Get the offset of the first byte of the image row y, counted from the top.
+        int getRowOffset(int y)
+        {
+            return this.pixelOffset + (this.height - 1 - y) * this.rowSize;
+        }
+
+        private void putInt(int offset, int value)
+        {
+            this.data[offset] = (byte)value;
+            this.data[offset + 1] = (byte)(value >> 8);
+            this.data[offset + 2] = (byte)(value >> 16);
+            this.data[offset + 3] = (byte)(value >> 24);
+        }
+
+        private void putShort(int offset, int value)
+        {
+            this.data[offset] = (byte)value;
+            this.data[offset + 1] = (byte)(value >> 8);
+        }
+    }
+}
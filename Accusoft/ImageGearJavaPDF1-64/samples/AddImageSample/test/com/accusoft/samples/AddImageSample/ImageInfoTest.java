@@ -0,0 +1,111 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Tests the header parsing of ImageInfo with the sample images and    *'
+//  damaged copies of them: truncated or corrupt data must fail with    *'
+//  an IOException, which BatchDocumentBuilder turns into a skipped     *'
+//  image, and never with an unchecked exception.                       *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.AddImageSample;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ImageInfoTest
+{
+    private static final String[] IMAGE_PATHS = {
+        "../SampleData/Images/SampleFax.tif",
+        "../SampleData/Images/bmp-image.bmp",
+        "../SampleData/Images/ccitt.tif",
+        "../SampleData/Images/morning-coffee.jpg",
+        "../SampleData/Images/tiff-image.tif"
+    };
+
+    private static final int TIFF_X_RESOLUTION = 282;
+    private static final int TIFF_RATIONAL = 5;
+
+    @Test
+    public void sampleImagesHaveSize() throws IOException
+    {
+        for (String path : IMAGE_PATHS)
+        {
+            ImageInfo info = ImageInfo.read(Paths.get(path));
+            assertTrue(path, info.hasSize());
+        }
+    }
+
+    @Test
+    public void truncatedImagesFailWithIOException() throws IOException
+    {
+        for (String path : IMAGE_PATHS)
+        {
+            byte[] imageData = Files.readAllBytes(Paths.get(path));
+            for (int length : new int[] { 0, 8, 20, 100, imageData.length / 2 })
+            {
+                byte[] truncated = Arrays.copyOf(imageData, length);
+                try
+                {
+                    ImageInfo.read(truncated);
+                }
+                catch (IOException ex)
+                {
+                    // The header did not fit in the truncated data.
+                }
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void tiffOffsetPastTheEndIsReported() throws IOException
+    {
+        // A little-endian TIFF file whose only directory entry points its X resolution far past the end.
+        ByteBuffer tiff = ByteBuffer.allocate(26).order(ByteOrder.LITTLE_ENDIAN);
+        tiff.put((byte)'I').put((byte)'I').putShort((short)42).putInt(8);
+        tiff.putShort((short)1);
+        tiff.putShort((short)TIFF_X_RESOLUTION).putShort((short)TIFF_RATIONAL).putInt(1).putInt(0xfffffff0);
+        tiff.putInt(0);
+        ImageInfo.read(tiff.array());
+    }
+
+    @Test(expected = IOException.class)
+    public void corruptBmpHeaderIsReported() throws IOException
+    {
+        byte[] imageData = Files.readAllBytes(Paths.get("../SampleData/Images/bmp-image.bmp"));
+
+        // Make the pixel data offset negative, which the ImageIO reader turns into a negative array size.
+        imageData[13] = (byte)0x80;
+        ImageInfo.read(imageData);
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedImageFileIsReported() throws IOException
+    {
+        byte[] imageData = Files.readAllBytes(Paths.get("../SampleData/Images/ccitt.tif"));
+        Path file = Files.createTempFile("truncated", ".tif");
+        try
+        {
+            Files.write(file, Arrays.copyOf(imageData, 100));
+            ImageInfo.read(file);
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+}
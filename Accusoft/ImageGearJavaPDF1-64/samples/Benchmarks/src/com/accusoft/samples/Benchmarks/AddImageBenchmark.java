@@ -0,0 +1,109 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Benchmarks Page.addImage for each CompressionType, with sample      *'
+//  images suited to it: the bilevel fax image for CCITT and JBIG2,     *'
+//  and color images for the others. Every invocation adds the image    *'
+//  to the blank page of a new document, created outside of the         *'
+//  measured time.                                                      *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.Benchmarks;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AddImageBenchmark
+{
+    // Image file and compression type name, separated by a slash.
+    @Param({
+        "SampleFax.tif/NoneCompression",
+        "SampleFax.tif/CCITTCompression",
+        "SampleFax.tif/Jbig2Compression",
+        "SampleFax.tif/DeflateCompression",
+        "morning-coffee.jpg/NoneCompression",
+        "morning-coffee.jpg/DeflateCompression",
+        "morning-coffee.jpg/JpegCompression",
+        "morning-coffee.jpg/Jpeg2000Compression",
+        "bmp-image.bmp/DeflateCompression",
+        "bmp-image.bmp/JpegCompression" })
+    public String image;
+
+    private PdfSession session;
+    private byte[] imageData;
+    private AddImageOptions options;
+    private Document document;
+    private Page page;
+
+    @Setup(Level.Trial)
+    public void setUp(PdfSession session) throws IOException
+    {
+        int separator = this.image.indexOf('/');
+        this.session = session;
+        this.imageData = Files.readAllBytes(Paths.get(SampleFiles.getImage(this.image.substring(0, separator))));
+        this.options = new AddImageOptions();
+        this.options.setCompressionType(SampleFiles.getCompressionType(this.image.substring(separator + 1)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        if (this.options != null)
+        {
+            this.options.delete();
+            this.options = null;
+        }
+    }
+
+    // Create the document and page the next invocation adds the image to.
+    @Setup(Level.Invocation)
+    public void createPage()
+    {
+        this.document = this.session.createDocument();
+        this.page = this.document.getPage(0);
+    }
+
+    @TearDown(Level.Invocation)
+    public void closePage()
+    {
+        PdfSession.closePage(this.page);
+        this.page = null;
+        PdfSession.closeDocument(this.document);
+        this.document = null;
+    }
+
+    @Benchmark
+    public void addImage()
+    {
+        this.page.addImage(this.imageData, this.options);
+    }
+}
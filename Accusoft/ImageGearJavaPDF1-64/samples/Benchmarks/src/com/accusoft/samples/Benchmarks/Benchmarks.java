@@ -0,0 +1,66 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  SAMPLE PURPOSE                                                      *'
+//                                                                      *'
+//  Runs the JMH benchmarks of the library: opening documents,          *'
+//  counting and getting pages, rendering, saving and adding images.    *'
+//  The GC profiler is always enabled, so that the results include      *'
+//  the allocation rate next to the throughput and average time.        *'
+//                                                                      *'
+//                                                                      *'
+//  ARGUMENTS                                                           *'
+//                                                                      *'
+//   The standard JMH command line options, for instance a benchmark    *'
+//   name pattern such as RenderBenchmark, -l to list the benchmarks    *'
+//   or -h for help. The native library path and the                    *'
+//   -Dbenchmarks.sampledata=<SampleData directory> option given to     *'
+//   this JVM are passed on to the forked benchmark JVMs.               *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.Benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class Benchmarks
+{
+    // Application entry point.
+    public static void main(String[] args)
+    {
+        try
+        {
+            CommandLineOptions commandLine = new CommandLineOptions(args);
+            if (commandLine.shouldHelp())
+            {
+                commandLine.showHelp();
+                return;
+            }
+
+            Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build();
+
+            Runner runner = new Runner(options);
+            if (commandLine.shouldList())
+            {
+                runner.list();
+                return;
+            }
+
+            runner.run();
+        }
+        catch (Throwable ex)
+        {
+            System.err.println("Exception: " + ex.toString());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Benchmarks opening a PDF document, counting its pages and getting   *'
+//  a page, for each bundled sample PDF file.                           *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.Benchmarks;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentBenchmark
+{
+    @Param({ "single-page.pdf", "multi-page.pdf", "accusoft-brochure.pdf", "compression-info.pdf" })
+    public String file;
+
+    private String inputPath;
+    private Document document;
+
+    @Setup(Level.Trial)
+    public void setUp(PdfSession session)
+    {
+        this.inputPath = SampleFiles.getPdf(this.file);
+        this.document = session.openDocument(this.inputPath);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        PdfSession.closeDocument(this.document);
+        this.document = null;
+    }
+
+    // Create a document, open the file in it and close it again.
+    @Benchmark
+    public void openDocument(PdfSession session)
+    {
+        PdfSession.closeDocument(session.openDocument(this.inputPath));
+    }
+
+    @Benchmark
+    public long getPageCount()
+    {
+        return this.document.getPageCount();
+    }
+
+    // Get the first page and release it.
+    @Benchmark
+    public void getPage()
+    {
+        PdfSession.closePage(this.document.getPage(0));
+    }
+}
@@ -0,0 +1,118 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  The PDF session shared by the benchmarks of a forked JVM. It is     *'
+//  initialized once per trial, before the benchmark states that open   *'
+//  documents, and terminated after them.                               *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.Benchmarks;
+
+import com.accusoft.imagegearpdf.*;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+@State(Scope.Benchmark)
+public class PdfSession
+{
+    private PDF pdf;
+
+    static
+    {
+        System.loadLibrary("IgPdf");
+    }
+
+    // Initialize the PDF session.
+    @Setup(Level.Trial)
+    public void initialize()
+    {
+        this.pdf = PDF.getInstance();
+
+        // Set license info.
+        // NOTE: The following three lines should be uncommented and modified using the corresponding license.
+        // pdf.setSolutionName("YourSolutionName");
+        // pdf.setSolutionKey(0x00000000,0x00000000,0x00000000,0x00000000);
+        // pdf.setOEMLicenseKey("YourOEMLicenseKey");
+
+        // Only initialize the PDF session after setting any licensing information is provided.
+        this.pdf.initialize();
+    }
+
+    // Terminate the PDF session.
+    @TearDown(Level.Trial)
+    public void terminate()
+    {
+        if (this.pdf != null)
+        {
+            this.pdf.terminate();
+            this.pdf = null;
+        }
+    }
+
+    // Create a document and open the PDF file in it.
+    public Document openDocument(String inputPath)
+    {
+        Document document = this.pdf.createDocument();
+        try
+        {
+            document.openDocument(inputPath);
+        }
+        catch (RuntimeException ex)
+        {
+            closeDocument(document);
+            throw ex;
+        }
+
+        return document;
+    }
+
+    // Create an empty document with a single Letter page.
+    public Document createDocument()
+    {
+        Document document = this.pdf.createDocument();
+        document.insertBlankPage(0);
+        return document;
+    }
+
+    // Close and delete a native document.
+    public static void closeDocument(Document document)
+    {
+        if (document != null)
+        {
+            try
+            {
+                document.close();
+            }
+            finally
+            {
+                document.delete();
+            }
+        }
+    }
+
+    // Close and delete a native page.
+    public static void closePage(Page page)
+    {
+        if (page != null)
+        {
+            try
+            {
+                page.close();
+            }
+            finally
+            {
+                page.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Benchmarks Page.render on the first page of sample PDF files for    *'
+//  a range of resolutions and smoothing flags.                         *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.Benchmarks;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBenchmark
+{
+    @Param({ "single-page.pdf", "accusoft-brochure.pdf" })
+    public String file;
+
+    @Param({ "72", "150", "300" })
+    public double resolution;
+
+    @Param({ "NoSmoothing", "SmoothText", "SmoothLineArt", "SmoothImage", "EnhanceLines", "All" })
+    public String smoothing;
+
+    private Document document;
+    private Page page;
+    private RenderOptions options;
+
+    @Setup(Level.Trial)
+    public void setUp(PdfSession session)
+    {
+        this.document = session.openDocument(SampleFiles.getPdf(this.file));
+        this.page = this.document.getPage(0);
+        this.options = new RenderOptions();
+        this.options.setResolution(this.resolution);
+        this.options.setSmoothingFlags(SampleFiles.getSmoothingFlags(this.smoothing));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        if (this.options != null)
+        {
+            this.options.delete();
+            this.options = null;
+        }
+
+        PdfSession.closePage(this.page);
+        this.page = null;
+        PdfSession.closeDocument(this.document);
+        this.document = null;
+    }
+
+    @Benchmark
+    public byte[] render()
+    {
+        return this.page.render(this.options);
+    }
+}
@@ -0,0 +1,105 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Locates the bundled sample files and maps the constant names used   *'
+//  in benchmark parameters to the values of the native constants.      *'
+//                                                                      *'
+//  The SampleData directory is taken from the benchmarks.sampledata    *'
+//  system property, or looked up from the working directory.           *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.Benchmarks;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.io.File;
+
+public final class SampleFiles
+{
+    // System property giving the SampleData directory.
+    public static final String SAMPLE_DATA_PROPERTY = "benchmarks.sampledata";
+
+    private SampleFiles()
+    {
+    }
+
+    // Get the path of a file of SampleData/Pdf.
+    public static String getPdf(String name)
+    {
+        return getFile("Pdf", name);
+    }
+
+    // Get the path of a file of SampleData/Images.
+    public static String getImage(String name)
+    {
+        return getFile("Images", name);
+    }
+
+    // Get the value of a CompressionType constant from its name, such as JpegCompression.
+    public static int getCompressionType(String name)
+    {
+        return getConstant(CompressionType.class, name);
+    }
+
+    // Get the value of a SmoothingFlags constant from its name, or of all flags for 'All'.
+    public static int getSmoothingFlags(String name)
+    {
+        if (name.equals("All"))
+        {
+            return SmoothingFlags.SmoothText | SmoothingFlags.SmoothLineArt | SmoothingFlags.SmoothImage | SmoothingFlags.EnhanceLines;
+        }
+
+        return getConstant(SmoothingFlags.class, name);
+    }
+
+    private static String getFile(String directory, String name)
+    {
+        File file = new File(new File(getSampleDataDirectory(), directory), name);
+        if (!file.isFile())
+        {
+            throw new IllegalStateException("The sample file '" + file + "' does not exist.");
+        }
+
+        return file.getAbsolutePath();
+    }
+
+    // Get the SampleData directory from the system property, or from the working directory when the
+    // benchmarks run from their module or from the samples directory.
+    private static File getSampleDataDirectory()
+    {
+        String property = System.getProperty(SAMPLE_DATA_PROPERTY);
+        if (property != null)
+        {
+            return new File(property);
+        }
+
+        for (String candidate : new String[] { "../SampleData", "SampleData", "samples/SampleData" })
+        {
+            File directory = new File(candidate);
+            if (directory.isDirectory())
+            {
+                return directory;
+            }
+        }
+
+        throw new IllegalStateException("The SampleData directory was not found; set the " + SAMPLE_DATA_PROPERTY + " system property.");
+    }
+
+    private static int getConstant(Class<?> type, String name)
+    {
+        try
+        {
+            return type.getField(name).getInt(null);
+        }
+        catch (NoSuchFieldException | IllegalAccessException ex)
+        {
+            throw new IllegalArgumentException("'" + name + "' is not a " + type.getSimpleName() + " constant.");
+        }
+    }
+}
@@ -0,0 +1,84 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Benchmarks Document.saveDocument of sample PDF files, with and      *'
+//  without linearization, to a temporary file.                         *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.Benchmarks;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SaveBenchmark
+{
+    @Param({ "single-page.pdf", "multi-page.pdf", "accusoft-brochure.pdf", "compression-info.pdf" })
+    public String file;
+
+    @Param({ "false", "true" })
+    public boolean linearized;
+
+    private Document document;
+    private SaveOptions options;
+    private File outputFile;
+
+    @Setup(Level.Trial)
+    public void setUp(PdfSession session) throws IOException
+    {
+        this.document = session.openDocument(SampleFiles.getPdf(this.file));
+        this.options = new SaveOptions();
+        this.options.setLinearized(this.linearized);
+        this.outputFile = File.createTempFile("benchmark-", ".pdf");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        if (this.options != null)
+        {
+            this.options.delete();
+            this.options = null;
+        }
+
+        PdfSession.closeDocument(this.document);
+        this.document = null;
+        if (this.outputFile != null)
+        {
+            this.outputFile.delete();
+        }
+    }
+
+    @Benchmark
+    public void saveDocument()
+    {
+        this.document.saveDocument(this.outputFile.getPath(), this.options);
+    }
+}
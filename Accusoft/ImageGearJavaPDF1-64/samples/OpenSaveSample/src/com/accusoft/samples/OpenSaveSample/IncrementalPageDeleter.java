@@ -0,0 +1,151 @@
+// ****************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                  *'
+//  This sample code is provided to Accusoft licensees "as is"        *'
+//  with no restrictions on use or modification. No warranty for      *'
+//  use of this sample code is provided by Accusoft.                  *'
+//                                                                    *'
+//  CLASS PURPOSE                                                     *'
+//                                                                    *'
+//  Deletes pages of a PDF file by appending an incremental update    *'
+//  that rewrites only the page tree nodes losing pages, so that the  *'
+//  cost does not depend on the size of the file. The deleted page    *'
+//  objects stay in the file, unreachable from the page tree, as do   *'
+//  outline entries or links pointing to them; readers ignore those.  *'
+//  Encrypted files are not supported.                                *'
+//                                                                    *'
+// ****************************************************************** *'
+
+package com.accusoft.samples.OpenSaveSample;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class IncrementalPageDeleter
+{
+    private static final PdfParser.Name PAGES = new PdfParser.Name("Pages");
+
+    private final PdfFile file;
+    private final IncrementalUpdate update;
+    private final long firstPage;
+    private final long lastPage;
+    private final Set<PdfParser.Reference> visited = new HashSet<PdfParser.Reference>();
+
+    private IncrementalPageDeleter(PdfFile file, long firstPage, long lastPage)
+    {
+        this.file = file;
+        this.update = new IncrementalUpdate(file);
+        this.firstPage = firstPage;
+        this.lastPage = lastPage;
+    }
+
+    // Delete pages [firstPage, lastPage] of the PDF file and save the result to the output file, which
+    // may be the input file itself. At least one page must remain.
+    public static void deletePages(String inputPath, long firstPage, long lastPage, String outputPath) throws IOException
+    {
+        Path source = Paths.get(inputPath);
+        PdfFile file = PdfFile.open(source);
+        if (file.getTrailer().containsKey("Encrypt"))
+        {
+            throw new IOException("The PDF file '" + inputPath + "' is encrypted.");
+        }
+
+        Map<String, Object> catalog = file.getDictionary(file.getTrailer().get("Root"));
+        Object pages = catalog.get("Pages");
+        if (!(pages instanceof PdfParser.Reference))
+        {
+            throw new IOException("The page tree of '" + inputPath + "' is not an indirect object.");
+        }
+
+        long pageCount = file.getInteger(file.getDictionary(pages).get("Count"));
+        if (firstPage < 0 || lastPage < firstPage || lastPage >= pageCount)
+        {
+            throw new IllegalArgumentException("The page range " + firstPage + "-" + lastPage + " is not valid for a document of " +
+                pageCount + " pages.");
+        }
+
+        if (lastPage - firstPage + 1 == pageCount)
+        {
+            throw new IllegalArgumentException("At least one page must remain in the document.");
+        }
+
+        IncrementalPageDeleter deleter = new IncrementalPageDeleter(file, firstPage, lastPage);
+        deleter.prune((PdfParser.Reference)pages, 0);
+        deleter.update.save(source, Paths.get(outputPath));
+    }
+
+    // Remove the pages of the range from the subtree whose first page has the given index, rewriting
+    // the nodes that lose pages. Subtrees outside the range are not read. Returns the number of pages
+    // removed.
+    private long prune(PdfParser.Reference nodeReference, long firstIndex) throws IOException
+    {
+        if (!this.visited.add(nodeReference))
+        {
+            throw new IOException("The page tree node " + nodeReference + " is referenced twice.");
+        }
+
+        Map<String, Object> node = this.file.getDictionary(nodeReference);
+        Object kidsValue = node.get("Kids");
+        Object kidsObject = this.file.resolve(kidsValue);
+        if (!(kidsObject instanceof List))
+        {
+            throw new IOException("The page tree node " + nodeReference + " has no kids.");
+        }
+
+        List<Object> kids = new ArrayList<Object>();
+        long index = firstIndex;
+        long removed = 0;
+        for (Object kid : (List<?>)kidsObject)
+        {
+            if (!(kid instanceof PdfParser.Reference))
+            {
+                throw new IOException("The page tree node " + nodeReference + " has a direct kid.");
+            }
+
+            Map<String, Object> kidNode = this.file.getDictionary(kid);
+            boolean isTree = PAGES.equals(kidNode.get("Type")) || (kidNode.get("Type") == null && kidNode.containsKey("Kids"));
+            long count = isTree ? this.file.getInteger(kidNode.get("Count")) : 1;
+            if (index > this.lastPage || index + count <= this.firstPage)
+            {
+                kids.add(kid);
+            }
+            else if (index >= this.firstPage && index + count - 1 <= this.lastPage)
+            {
+                // A page or a whole subtree in the range is dropped without reading further.
+                removed += count;
+            }
+            else
+            {
+                long kidRemoved = this.prune((PdfParser.Reference)kid, index);
+                removed += kidRemoved;
+                kids.add(kid);
+            }
+
+            index += count;
+        }
+
+        if (removed > 0)
+        {
+            Map<String, Object> changed = new LinkedHashMap<String, Object>(node);
+            changed.put("Count", this.file.getInteger(node.get("Count")) - removed);
+            if (kidsValue instanceof PdfParser.Reference)
+            {
+                this.update.setObject(((PdfParser.Reference)kidsValue).getNumber(), kids);
+            }
+            else
+            {
+                changed.put("Kids", kids);
+            }
+
+            this.update.setObject(nodeReference.getNumber(), changed);
+        }
+
+        return removed;
+    }
+}
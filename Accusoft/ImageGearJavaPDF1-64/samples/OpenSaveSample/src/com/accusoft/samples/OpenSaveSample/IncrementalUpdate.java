@@ -0,0 +1,456 @@
+// ****************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                  *'
+//  This sample code is provided to Accusoft licensees "as is"        *'
+//  with no restrictions on use or modification. No warranty for      *'
+//  use of this sample code is provided by Accusoft.                  *'
+//                                                                    *'
+//  CLASS PURPOSE                                                     *'
+//                                                                    *'
+//  Saves changes to a PDF file as an incremental update: the changed *'
+//  and added objects, a cross-reference section for them and a new   *'
+//  trailer are appended to the original bytes, which are left as     *'
+//  they are. Saving to the file itself only writes the update;       *'
+//  saving to another file copies the original with                   *'
+//  FileChannel.transferTo first. The cost of a save is thus the size *'
+//  of the change, plus a file copy when the original must be kept.   *'
+//                                                                    *'
+// ****************************************************************** *'
+
+package com.accusoft.samples.OpenSaveSample;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class IncrementalUpdate
+{
+    private final PdfFile file;
+    private final TreeMap<Integer, Object> objects = new TreeMap<Integer, Object>();
+    private int nextNumber;
+
+    // Create an empty update of the PDF file.
+    public IncrementalUpdate(PdfFile file)
+    {
+        if (file == null)
+        {
+            throw new IllegalArgumentException("The PDF file must not be null.");
+        }
+
+        this.file = file;
+        this.nextNumber = file.getSize();
+    }
+
+    // Replace an object of the file. Streams cannot be written.
+    public void setObject(int number, Object value)
+    {
+        if (number < 1 || number >= this.nextNumber)
+        {
+            throw new IllegalArgumentException("The object number must be between 1 and " + (this.nextNumber - 1) + ", not '" + number + "'.");
+        }
+
+        this.objects.put(number, value);
+    }
+
+    // Add a new object and return a reference to it.
+    public PdfParser.Reference addObject(Object value)
+    {
+        int number = this.nextNumber++;
+        this.objects.put(number, value);
+        return new PdfParser.Reference(number, 0);
+    }
+
+    // Check whether the update holds any object.
+    public boolean isEmpty()
+    {
+        return this.objects.isEmpty();
+    }
+
+    // Save the file with the update appended. When the target is the source file, only the update is
+    // written; otherwise the source is copied first and left unchanged. The source must still have the
+    // length it was read with; its size is checked before the update reads the mapped file.
+    public void save(Path source, Path target) throws IOException
+    {
+        long length = this.file.getLength();
+        if (Files.exists(target) && Files.isSameFile(source, target))
+        {
+            FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE);
+            try
+            {
+                if (channel.size() != length)
+                {
+                    throw new IOException("The PDF file '" + target + "' has changed since it was read.");
+                }
+
+                ByteBuffer update = ByteBuffer.wrap(this.toByteArray());
+                try
+                {
+                    writeFully(channel, update, length);
+                }
+                catch (IOException ex)
+                {
+                    // Leave the file as it was read.
+                    channel.truncate(length);
+                    throw ex;
+                }
+            }
+            finally
+            {
+                channel.close();
+            }
+
+            return;
+        }
+
+        FileChannel input = FileChannel.open(source, StandardOpenOption.READ);
+        try
+        {
+            if (input.size() != length)
+            {
+                throw new IOException("The PDF file '" + source + "' has changed since it was read.");
+            }
+
+            ByteBuffer update = ByteBuffer.wrap(this.toByteArray());
+            FileChannel output = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+            try
+            {
+                // The original bytes are copied by the kernel without passing through the Java heap.
+                long position = 0;
+                while (position < length)
+                {
+                    long transferred = input.transferTo(position, length - position, output);
+                    if (transferred == 0)
+                    {
+                        throw new IOException("The PDF file '" + source + "' was truncated while it was copied.");
+                    }
+
+                    position += transferred;
+                }
+
+                writeFully(output, update, length);
+            }
+            finally
+            {
+                output.close();
+            }
+        }
+        finally
+        {
+            input.close();
+        }
+    }
+
+    // Get the bytes appended to the file: the objects, the cross-reference section and the trailer.
+    public byte[] toByteArray()
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long base = this.file.getLength();
+        int lastByte = this.file.getLastByte();
+        if (lastByte != '\n' && lastByte != '\r')
+        {
+            writeAscii(output, "\n");
+        }
+
+        Map<Integer, Long> offsets = new TreeMap<Integer, Long>();
+        Map<Integer, Integer> generations = new TreeMap<Integer, Integer>();
+        for (Map.Entry<Integer, Object> entry : this.objects.entrySet())
+        {
+            int number = entry.getKey();
+            int generation = number < this.file.getSize() ? this.file.getGeneration(number) : 0;
+            offsets.put(number, base + output.size());
+            generations.put(number, generation);
+            writeAscii(output, number + " " + generation + " obj\n");
+            writeObject(output, entry.getValue());
+            writeAscii(output, "\nendobj\n");
+        }
+
+        Map<String, Object> trailer = this.createTrailer();
+        long xrefOffset = base + output.size();
+        if (this.file.hasXrefStream())
+        {
+            // A file using cross-reference streams is updated with a stream, so that readers relying on
+            // them find every revision.
+            int number = this.nextNumber;
+            offsets.put(number, xrefOffset);
+            generations.put(number, 0);
+            trailer.put("Size", (long)number + 1);
+            this.writeXrefStream(output, number, offsets, generations, trailer);
+        }
+        else
+        {
+            trailer.put("Size", (long)this.nextNumber);
+            writeXrefTable(output, offsets, generations, trailer);
+        }
+
+        writeAscii(output, "startxref\n" + xrefOffset + "\n%%EOF\n");
+        return output.toByteArray();
+    }
+
+    // Create the trailer of the update from the merged trailer of the file.
+    private Map<String, Object> createTrailer()
+    {
+        Map<String, Object> original = this.file.getTrailer();
+        Map<String, Object> trailer = new LinkedHashMap<String, Object>();
+        for (String key : new String[] { "Root", "Info", "Encrypt" })
+        {
+            if (original.containsKey(key))
+            {
+                trailer.put(key, original.get(key));
+            }
+        }
+
+        // The first identifier stays that of the document; the second one identifies this revision.
+        Object id = original.get("ID");
+        if (id instanceof List && ((List<?>)id).size() == 2 && ((List<?>)id).get(0) instanceof byte[])
+        {
+            List<Object> newId = new ArrayList<Object>();
+            newId.add(((List<?>)id).get(0));
+            newId.add(createRevisionId((byte[])((List<?>)id).get(0)));
+            trailer.put("ID", newId);
+        }
+
+        trailer.put("Prev", this.file.getStartXref());
+        return trailer;
+    }
+
+    private byte[] createRevisionId(byte[] documentId)
+    {
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            digest.update(documentId);
+            digest.update(Long.toString(this.file.getLength()).getBytes(StandardCharsets.US_ASCII));
+            digest.update(Long.toString(System.currentTimeMillis()).getBytes(StandardCharsets.US_ASCII));
+            digest.update(this.objects.keySet().toString().getBytes(StandardCharsets.US_ASCII));
+            return digest.digest();
+        }
+        catch (NoSuchAlgorithmException ex)
+        {
+            throw new IllegalStateException("MD5 is not available.", ex);
+        }
+    }
+
+    // Write a cross-reference table with one subsection per run of consecutive object numbers.
+    private static void writeXrefTable(ByteArrayOutputStream output, Map<Integer, Long> offsets, Map<Integer, Integer> generations,
+        Map<String, Object> trailer)
+    {
+        writeAscii(output, "xref\n");
+        List<int[]> runs = getRuns(offsets);
+        for (int[] run : runs)
+        {
+            writeAscii(output, run[0] + " " + run[1] + "\n");
+            for (int number = run[0]; number < run[0] + run[1]; number++)
+            {
+                writeAscii(output, String.format("%010d %05d n\r\n", offsets.get(number), generations.get(number)));
+            }
+        }
+
+        writeAscii(output, "trailer\n");
+        writeObject(output, trailer);
+        writeAscii(output, "\n");
+    }
+
+    // Write an uncompressed cross-reference stream holding the trailer entries.
+    private void writeXrefStream(ByteArrayOutputStream output, int number, Map<Integer, Long> offsets, Map<Integer, Integer> generations,
+        Map<String, Object> trailer)
+    {
+        // The fields are as wide as the largest offset and generation need.
+        long maxOffset = 0;
+        for (long offset : offsets.values())
+        {
+            maxOffset = Math.max(maxOffset, offset);
+        }
+
+        int maxGeneration = 0;
+        for (int generation : generations.values())
+        {
+            maxGeneration = Math.max(maxGeneration, generation);
+        }
+
+        int offsetWidth = getFieldWidth(maxOffset);
+        int generationWidth = getFieldWidth(maxGeneration);
+        List<int[]> runs = getRuns(offsets);
+        List<Object> index = new ArrayList<Object>();
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        for (int[] run : runs)
+        {
+            index.add((long)run[0]);
+            index.add((long)run[1]);
+            for (int objectNumber = run[0]; objectNumber < run[0] + run[1]; objectNumber++)
+            {
+                entries.write(1);
+                writeField(entries, offsets.get(objectNumber), offsetWidth);
+                writeField(entries, generations.get(objectNumber), generationWidth);
+            }
+        }
+
+        Map<String, Object> dictionary = new LinkedHashMap<String, Object>();
+        dictionary.put("Type", new PdfParser.Name("XRef"));
+        dictionary.putAll(trailer);
+        List<Object> widths = new ArrayList<Object>();
+        widths.add(1L);
+        widths.add((long)offsetWidth);
+        widths.add((long)generationWidth);
+        dictionary.put("W", widths);
+        dictionary.put("Index", index);
+        dictionary.put("Length", (long)entries.size());
+
+        writeAscii(output, number + " 0 obj\n");
+        writeObject(output, dictionary);
+        writeAscii(output, "\nstream\n");
+        output.write(entries.toByteArray(), 0, entries.size());
+        writeAscii(output, "\nendstream\nendobj\n");
+    }
+
+    // Get the number of bytes of a big-endian field holding the value, at least one.
+    static int getFieldWidth(long value)
+    {
+        int width = 1;
+        while (width < 8 && (value >>> (8 * width)) != 0)
+        {
+            width++;
+        }
+
+        return width;
+    }
+
+    private static void writeField(ByteArrayOutputStream output, long value, int width)
+    {
+        for (int shift = 8 * (width - 1); shift >= 0; shift -= 8)
+        {
+            output.write((int)(value >>> shift));
+        }
+    }
+
+    // Group the sorted object numbers into runs of consecutive numbers, as {first, count} pairs.
+    private static List<int[]> getRuns(Map<Integer, Long> offsets)
+    {
+        List<int[]> runs = new ArrayList<int[]>();
+        int[] run = null;
+        for (int number : offsets.keySet())
+        {
+            if (run != null && number == run[0] + run[1])
+            {
+                run[1]++;
+            }
+            else
+            {
+                run = new int[] { number, 1 };
+                runs.add(run);
+            }
+        }
+
+        return runs;
+    }
+
+    // Write a direct object in PDF syntax. Strings are written in hexadecimal.
+    static void writeObject(ByteArrayOutputStream output, Object value)
+    {
+        if (value == null)
+        {
+            writeAscii(output, "null");
+        }
+        else if (value instanceof Map)
+        {
+            writeAscii(output, "<<");
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>)value).entrySet())
+            {
+                writeName(output, (String)entry.getKey());
+                writeAscii(output, " ");
+                writeObject(output, entry.getValue());
+            }
+
+            writeAscii(output, ">>");
+        }
+        else if (value instanceof List)
+        {
+            writeAscii(output, "[");
+            boolean first = true;
+            for (Object item : (List<?>)value)
+            {
+                if (!first)
+                {
+                    writeAscii(output, " ");
+                }
+
+                writeObject(output, item);
+                first = false;
+            }
+
+            writeAscii(output, "]");
+        }
+        else if (value instanceof PdfParser.Name)
+        {
+            writeName(output, ((PdfParser.Name)value).getValue());
+        }
+        else if (value instanceof byte[])
+        {
+            StringBuilder hex = new StringBuilder("<");
+            for (byte b : (byte[])value)
+            {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+
+            writeAscii(output, hex.append('>').toString());
+        }
+        else if (value instanceof BigDecimal)
+        {
+            writeAscii(output, ((BigDecimal)value).toPlainString());
+        }
+        else if (value instanceof Long || value instanceof Boolean || value instanceof PdfParser.Reference)
+        {
+            writeAscii(output, value.toString());
+        }
+        else
+        {
+            throw new IllegalArgumentException("The value " + value + " cannot be written as a direct object.");
+        }
+    }
+
+    // Write a name, escaping the characters that are not regular ones.
+    private static void writeName(ByteArrayOutputStream output, String name)
+    {
+        StringBuilder escaped = new StringBuilder("/");
+        for (int i = 0; i < name.length(); i++)
+        {
+            char c = name.charAt(i);
+            if (c <= ' ' || c > '~' || c == '#' || PdfParser.isDelimiter(c))
+            {
+                escaped.append('#').append(Character.forDigit((c >> 4) & 0xF, 16)).append(Character.forDigit(c & 0xF, 16));
+            }
+            else
+            {
+                escaped.append(c);
+            }
+        }
+
+        writeAscii(output, escaped.toString());
+    }
+
+    private static void writeAscii(ByteArrayOutputStream output, String text)
+    {
+        byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+        output.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            position += channel.write(buffer, position);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+// ****************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                  *'
+//  This sample code is provided to Accusoft licensees "as is"        *'
+//  with no restrictions on use or modification. No warranty for      *'
+//  use of this sample code is provided by Accusoft.                  *'
+//                                                                    *'
+//  CLASS PURPOSE                                                     *'
+//                                                                    *'
+//  Opens PDF documents held in memory or read from a stream.         *'
+//  Document.openDocument only accepts a file path, so the data is    *'
+//  spooled to a file in a memory-backed directory (/dev/shm when     *'
+//  available) with NIO bulk transfers, then opened from there.       *'
+//                                                                    *'
+// ****************************************************************** *'
+
+package com.accusoft.samples.OpenSaveSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class MemoryDocumentOpener
+{
+    private final PDF pdf;
+    private final Path spoolDirectory;
+
+    // Create an opener spooling to shared memory when available, otherwise to the temporary directory.
+    public MemoryDocumentOpener(PDF pdf)
+    {
+        this(pdf, SpoolFiles.getDefaultDirectory());
+    }
+
+    // Create an opener spooling to the given directory.
+    public MemoryDocumentOpener(PDF pdf, Path spoolDirectory)
+    {
+        if (pdf == null)
+        {
+            throw new IllegalArgumentException("The PDF session must not be null.");
+        }
+
+        this.pdf = pdf;
+        this.spoolDirectory = spoolDirectory;
+    }
+
+    // Open a PDF document from a byte array.
+    public SpooledDocument open(byte[] data) throws IOException
+    {
+        return this.open(ByteBuffer.wrap(data));
+    }
+
+    // Open a PDF document from the remaining bytes of a buffer, for instance a MappedByteBuffer.
+    // The position of the buffer is not changed.
+    public SpooledDocument open(ByteBuffer data) throws IOException
+    {
+        Path spoolFile = SpoolFiles.create(this.spoolDirectory);
+        try
+        {
+            FileChannel channel = FileChannel.open(spoolFile, StandardOpenOption.WRITE);
+            try
+            {
+                ByteBuffer source = data.duplicate();
+                while (source.hasRemaining())
+                {
+                    channel.write(source);
+                }
+            }
+            finally
+            {
+                channel.close();
+            }
+        }
+        catch (IOException ex)
+        {
+            Files.deleteIfExists(spoolFile);
+            throw ex;
+        }
+
+        return this.openSpoolFile(spoolFile);
+    }
+
+    // Open a PDF document from the rest of an input stream. The stream is not closed.
+    public SpooledDocument open(InputStream input) throws IOException
+    {
+        return this.open(Channels.newChannel(input));
+    }
+
+    // Open a PDF document from the rest of a channel. The channel is not closed.
+    // A non-blocking channel is rejected: FileChannel.transferFrom stops as soon as it has no bytes ready,
+    // which cannot be told apart from the end of the data.
+    public SpooledDocument open(ReadableByteChannel input) throws IOException
+    {
+        if (input instanceof SelectableChannel && !((SelectableChannel) input).isBlocking())
+        {
+            throw new IllegalArgumentException("The channel must be in blocking mode.");
+        }
+
+        Path spoolFile = SpoolFiles.create(this.spoolDirectory);
+        try
+        {
+            FileChannel channel = FileChannel.open(spoolFile, StandardOpenOption.WRITE);
+            try
+            {
+                long position = 0;
+                long count;
+                while ((count = channel.transferFrom(input, position, Integer.MAX_VALUE)) > 0)
+                {
+                    position += count;
+                }
+            }
+            finally
+            {
+                channel.close();
+            }
+        }
+        catch (IOException ex)
+        {
+            Files.deleteIfExists(spoolFile);
+            throw ex;
+        }
+
+        return this.openSpoolFile(spoolFile);
+    }
+
+    // Open the spooled PDF file, removing it again if the document cannot be opened.
+    private SpooledDocument openSpoolFile(Path spoolFile) throws IOException
+    {
+        Document document = null;
+        try
+        {
+            document = this.pdf.createDocument();
+            document.openDocument(spoolFile.toString());
+            return new SpooledDocument(document, spoolFile);
+        }
+        catch (RuntimeException ex)
+        {
+            if (document != null)
+            {
+                document.close();
+            }
+
+            Files.deleteIfExists(spoolFile);
+            throw ex;
+        }
+    }
+}
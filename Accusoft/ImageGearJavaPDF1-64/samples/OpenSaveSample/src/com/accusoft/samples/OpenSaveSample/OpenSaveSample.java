@@ -16,6 +16,21 @@
 //                      (default is <input_file_path>.output.pdf).    *'
 //   Third (optional):  The indicator of saving file with             *'
 //                      LINEARIZED attribute (default is 'false').    *'
+//   Fourth (optional): The indicator of opening the file from an     *'
+//                      in-memory copy (default is 'false').          *'
+//   Fifth (optional):  The indicator of saving the file through an   *'
+//                      output stream (default is 'false').           *'
+//   Sixth (optional):  The number of pages per output file. When     *'
+//                      given, the document is split into files       *'
+//                      named after the output path with the file     *'
+//                      number before .pdf: out.pdf is split into     *'
+//                      out.0.pdf, out.1.pdf and so on. An empty      *'
+//                      argument does not split the document.         *'
+//   Seventh (optional): The zero-based page, or page range such as   *'
+//                      2-4, to delete. The pages are removed by      *'
+//                      appending an incremental update rather than   *'
+//                      by saving the document again, and the output  *'
+//                      path may be the input path.                   *'
 //                                                                    *'
 // ****************************************************************** *'
 
@@ -23,10 +38,17 @@ package com.accusoft.samples.OpenSaveSample;
 
 import com.accusoft.imagegearpdf.*;
 
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
 public class OpenSaveSample
 {
     private PDF pdf;
     private Document document;
+    private SpooledDocument spooledDocument;
 
     static
     {
@@ -38,7 +60,7 @@ public class OpenSaveSample
     {
         if (args == null ||
             args.length < 1 ||
-            args.length > 3 ||
+            args.length > 7 ||
             args[0].equals("-h") ||
             args[0].equals("--help"))
         {
@@ -47,6 +69,8 @@ public class OpenSaveSample
         }
 
         boolean linearized = false;
+        boolean fromMemory = false;
+        boolean toStream = false;
         String inputPath = args[0];
         String outputPath;
 
@@ -64,29 +88,106 @@ public class OpenSaveSample
             linearized = Boolean.parseBoolean(args[2]);
         }
 
+        if (args.length > 3)
+        {
+            fromMemory = Boolean.parseBoolean(args[3]);
+        }
+
+        if (args.length > 4)
+        {
+            toStream = Boolean.parseBoolean(args[4]);
+        }
+
+        long pagesPerFile = 0;
+        try
+        {
+            if (args.length > 5 && !args[5].isEmpty())
+            {
+                pagesPerFile = Long.parseLong(args[5]);
+            }
+        }
+        catch (NumberFormatException ex)
+        {
+            pagesPerFile = -1;
+        }
+
+        if (args.length > 5 && !args[5].isEmpty() && pagesPerFile < 1)
+        {
+            System.err.println("The number of pages per file must be a positive integer, not '" + args[5] + "'.");
+            return;
+        }
+
+        long[] deletedPages = null;
+        if (args.length > 6)
+        {
+            deletedPages = parsePageRange(args[6]);
+            if (deletedPages == null)
+            {
+                System.err.println("The pages to delete must be a page number or a page range such as 2-4, not '" + args[6] + "'.");
+                return;
+            }
+
+            if (pagesPerFile > 0)
+            {
+                System.err.println("The document cannot be split and have pages deleted at once.");
+                return;
+            }
+        }
+
         OpenSaveSample sample = new OpenSaveSample();
-        sample.loadAndSave(inputPath, outputPath, linearized);
+        if (deletedPages != null)
+        {
+            sample.deletePagesIncrementally(inputPath, outputPath, deletedPages[0], deletedPages[1]);
+            return;
+        }
+
+        if (pagesPerFile > 0)
+        {
+            sample.split(inputPath, outputPath, linearized, pagesPerFile);
+            return;
+        }
+
+        sample.loadAndSave(inputPath, outputPath, linearized, fromMemory, toStream);
     }
 
     // Print the sample usage information.
     private static void printUsage()
     {
         System.out.println("Usage:");
-        System.out.println("       OpenSaveSample.jar <input_file_path> [<output_file_path> [<save_with_LINEARIZED_flag>]]");
+        System.out.println("       OpenSaveSample.jar <input_file_path> [<output_file_path> [<save_with_LINEARIZED_flag> [<open_from_memory> [<save_to_stream> [<pages_per_file> [<deleted_pages>]]]]]]");
         System.out.println("where:");
         System.out.println("       <input_file_path>:            The path to source PDF file.");
         System.out.println("       <output_file_path>:           The path to output PDF file (default is <input_file_path>.output.pdf).");
         System.out.println("       <save_with_LINEARIZED_flag>:  Indicates that document should be saved with IG_PDF_LINEARIZED flag (default is 'false').");
+        System.out.println("       <open_from_memory>:           Indicates that document should be opened from an in-memory copy of the file (default is 'false').");
+        System.out.println("       <save_to_stream>:             Indicates that document should be saved through an output stream (default is 'false').");
+        System.out.println("       <pages_per_file>:             Splits the document into files of this many pages; out.pdf is split into out.0.pdf, out.1.pdf and so on.");
+        System.out.println("       <deleted_pages>:              Deletes this zero-based page or page range, such as 2-4, by appending an incremental update.");
     }
 
     // Load and save the PDF file.
-    private void loadAndSave(String inputPath, String outputPath, boolean linearized)
+    private void loadAndSave(String inputPath, String outputPath, boolean linearized, boolean fromMemory, boolean toStream)
     {
         try
         {
             this.initPdf();
-            this.openPdf(inputPath);
-            this.savePdf(outputPath, linearized);
+            if (fromMemory)
+            {
+                this.openPdfFromMemory(inputPath);
+            }
+            else
+            {
+                this.openPdf(inputPath);
+            }
+
+            if (toStream)
+            {
+                this.savePdfToStream(outputPath, linearized);
+            }
+            else
+            {
+                this.savePdf(outputPath, linearized);
+            }
         }
         catch (Throwable ex)
         {
@@ -98,6 +199,59 @@ public class OpenSaveSample
         }
     }
 
+    // Split the PDF file into files of pagesPerFile pages.
+    private void split(String inputPath, String outputPath, boolean linearized, long pagesPerFile)
+    {
+        try
+        {
+            this.initPdf();
+
+            int threadCount = Runtime.getRuntime().availableProcessors();
+            PageRangeExtractor extractor = new PageRangeExtractor(this.pdf);
+            List<String> outputPaths = extractor.split(inputPath, pagesPerFile, outputPath, linearized, threadCount);
+            System.out.println("Saved " + outputPaths.size() + " files.");
+        }
+        catch (Throwable ex)
+        {
+            System.err.println("Exception: " + ex.toString());
+        }
+        finally
+        {
+            this.terminatePdf();
+        }
+    }
+
+    // Delete pages [firstPage, lastPage] of the PDF file by appending an incremental update. The PDF
+    // session is not needed.
+    private void deletePagesIncrementally(String inputPath, String outputPath, long firstPage, long lastPage)
+    {
+        try
+        {
+            IncrementalPageDeleter.deletePages(inputPath, firstPage, lastPage, outputPath);
+            System.out.println("Deleted pages " + firstPage + "-" + lastPage + ".");
+        }
+        catch (Throwable ex)
+        {
+            System.err.println("Exception: " + ex.toString());
+        }
+    }
+
+    // Parse a page number or a page range such as 2-4 as {first, last}, or return null when it is not one.
+    private static long[] parsePageRange(String text)
+    {
+        try
+        {
+            int separator = text.indexOf('-');
+            long firstPage = Long.parseLong(separator < 0 ? text : text.substring(0, separator));
+            long lastPage = separator < 0 ? firstPage : Long.parseLong(text.substring(separator + 1));
+            return firstPage >= 0 && lastPage >= firstPage ? new long[] { firstPage, lastPage } : null;
+        }
+        catch (NumberFormatException ex)
+        {
+            return null;
+        }
+    }
+
     // Initialize the PDF session.
     private void initPdf()
     {
@@ -120,6 +274,16 @@ public class OpenSaveSample
         this.document.openDocument(inputPath);
     }
 
+    // Read input PDF file into memory and open the document from there.
+    private void openPdfFromMemory(String inputPath) throws IOException
+    {
+        byte[] data = Files.readAllBytes(Paths.get(inputPath));
+
+        MemoryDocumentOpener opener = new MemoryDocumentOpener(this.pdf);
+        this.spooledDocument = opener.open(data);
+        this.document = this.spooledDocument.getDocument();
+    }
+
     // Save PDF document to the output path.
     private void savePdf(String outputPath, boolean linearized)
     {
@@ -131,9 +295,44 @@ public class OpenSaveSample
         this.document.saveDocument(outputPath, saveOptions);
     }
 
+    // Save PDF document through an output stream opened on the output path.
+    private void savePdfToStream(String outputPath, boolean linearized) throws IOException
+    {
+        SaveOptions saveOptions = new SaveOptions();
+
+        // Set LINEARIZED attribute as provided by the user.
+        saveOptions.setLinearized(linearized);
+
+        FileOutputStream outputStream = new FileOutputStream(outputPath);
+        try
+        {
+            StreamDocumentSaver saver = new StreamDocumentSaver();
+            saver.save(this.document, saveOptions, outputStream.getChannel());
+        }
+        finally
+        {
+            outputStream.close();
+        }
+    }
+
     // Close the PDF document and terminate the PDF session.
     private void terminatePdf()
     {
+        if (this.spooledDocument != null)
+        {
+            try
+            {
+                this.spooledDocument.close();
+            }
+            catch (IOException ex)
+            {
+                System.err.println("IOException: " + ex.toString());
+            }
+
+            this.spooledDocument = null;
+            this.document = null;
+        }
+
         if (this.document != null)
         {
             this.document.close();
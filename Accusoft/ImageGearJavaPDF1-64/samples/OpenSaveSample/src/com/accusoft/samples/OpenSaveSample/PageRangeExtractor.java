@@ -0,0 +1,372 @@
+// ****************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                  *'
+//  This sample code is provided to Accusoft licensees "as is"        *'
+//  with no restrictions on use or modification. No warranty for      *'
+//  use of this sample code is provided by Accusoft.                  *'
+//                                                                    *'
+//  CLASS PURPOSE                                                     *'
+//                                                                    *'
+//  Works on ranges of pages: deletes a range, extracts a range of a  *'
+//  PDF file into its own document and splits a PDF file into files   *'
+//  of a fixed number of pages. Pages cannot be copied between        *'
+//  documents with this API, so a range is extracted by opening the   *'
+//  source file again and deleting the pages around it; the kept      *'
+//  pages and the resources they use are saved as they are, without   *'
+//  rendering. Pages are deleted from the end, so the pages still to  *'
+//  delete are never renumbered.                                      *'
+//                                                                    *'
+//  A split halves the file level by level through temporary files    *'
+//  instead of cutting every file out of the whole document: with n   *'
+//  pages and f files it deletes about n * log2(f) pages instead of   *'
+//  n * (f - 1), and opens 2 * (f - 1) documents. At most             *'
+//  threadCount documents are open at a time, each no larger than     *'
+//  the file it was opened from; only the two halves of the first     *'
+//  level are opened from the whole file.                             *'
+//                                                                    *'
+// ****************************************************************** *'
+
+package com.accusoft.samples.OpenSaveSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class PageRangeExtractor
+{
+    // PDF.getInstance returns a new wrapper on every call, so session-wide calls cannot lock the wrapper.
+    private static final Object SESSION_LOCK = new Object();
+
+    private final PDF pdf;
+
+    // Create an extractor opening documents in the initialized PDF session.
+    public PageRangeExtractor(PDF pdf)
+    {
+        if (pdf == null)
+        {
+            throw new IllegalArgumentException("The PDF session must not be null.");
+        }
+
+        this.pdf = pdf;
+    }
+
+    // Delete pages [firstPage, lastPage] of the document.
+    public static void deleteRange(Document document, long firstPage, long lastPage)
+    {
+        checkPageRange(firstPage, lastPage, document.getPageCount());
+        for (long pageNumber = lastPage; pageNumber >= firstPage; pageNumber--)
+        {
+            document.deletePage(pageNumber);
+        }
+    }
+
+    // Delete all pages of the document but pages [firstPage, lastPage].
+    public static void keepRange(Document document, long firstPage, long lastPage)
+    {
+        long pageCount = document.getPageCount();
+        checkPageRange(firstPage, lastPage, pageCount);
+        if (lastPage + 1 < pageCount)
+        {
+            deleteRange(document, lastPage + 1, pageCount - 1);
+        }
+
+        if (firstPage > 0)
+        {
+            deleteRange(document, 0, firstPage - 1);
+        }
+    }
+
+    // Open a new document holding pages [firstPage, lastPage] of the PDF file. The caller closes and
+    // deletes the document.
+    public Document extract(String inputPath, long firstPage, long lastPage)
+    {
+        Document document = this.openDocument(inputPath);
+        try
+        {
+            keepRange(document, firstPage, lastPage);
+            return document;
+        }
+        catch (RuntimeException ex)
+        {
+            closeDocument(document);
+            throw ex;
+        }
+    }
+
+    // Save pages [firstPage, lastPage] of the PDF file to the output PDF file.
+    public void extract(String inputPath, long firstPage, long lastPage, String outputPath, SaveOptions options)
+    {
+        Document document = this.extract(inputPath, firstPage, lastPage);
+        try
+        {
+            document.saveDocument(outputPath, options);
+        }
+        finally
+        {
+            closeDocument(document);
+        }
+    }
+
+    // Split the PDF file into files of pagesPerFile pages, the last one holding the remaining pages,
+    // saving them on up to threadCount threads. The files are named after the output path with the
+    // zero-based file number added before the extension. Returns the paths of the files in page order.
+    public List<String> split(String inputPath, long pagesPerFile, String outputPath, boolean linearized, int threadCount)
+        throws IOException, InterruptedException
+    {
+        if (pagesPerFile < 1)
+        {
+            throw new IllegalArgumentException("The number of pages per file must be a positive integer, not '" + pagesPerFile + "'.");
+        }
+
+        if (threadCount < 1)
+        {
+            throw new IllegalArgumentException("The thread count must be a positive integer, not '" + threadCount + "'.");
+        }
+
+        long pageCount;
+        Document document = this.openDocument(inputPath);
+        try
+        {
+            pageCount = document.getPageCount();
+        }
+        finally
+        {
+            closeDocument(document);
+        }
+
+        List<String> outputPaths = new ArrayList<String>();
+        for (long firstPage = 0; firstPage < pageCount; firstPage += pagesPerFile)
+        {
+            outputPaths.add(getFileOutputPath(outputPath, outputPaths.size()));
+        }
+
+        if (outputPaths.isEmpty())
+        {
+            return outputPaths;
+        }
+
+        // Temporary files go next to the output files, on the same file system.
+        File temporaryDirectory = new File(outputPath).getAbsoluteFile().getParentFile();
+        List<SplitPart> parts = new ArrayList<SplitPart>();
+        parts.add(new SplitPart(inputPath, 0, outputPaths.size() - 1, false));
+        List<SplitPart> temporaryParts = new ArrayList<SplitPart>();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try
+        {
+            while (!parts.isEmpty())
+            {
+                // Cut every part of this level in two halves of files, saving a half holding a single file
+                // as that file and a larger one as a part of the next level.
+                List<SplitPart> nextParts = new ArrayList<SplitPart>();
+                List<Future<Void>> futures = new ArrayList<Future<Void>>();
+                for (SplitPart part : parts)
+                {
+                    long middleFile = (part.firstFile + part.lastFile) / 2;
+                    long[][] halves = part.firstFile == part.lastFile ?
+                        new long[][] { { part.firstFile, part.lastFile } } :
+                        new long[][] { { part.firstFile, middleFile }, { middleFile + 1, part.lastFile } };
+                    for (long[] half : halves)
+                    {
+                        long partFirstPage = part.firstFile * pagesPerFile;
+                        long firstPage = half[0] * pagesPerFile - partFirstPage;
+                        long lastPage = Math.min((half[1] + 1) * pagesPerFile, pageCount) - 1 - partFirstPage;
+                        if (half[0] == half[1])
+                        {
+                            futures.add(executor.submit(this.extractTask(part.path, firstPage, lastPage, outputPaths.get((int)half[0]), linearized)));
+                        }
+                        else
+                        {
+                            String path = File.createTempFile("split-", ".pdf", temporaryDirectory).getPath();
+                            SplitPart nextPart = new SplitPart(path, half[0], half[1], true);
+                            temporaryParts.add(nextPart);
+                            nextParts.add(nextPart);
+                            futures.add(executor.submit(this.extractTask(part.path, firstPage, lastPage, path, false)));
+                        }
+                    }
+                }
+
+                for (Future<Void> future : futures)
+                {
+                    waitFor(future);
+                }
+
+                for (SplitPart part : parts)
+                {
+                    part.delete();
+                }
+
+                parts = nextParts;
+            }
+        }
+        finally
+        {
+            // Let the other files finish or fail before the caller may terminate the session.
+            executor.shutdownNow();
+            awaitTermination(executor);
+            for (SplitPart part : temporaryParts)
+            {
+                part.delete();
+            }
+        }
+
+        return outputPaths;
+    }
+
+    // Get a task saving pages [firstPage, lastPage] of the PDF file to the output PDF file.
+    private Callable<Void> extractTask(final String inputPath, final long firstPage, final long lastPage, final String outputPath,
+        final boolean linearized)
+    {
+        return new Callable<Void>()
+        {
+            public Void call()
+            {
+                SaveOptions options = new SaveOptions();
+                try
+                {
+                    options.setLinearized(linearized);
+                    extract(inputPath, firstPage, lastPage, outputPath, options);
+                }
+                finally
+                {
+                    options.delete();
+                }
+
+                return null;
+            }
+        };
+    }
+
+    // Get the output path of a file of a split document.
+    public static String getFileOutputPath(String outputPath, int fileNumber)
+    {
+        String basePath = outputPath;
+        if (basePath.toLowerCase().endsWith(".pdf"))
+        {
+            basePath = basePath.substring(0, basePath.length() - 4);
+        }
+
+        return basePath + "." + fileNumber + ".pdf";
+    }
+
+    // Open a PDF file. Session-wide calls are serialized on a process-wide lock.
+    private Document openDocument(String inputPath)
+    {
+        Document document;
+        synchronized (SESSION_LOCK)
+        {
+            document = this.pdf.createDocument();
+        }
+
+        try
+        {
+            document.openDocument(inputPath);
+            return document;
+        }
+        catch (RuntimeException ex)
+        {
+            closeDocument(document);
+            throw ex;
+        }
+    }
+
+    private static void closeDocument(Document document)
+    {
+        try
+        {
+            document.close();
+        }
+        finally
+        {
+            document.delete();
+        }
+    }
+
+    private static void checkPageRange(long firstPage, long lastPage, long pageCount)
+    {
+        if (firstPage < 0 || lastPage < firstPage || lastPage >= pageCount)
+        {
+            throw new IllegalArgumentException("The page range " + firstPage + "-" + lastPage + " is not valid for a document of " +
+                pageCount + " pages.");
+        }
+    }
+
+    // Wait until the executor threads have closed their documents, even when interrupted meanwhile.
+    private static void awaitTermination(ExecutorService executor)
+    {
+        boolean interrupted = false;
+        while (!executor.isTerminated())
+        {
+            try
+            {
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+            }
+            catch (InterruptedException ex)
+            {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Wait for a task and rethrow its failure, if any.
+    private static void waitFor(Future<Void> future) throws InterruptedException
+    {
+        try
+        {
+            future.get();
+        }
+        catch (ExecutionException ex)
+        {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException)cause;
+            }
+
+            if (cause instanceof Error)
+            {
+                throw (Error)cause;
+            }
+
+            throw new RuntimeException(cause);
+        }
+    }
+
+    // A file holding the pages of split files [firstFile, lastFile]: the input file or a temporary file.
+    private static class SplitPart
+    {
+        final String path;
+        final long firstFile;
+        final long lastFile;
+        final boolean temporary;
+
+        SplitPart(String path, long firstFile, long lastFile, boolean temporary)
+        {
+            this.path = path;
+            this.firstFile = firstFile;
+            this.lastFile = lastFile;
+            this.temporary = temporary;
+        }
+
+        // Delete the file when it is a temporary file.
+        void delete()
+        {
+            if (this.temporary)
+            {
+                new File(this.path).delete();
+            }
+        }
+    }
+}
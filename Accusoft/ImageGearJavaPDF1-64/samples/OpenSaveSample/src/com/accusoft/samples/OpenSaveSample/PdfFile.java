@@ -0,0 +1,635 @@
+// ****************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                  *'
+//  This sample code is provided to Accusoft licensees "as is"        *'
+//  with no restrictions on use or modification. No warranty for      *'
+//  use of this sample code is provided by Accusoft.                  *'
+//                                                                    *'
+//  CLASS PURPOSE                                                     *'
+//                                                                    *'
+//  A PDF file mapped into memory, with the cross-reference sections  *'
+//  of all its revisions merged, the newest entries winning. Objects  *'
+//  are read on demand from their offset or their object stream.      *'
+//  Cross-reference tables, streams and hybrid files are supported;   *'
+//  strings of encrypted files are not decrypted. Files must be       *'
+//  smaller than 2 GB.                                                *'
+//                                                                    *'
+// ****************************************************************** *'
+
+package com.accusoft.samples.OpenSaveSample;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+public class PdfFile
+{
+    // The number of bytes at the end of the file searched for the startxref keyword.
+    private static final int TRAILER_SEARCH_SIZE = 2048;
+
+    private final ByteBuffer data;
+    private final PdfParser parser;
+    private final Map<Integer, XrefEntry> entries = new HashMap<Integer, XrefEntry>();
+    private final Map<String, Object> trailer = new LinkedHashMap<String, Object>();
+    private final Map<Integer, ObjectStream> objectStreams = new HashMap<Integer, ObjectStream>();
+    private final long startXref;
+    private boolean xrefStream;
+    private int size;
+
+    private PdfFile(ByteBuffer data) throws IOException
+    {
+        this.data = data;
+        this.parser = new PdfParser(data);
+        this.startXref = this.findStartXref();
+        this.readXrefSections();
+    }
+
+    // Map the PDF file and read its cross-reference sections.
+    public static PdfFile open(Path path) throws IOException
+    {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try
+        {
+            if (channel.size() > Integer.MAX_VALUE)
+            {
+                throw new IOException("The PDF file '" + path + "' is larger than 2 GB.");
+            }
+
+            return new PdfFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        finally
+        {
+            // The mapping stays valid once the channel is closed.
+            channel.close();
+        }
+    }
+
+    // Get the length of the file in bytes.
+    public int getLength()
+    {
+        return this.data.limit();
+    }
+
+    // Get the last byte of the file, or -1 for an empty file.
+    public int getLastByte()
+    {
+        return this.data.limit() > 0 ? this.data.get(this.data.limit() - 1) & 0xFF : -1;
+    }
+
+    // Get the offset of the newest cross-reference section.
+    public long getStartXref()
+    {
+        return this.startXref;
+    }
+
+    // Check whether the newest cross-reference section is a cross-reference stream.
+    public boolean hasXrefStream()
+    {
+        return this.xrefStream;
+    }
+
+    // Get the number of object numbers in use, one more than the highest object number.
+    public int getSize()
+    {
+        return this.size;
+    }
+
+    // Get the trailer entries of all revisions merged, the newest revision winning.
+    public Map<String, Object> getTrailer()
+    {
+        return this.trailer;
+    }
+
+    // Get the generation number of an object, or 0 when it is not defined.
+    public int getGeneration(int number)
+    {
+        XrefEntry entry = this.entries.get(number);
+        return entry != null && entry.type == 1 ? entry.field3 : 0;
+    }
+
+    // Read an object; null is returned for free or undefined objects.
+    public Object getObject(int number) throws IOException
+    {
+        XrefEntry entry = this.entries.get(number);
+        if (entry == null || entry.type == 0)
+        {
+            return null;
+        }
+
+        if (entry.type == 1)
+        {
+            return this.parser.readIndirectObject((int)entry.field2, number);
+        }
+
+        return this.getObjectStream((int)entry.field2).getObject(entry.field3, number);
+    }
+
+    // Resolve a value that may be an indirect reference.
+    public Object resolve(Object value) throws IOException
+    {
+        Set<PdfParser.Reference> seen = new HashSet<PdfParser.Reference>();
+        while (value instanceof PdfParser.Reference)
+        {
+            PdfParser.Reference reference = (PdfParser.Reference)value;
+            if (!seen.add(reference))
+            {
+                throw new IOException("The reference " + reference + " refers to itself.");
+            }
+
+            value = this.getObject(reference.getNumber());
+        }
+
+        return value;
+    }
+
+    // Resolve a value that must be a dictionary, or the dictionary of a stream.
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getDictionary(Object value) throws IOException
+    {
+        Object resolved = this.resolve(value);
+        if (resolved instanceof PdfParser.Stream)
+        {
+            return ((PdfParser.Stream)resolved).getDictionary();
+        }
+
+        if (!(resolved instanceof Map))
+        {
+            throw new IOException("A dictionary was expected, not " + resolved + ".");
+        }
+
+        return (Map<String, Object>)resolved;
+    }
+
+    // Resolve a value that must be an integer.
+    public long getInteger(Object value) throws IOException
+    {
+        Object resolved = this.resolve(value);
+        if (!(resolved instanceof Long))
+        {
+            throw new IOException("An integer was expected, not " + resolved + ".");
+        }
+
+        return (Long)resolved;
+    }
+
+    // Get the decoded data of a stream. Only Flate compressed and uncompressed streams are supported.
+    public byte[] decodeStream(PdfParser.Stream stream) throws IOException
+    {
+        Map<String, Object> dictionary = stream.getDictionary();
+        int length = (int)this.getInteger(dictionary.get("Length"));
+        if (length < 0 || stream.getDataOffset() + length > this.data.limit())
+        {
+            throw new IOException("The stream length " + length + " is not valid.");
+        }
+
+        byte[] encoded = new byte[length];
+        ByteBuffer source = this.data.duplicate();
+        source.position(stream.getDataOffset());
+        source.get(encoded);
+
+        Object filter = this.resolve(dictionary.get("Filter"));
+        Object parameters = this.resolve(dictionary.get("DecodeParms"));
+        if (filter instanceof List)
+        {
+            List<?> filters = (List<?>)filter;
+            if (filters.size() > 1)
+            {
+                throw new IOException("Streams with several filters are not supported.");
+            }
+
+            filter = filters.isEmpty() ? null : this.resolve(filters.get(0));
+            if (parameters instanceof List)
+            {
+                List<?> parameterList = (List<?>)parameters;
+                parameters = parameterList.isEmpty() ? null : this.resolve(parameterList.get(0));
+            }
+        }
+
+        if (filter == null)
+        {
+            return encoded;
+        }
+
+        if (!filter.equals(new PdfParser.Name("FlateDecode")))
+        {
+            throw new IOException("The stream filter " + filter + " is not supported.");
+        }
+
+        byte[] decoded = inflate(encoded);
+        if (parameters instanceof Map)
+        {
+            decoded = this.unpredict(decoded, this.getDictionary(parameters));
+        }
+
+        return decoded;
+    }
+
+    private long findStartXref() throws IOException
+    {
+        int end = this.data.limit();
+        int start = Math.max(0, end - TRAILER_SEARCH_SIZE);
+        byte[] keyword = "startxref".getBytes("US-ASCII");
+        for (int i = end - keyword.length; i >= start; i--)
+        {
+            int j = 0;
+            while (j < keyword.length && this.data.get(i + j) == keyword[j])
+            {
+                j++;
+            }
+
+            if (j == keyword.length)
+            {
+                this.parser.setPosition(i + keyword.length);
+                return this.parser.readInteger();
+            }
+        }
+
+        throw new IOException("The PDF file has no startxref keyword.");
+    }
+
+    // Read the cross-reference sections from the newest to the oldest. An object defined in several
+    // sections keeps the entry of the newest one.
+    private void readXrefSections() throws IOException
+    {
+        Set<Long> visited = new HashSet<Long>();
+        long offset = this.startXref;
+        boolean newest = true;
+        while (offset >= 0)
+        {
+            if (offset >= this.data.limit() || !visited.add(offset))
+            {
+                throw new IOException("The cross-reference offset " + offset + " is not valid.");
+            }
+
+            Map<Integer, XrefEntry> section = new HashMap<Integer, XrefEntry>();
+            Map<String, Object> sectionTrailer;
+            this.parser.setPosition((int)offset);
+            this.parser.skipWhitespace();
+            if (this.parser.startsWith("xref"))
+            {
+                sectionTrailer = this.readXrefTable(section);
+
+                // In a hybrid file the stream holds the entries of the objects kept in object streams.
+                Object xrefStreamOffset = sectionTrailer.get("XRefStm");
+                if (xrefStreamOffset instanceof Long)
+                {
+                    Map<Integer, XrefEntry> streamSection = new HashMap<Integer, XrefEntry>();
+                    this.readXrefStream((Long)xrefStreamOffset, streamSection);
+                    for (Map.Entry<Integer, XrefEntry> entry : streamSection.entrySet())
+                    {
+                        XrefEntry tableEntry = section.get(entry.getKey());
+                        if (tableEntry == null || tableEntry.type == 0)
+                        {
+                            section.put(entry.getKey(), entry.getValue());
+                        }
+                    }
+                }
+            }
+            else
+            {
+                sectionTrailer = this.readXrefStream(offset, section);
+                if (newest)
+                {
+                    this.xrefStream = true;
+                }
+            }
+
+            for (Map.Entry<Integer, XrefEntry> entry : section.entrySet())
+            {
+                if (!this.entries.containsKey(entry.getKey()))
+                {
+                    this.entries.put(entry.getKey(), entry.getValue());
+                }
+            }
+
+            for (Map.Entry<String, Object> entry : sectionTrailer.entrySet())
+            {
+                if (!this.trailer.containsKey(entry.getKey()))
+                {
+                    this.trailer.put(entry.getKey(), entry.getValue());
+                }
+            }
+
+            Object size = sectionTrailer.get("Size");
+            if (size instanceof Long)
+            {
+                this.size = Math.max(this.size, (int)(long)(Long)size);
+            }
+
+            Object previous = sectionTrailer.get("Prev");
+            offset = previous instanceof Long ? (Long)previous : -1;
+            newest = false;
+        }
+
+        // Only the entries of a trailer dictionary are kept, not those describing a stream.
+        for (String key : new String[] { "Prev", "XRefStm", "Type", "W", "Index", "Length", "Filter", "DecodeParms" })
+        {
+            this.trailer.remove(key);
+        }
+
+        for (Integer number : this.entries.keySet())
+        {
+            this.size = Math.max(this.size, number + 1);
+        }
+    }
+
+    // Read a cross-reference table and its trailer dictionary.
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> readXrefTable(Map<Integer, XrefEntry> section) throws IOException
+    {
+        this.parser.readKeyword();
+        while (true)
+        {
+            this.parser.skipWhitespace();
+            if (this.parser.startsWith("trailer"))
+            {
+                this.parser.readKeyword();
+                Object trailerDictionary = this.parser.readObject();
+                if (!(trailerDictionary instanceof Map))
+                {
+                    throw new IOException("The trailer is not a dictionary.");
+                }
+
+                return (Map<String, Object>)trailerDictionary;
+            }
+
+            long first = this.parser.readInteger();
+            long count = this.parser.readInteger();
+            for (long i = 0; i < count; i++)
+            {
+                long field2 = this.parser.readInteger();
+                int generation = (int)this.parser.readInteger();
+                String type = this.parser.readKeyword();
+                int number = (int)(first + i);
+                if (!section.containsKey(number))
+                {
+                    section.put(number, new XrefEntry(type.equals("n") ? 1 : 0, field2, generation));
+                }
+            }
+        }
+    }
+
+    // Read a cross-reference stream and return its dictionary.
+    private Map<String, Object> readXrefStream(long offset, Map<Integer, XrefEntry> section) throws IOException
+    {
+        this.parser.setPosition((int)offset);
+        int number = (int)this.parser.readInteger();
+        Object value = this.parser.readIndirectObject((int)offset, number);
+        if (!(value instanceof PdfParser.Stream))
+        {
+            throw new IOException("No cross-reference stream was found at offset " + offset + ".");
+        }
+
+        PdfParser.Stream stream = (PdfParser.Stream)value;
+        Map<String, Object> dictionary = stream.getDictionary();
+        List<?> widths = (List<?>)dictionary.get("W");
+        int[] w = new int[3];
+        for (int i = 0; i < 3; i++)
+        {
+            w[i] = (int)this.getInteger(widths.get(i));
+        }
+
+        List<?> index = (List<?>)dictionary.get("Index");
+        long[] ranges;
+        if (index != null)
+        {
+            ranges = new long[index.size()];
+            for (int i = 0; i < ranges.length; i++)
+            {
+                ranges[i] = this.getInteger(index.get(i));
+            }
+        }
+        else
+        {
+            ranges = new long[] { 0, this.getInteger(dictionary.get("Size")) };
+        }
+
+        byte[] entryData = this.decodeStream(stream);
+        int entrySize = w[0] + w[1] + w[2];
+        int position = 0;
+        for (int r = 0; r + 1 < ranges.length; r += 2)
+        {
+            for (long i = 0; i < ranges[r + 1]; i++)
+            {
+                if (position + entrySize > entryData.length)
+                {
+                    throw new IOException("The cross-reference stream at offset " + offset + " is truncated.");
+                }
+
+                // A missing type field means an object at an offset.
+                int type = w[0] == 0 ? 1 : (int)readField(entryData, position, w[0]);
+                long field2 = readField(entryData, position + w[0], w[1]);
+                int field3 = (int)readField(entryData, position + w[0] + w[1], w[2]);
+                position += entrySize;
+
+                int objectNumber = (int)(ranges[r] + i);
+                if (type <= 2 && !section.containsKey(objectNumber))
+                {
+                    section.put(objectNumber, new XrefEntry(type, field2, field3));
+                }
+            }
+        }
+
+        return dictionary;
+    }
+
+    private ObjectStream getObjectStream(int number) throws IOException
+    {
+        ObjectStream objectStream = this.objectStreams.get(number);
+        if (objectStream == null)
+        {
+            Object value = this.getObject(number);
+            if (!(value instanceof PdfParser.Stream))
+            {
+                throw new IOException("The object stream " + number + " was not found.");
+            }
+
+            PdfParser.Stream stream = (PdfParser.Stream)value;
+            int count = (int)this.getInteger(stream.getDictionary().get("N"));
+            int first = (int)this.getInteger(stream.getDictionary().get("First"));
+            objectStream = new ObjectStream(this.decodeStream(stream), count, first);
+            this.objectStreams.put(number, objectStream);
+        }
+
+        return objectStream;
+    }
+
+    // Undo the PNG predictors applied before compression, as used by cross-reference streams.
+    private byte[] unpredict(byte[] decoded, Map<String, Object> parameters) throws IOException
+    {
+        Object predictor = parameters.get("Predictor");
+        int type = predictor instanceof Long ? (int)(long)(Long)predictor : 1;
+        if (type == 1)
+        {
+            return decoded;
+        }
+
+        if (type < 10)
+        {
+            throw new IOException("The stream predictor " + type + " is not supported.");
+        }
+
+        int colors = parameters.containsKey("Colors") ? (int)this.getInteger(parameters.get("Colors")) : 1;
+        int bitsPerComponent = parameters.containsKey("BitsPerComponent") ? (int)this.getInteger(parameters.get("BitsPerComponent")) : 8;
+        int columns = parameters.containsKey("Columns") ? (int)this.getInteger(parameters.get("Columns")) : 1;
+        int bytesPerPixel = Math.max(1, colors * bitsPerComponent / 8);
+        int rowSize = (colors * bitsPerComponent * columns + 7) / 8;
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream(decoded.length);
+        byte[] previous = new byte[rowSize];
+        byte[] row = new byte[rowSize];
+        for (int position = 0; position < decoded.length; position += rowSize + 1)
+        {
+            int filter = decoded[position] & 0xFF;
+            int available = Math.min(rowSize, decoded.length - position - 1);
+            for (int i = 0; i < available; i++)
+            {
+                int raw = decoded[position + 1 + i] & 0xFF;
+                int left = i >= bytesPerPixel ? row[i - bytesPerPixel] & 0xFF : 0;
+                int up = previous[i] & 0xFF;
+                int upLeft = i >= bytesPerPixel ? previous[i - bytesPerPixel] & 0xFF : 0;
+                switch (filter)
+                {
+                    case 0:
+                        break;
+                    case 1:
+                        raw += left;
+                        break;
+                    case 2:
+                        raw += up;
+                        break;
+                    case 3:
+                        raw += (left + up) / 2;
+                        break;
+                    case 4:
+                        raw += paeth(left, up, upLeft);
+                        break;
+                    default:
+                        throw new IOException("The PNG predictor filter " + filter + " is not valid.");
+                }
+
+                row[i] = (byte)raw;
+            }
+
+            output.write(row, 0, available);
+            byte[] swap = previous;
+            previous = row;
+            row = swap;
+        }
+
+        return output.toByteArray();
+    }
+
+    private static int paeth(int left, int up, int upLeft)
+    {
+        int estimate = left + up - upLeft;
+        int leftDistance = Math.abs(estimate - left);
+        int upDistance = Math.abs(estimate - up);
+        int upLeftDistance = Math.abs(estimate - upLeft);
+        if (leftDistance <= upDistance && leftDistance <= upLeftDistance)
+        {
+            return left;
+        }
+
+        return upDistance <= upLeftDistance ? up : upLeft;
+    }
+
+    private static byte[] inflate(byte[] encoded) throws IOException
+    {
+        Inflater inflater = new Inflater();
+        try
+        {
+            inflater.setInput(encoded);
+            ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, encoded.length * 4));
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished())
+            {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                {
+                    break;
+                }
+
+                output.write(buffer, 0, count);
+            }
+
+            return output.toByteArray();
+        }
+        catch (DataFormatException ex)
+        {
+            throw new IOException("A stream could not be decompressed: " + ex.getMessage(), ex);
+        }
+        finally
+        {
+            inflater.end();
+        }
+    }
+
+    private static long readField(byte[] data, int position, int width)
+    {
+        long value = 0;
+        for (int i = 0; i < width; i++)
+        {
+            value = (value << 8) | (data[position + i] & 0xFF);
+        }
+
+        return value;
+    }
+
+    // A cross-reference entry: free (type 0), at an offset (type 1, with the offset and generation) or
+    // in an object stream (type 2, with the stream object number and the index in the stream).
+    private static class XrefEntry
+    {
+        final int type;
+        final long field2;
+        final int field3;
+
+        XrefEntry(int type, long field2, int field3)
+        {
+            this.type = type;
+            this.field2 = field2;
+            this.field3 = field3;
+        }
+    }
+
+    // The decoded data of an object stream and the offsets of its objects.
+    private static class ObjectStream
+    {
+        final PdfParser parser;
+        final int[] numbers;
+        final int[] offsets;
+
+        ObjectStream(byte[] data, int count, int first) throws IOException
+        {
+            this.parser = new PdfParser(ByteBuffer.wrap(data));
+            this.numbers = new int[count];
+            this.offsets = new int[count];
+            for (int i = 0; i < count; i++)
+            {
+                this.numbers[i] = (int)this.parser.readInteger();
+                this.offsets[i] = first + (int)this.parser.readInteger();
+            }
+        }
+
+        Object getObject(int index, int number) throws IOException
+        {
+            if (index < 0 || index >= this.numbers.length || this.numbers[index] != number)
+            {
+                throw new IOException("The object " + number + " is not in its object stream.");
+            }
+
+            this.parser.setPosition(this.offsets[index]);
+            return this.parser.readObject();
+        }
+    }
+}
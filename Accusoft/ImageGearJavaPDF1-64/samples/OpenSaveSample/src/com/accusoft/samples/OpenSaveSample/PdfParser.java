@@ -0,0 +1,644 @@
+// ****************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                  *'
+//  This sample code is provided to Accusoft licensees "as is"        *'
+//  with no restrictions on use or modification. No warranty for      *'
+//  use of this sample code is provided by Accusoft.                  *'
+//                                                                    *'
+//  CLASS PURPOSE                                                     *'
+//                                                                    *'
+//  Reads PDF objects from a buffer holding a PDF file or a decoded   *'
+//  object stream. Dictionaries are read into LinkedHashMap objects   *'
+//  keyed by name, arrays into ArrayList objects, integers into Long, *'
+//  real numbers into BigDecimal, strings into byte arrays, and       *'
+//  names, indirect references and streams into the nested value      *'
+//  classes.                                                          *'
+//                                                                    *'
+// ****************************************************************** *'
+
+package com.accusoft.samples.OpenSaveSample;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PdfParser
+{
+    private final ByteBuffer data;
+    private int position;
+
+    // Create a parser reading the buffer from its first byte; the buffer position is not used.
+    public PdfParser(ByteBuffer data)
+    {
+        this.data = data;
+    }
+
+    public int getPosition()
+    {
+        return this.position;
+    }
+
+    public void setPosition(int position)
+    {
+        this.position = position;
+    }
+
+    // Read a direct object, or an indirect reference.
+    public Object readObject() throws IOException
+    {
+        this.skipWhitespace();
+        int c = this.peek();
+        switch (c)
+        {
+            case '/':
+                return this.readName();
+
+            case '(':
+                return this.readLiteralString();
+
+            case '<':
+                if (this.peek(1) == '<')
+                {
+                    return this.readDictionary();
+                }
+
+                return this.readHexString();
+
+            case '[':
+                return this.readArray();
+
+            default:
+                break;
+        }
+
+        if (isNumberStart(c))
+        {
+            return this.readNumberOrReference();
+        }
+
+        int start = this.position;
+        String keyword = this.readKeyword();
+        if (keyword.equals("true"))
+        {
+            return Boolean.TRUE;
+        }
+
+        if (keyword.equals("false"))
+        {
+            return Boolean.FALSE;
+        }
+
+        if (keyword.equals("null"))
+        {
+            return null;
+        }
+
+        throw this.error(start, "unexpected '" + keyword + "'");
+    }
+
+    // Read the indirect object at the offset, checking its object number. A dictionary followed by
+    // stream data is returned as a Stream.
+    public Object readIndirectObject(int offset, int number) throws IOException
+    {
+        this.position = offset;
+        long objectNumber = this.readInteger();
+        this.readInteger();
+        if (objectNumber != number || !this.readKeyword().equals("obj"))
+        {
+            throw this.error(offset, "object " + number + " was expected");
+        }
+
+        Object value = this.readObject();
+        this.skipWhitespace();
+        if (!(value instanceof Map) || !this.startsWith("stream"))
+        {
+            return value;
+        }
+
+        // The data starts after the end of line following the keyword.
+        this.position += "stream".length();
+        if (this.peek() == '\r')
+        {
+            this.position++;
+        }
+
+        if (this.peek() == '\n')
+        {
+            this.position++;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> dictionary = (Map<String, Object>)value;
+        return new Stream(dictionary, this.position);
+    }
+
+    // Read a non-negative or negative integer, without looking for a reference.
+    public long readInteger() throws IOException
+    {
+        this.skipWhitespace();
+        int start = this.position;
+        String token = this.readKeyword();
+        try
+        {
+            return Long.parseLong(token.startsWith("+") ? token.substring(1) : token);
+        }
+        catch (NumberFormatException ex)
+        {
+            throw this.error(start, "an integer was expected, not '" + token + "'");
+        }
+    }
+
+    // Read a keyword or other token made of regular characters.
+    public String readKeyword() throws IOException
+    {
+        this.skipWhitespace();
+        int start = this.position;
+        StringBuilder keyword = new StringBuilder();
+        int c;
+        while ((c = this.peek()) >= 0 && !isWhitespace(c) && !isDelimiter(c))
+        {
+            keyword.append((char)c);
+            this.position++;
+        }
+
+        if (keyword.length() == 0)
+        {
+            throw this.error(start, "a token was expected");
+        }
+
+        return keyword.toString();
+    }
+
+    // Check whether the bytes at the current position spell the keyword.
+    public boolean startsWith(String keyword)
+    {
+        for (int i = 0; i < keyword.length(); i++)
+        {
+            if (this.peek(i) != keyword.charAt(i))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // Skip white space and comments.
+    public void skipWhitespace()
+    {
+        int c;
+        while ((c = this.peek()) >= 0)
+        {
+            if (c == '%')
+            {
+                while ((c = this.peek()) >= 0 && c != '\r' && c != '\n')
+                {
+                    this.position++;
+                }
+            }
+            else if (isWhitespace(c))
+            {
+                this.position++;
+            }
+            else
+            {
+                break;
+            }
+        }
+    }
+
+    private Name readName()
+    {
+        this.position++;
+        StringBuilder name = new StringBuilder();
+        int c;
+        while ((c = this.peek()) >= 0 && !isWhitespace(c) && !isDelimiter(c))
+        {
+            if (c == '#' && hexValue(this.peek(1)) >= 0 && hexValue(this.peek(2)) >= 0)
+            {
+                c = hexValue(this.peek(1)) * 16 + hexValue(this.peek(2));
+                this.position += 2;
+            }
+
+            name.append((char)c);
+            this.position++;
+        }
+
+        return new Name(name.toString());
+    }
+
+    private Map<String, Object> readDictionary() throws IOException
+    {
+        int start = this.position;
+        this.position += 2;
+        Map<String, Object> dictionary = new LinkedHashMap<String, Object>();
+        while (true)
+        {
+            this.skipWhitespace();
+            int c = this.peek();
+            if (c == '>' && this.peek(1) == '>')
+            {
+                this.position += 2;
+                return dictionary;
+            }
+
+            if (c != '/')
+            {
+                throw this.error(start, "the dictionary is not terminated");
+            }
+
+            String key = this.readName().getValue();
+            dictionary.put(key, this.readObject());
+        }
+    }
+
+    private List<Object> readArray() throws IOException
+    {
+        int start = this.position;
+        this.position++;
+        List<Object> array = new ArrayList<Object>();
+        while (true)
+        {
+            this.skipWhitespace();
+            int c = this.peek();
+            if (c == ']')
+            {
+                this.position++;
+                return array;
+            }
+
+            if (c < 0)
+            {
+                throw this.error(start, "the array is not terminated");
+            }
+
+            array.add(this.readObject());
+        }
+    }
+
+    private byte[] readLiteralString() throws IOException
+    {
+        int start = this.position;
+        this.position++;
+        ByteArrayOutputStream value = new ByteArrayOutputStream();
+        int depth = 0;
+        while (true)
+        {
+            int c = this.next();
+            if (c < 0)
+            {
+                throw this.error(start, "the string is not terminated");
+            }
+
+            if (c == ')' && depth == 0)
+            {
+                return value.toByteArray();
+            }
+
+            if (c == '(')
+            {
+                depth++;
+            }
+            else if (c == ')')
+            {
+                depth--;
+            }
+            else if (c == '\r')
+            {
+                // An end of line in a string is read as a line feed.
+                if (this.peek() == '\n')
+                {
+                    this.position++;
+                }
+
+                c = '\n';
+            }
+            else if (c == '\\')
+            {
+                c = this.readEscape();
+                if (c < 0)
+                {
+                    continue;
+                }
+            }
+
+            value.write(c);
+        }
+    }
+
+    // Read the escape sequence after a backslash. Returns -1 for an escaped end of line.
+    private int readEscape()
+    {
+        int c = this.next();
+        switch (c)
+        {
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case '\r':
+                if (this.peek() == '\n')
+                {
+                    this.position++;
+                }
+
+                return -1;
+            case '\n':
+                return -1;
+            default:
+                break;
+        }
+
+        if (c >= '0' && c <= '7')
+        {
+            int value = c - '0';
+            for (int i = 0; i < 2 && this.peek() >= '0' && this.peek() <= '7'; i++)
+            {
+                value = value * 8 + this.next() - '0';
+            }
+
+            return value & 0xFF;
+        }
+
+        return c;
+    }
+
+    private byte[] readHexString() throws IOException
+    {
+        int start = this.position;
+        this.position++;
+        ByteArrayOutputStream value = new ByteArrayOutputStream();
+        int high = -1;
+        while (true)
+        {
+            int c = this.next();
+            if (c == '>')
+            {
+                if (high >= 0)
+                {
+                    value.write(high << 4);
+                }
+
+                return value.toByteArray();
+            }
+
+            if (c < 0)
+            {
+                throw this.error(start, "the string is not terminated");
+            }
+
+            int digit = hexValue(c);
+            if (digit < 0)
+            {
+                continue;
+            }
+
+            if (high < 0)
+            {
+                high = digit;
+            }
+            else
+            {
+                value.write((high << 4) | digit);
+                high = -1;
+            }
+        }
+    }
+
+    private Object readNumberOrReference() throws IOException
+    {
+        int start = this.position;
+        String token = this.readKeyword();
+        if (token.indexOf('.') >= 0)
+        {
+            try
+            {
+                return new BigDecimal(token);
+            }
+            catch (NumberFormatException ex)
+            {
+                throw this.error(start, "'" + token + "' is not a number");
+            }
+        }
+
+        long value;
+        try
+        {
+            value = Long.parseLong(token.startsWith("+") ? token.substring(1) : token);
+        }
+        catch (NumberFormatException ex)
+        {
+            throw this.error(start, "'" + token + "' is not a number");
+        }
+
+        // An object number followed by a generation number and R is a reference.
+        if (value >= 0 && Character.isDigit(token.charAt(0)))
+        {
+            int end = this.position;
+            this.skipWhitespace();
+            int generationStart = this.position;
+            while (this.peek() >= '0' && this.peek() <= '9')
+            {
+                this.position++;
+            }
+
+            if (this.position > generationStart)
+            {
+                int generationEnd = this.position;
+                this.skipWhitespace();
+                if (this.peek() == 'R' && (this.peek(1) < 0 || isWhitespace(this.peek(1)) || isDelimiter(this.peek(1))))
+                {
+                    this.position++;
+                    int generation = Integer.parseInt(decode(generationStart, generationEnd));
+                    return new Reference((int)value, generation);
+                }
+            }
+
+            this.position = end;
+        }
+
+        return value;
+    }
+
+    private String decode(int start, int end)
+    {
+        StringBuilder text = new StringBuilder();
+        for (int i = start; i < end; i++)
+        {
+            text.append((char)(this.data.get(i) & 0xFF));
+        }
+
+        return text.toString();
+    }
+
+    private int peek()
+    {
+        return this.peek(0);
+    }
+
+    private int peek(int offset)
+    {
+        int index = this.position + offset;
+        return index < this.data.limit() ? this.data.get(index) & 0xFF : -1;
+    }
+
+    private int next()
+    {
+        int c = this.peek();
+        if (c >= 0)
+        {
+            this.position++;
+        }
+
+        return c;
+    }
+
+    private IOException error(int offset, String message)
+    {
+        return new IOException("Malformed PDF data at offset " + offset + ": " + message + ".");
+    }
+
+    private static boolean isNumberStart(int c)
+    {
+        return (c >= '0' && c <= '9') || c == '+' || c == '-' || c == '.';
+    }
+
+    static boolean isWhitespace(int c)
+    {
+        return c == 0 || c == '\t' || c == '\n' || c == '\f' || c == '\r' || c == ' ';
+    }
+
+    static boolean isDelimiter(int c)
+    {
+        return c == '(' || c == ')' || c == '<' || c == '>' || c == '[' || c == ']' || c == '{' || c == '}' || c == '/' || c == '%';
+    }
+
+    private static int hexValue(int c)
+    {
+        if (c >= '0' && c <= '9')
+        {
+            return c - '0';
+        }
+
+        if (c >= 'a' && c <= 'f')
+        {
+            return c - 'a' + 10;
+        }
+
+        if (c >= 'A' && c <= 'F')
+        {
+            return c - 'A' + 10;
+        }
+
+        return -1;
+    }
+
+    // A PDF name, without the leading slash.
+    public static final class Name
+    {
+        private final String value;
+
+        public Name(String value)
+        {
+            this.value = value;
+        }
+
+        public String getValue()
+        {
+            return this.value;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            return other instanceof Name && ((Name)other).value.equals(this.value);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return this.value.hashCode();
+        }
+
+        @Override
+        public String toString()
+        {
+            return "/" + this.value;
+        }
+    }
+
+    // An indirect reference.
+    public static final class Reference
+    {
+        private final int number;
+        private final int generation;
+
+        public Reference(int number, int generation)
+        {
+            this.number = number;
+            this.generation = generation;
+        }
+
+        public int getNumber()
+        {
+            return this.number;
+        }
+
+        public int getGeneration()
+        {
+            return this.generation;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            return other instanceof Reference && ((Reference)other).number == this.number &&
+                ((Reference)other).generation == this.generation;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * this.number + this.generation;
+        }
+
+        @Override
+        public String toString()
+        {
+            return this.number + " " + this.generation + " R";
+        }
+    }
+
+    // A stream object: its dictionary and the offset of its data in the parsed buffer.
+    public static final class Stream
+    {
+        private final Map<String, Object> dictionary;
+        private final int dataOffset;
+
+        public Stream(Map<String, Object> dictionary, int dataOffset)
+        {
+            this.dictionary = dictionary;
+            this.dataOffset = dataOffset;
+        }
+
+        public Map<String, Object> getDictionary()
+        {
+            return this.dictionary;
+        }
+
+        public int getDataOffset()
+        {
+            return this.dataOffset;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+// ****************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                  *'
+//  This sample code is provided to Accusoft licensees "as is"        *'
+//  with no restrictions on use or modification. No warranty for      *'
+//  use of this sample code is provided by Accusoft.                  *'
+//                                                                    *'
+//  CLASS PURPOSE                                                     *'
+//                                                                    *'
+//  Creates the spool files used to exchange PDF data with the        *'
+//  path-based Document API, preferring a memory-backed directory.    *'
+//                                                                    *'
+// ****************************************************************** *'
+
+package com.accusoft.samples.OpenSaveSample;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+final class SpoolFiles
+{
+    private static final File SHARED_MEMORY_DIRECTORY = new File("/dev/shm");
+
+    private SpoolFiles()
+    {
+    }
+
+    // Get the shared memory directory when it can be written to, otherwise null for the temporary directory.
+    static Path getDefaultDirectory()
+    {
+        if (SHARED_MEMORY_DIRECTORY.isDirectory() && SHARED_MEMORY_DIRECTORY.canWrite())
+        {
+            return SHARED_MEMORY_DIRECTORY.toPath();
+        }
+
+        return null;
+    }
+
+    // Create an empty spool file in the directory, or in the temporary directory when it is null.
+    static Path create(Path directory) throws IOException
+    {
+        if (directory == null)
+        {
+            return Files.createTempFile("igpdf-", ".pdf");
+        }
+
+        return Files.createTempFile(directory, "igpdf-", ".pdf");
+    }
+}
@@ -0,0 +1,68 @@
+// ****************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                  *'
+//  This sample code is provided to Accusoft licensees "as is"        *'
+//  with no restrictions on use or modification. No warranty for      *'
+//  use of this sample code is provided by Accusoft.                  *'
+//                                                                    *'
+//  CLASS PURPOSE                                                     *'
+//                                                                    *'
+//  A PDF document opened by MemoryDocumentOpener together with the   *'
+//  spool file backing it. Closing it closes the document and         *'
+//  removes the spool file, so it can be used in a try-with-resources *'
+//  statement.                                                        *'
+//                                                                    *'
+// ****************************************************************** *'
+
+package com.accusoft.samples.OpenSaveSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class SpooledDocument implements Closeable
+{
+    private Document document;
+    private Path spoolFile;
+
+    SpooledDocument(Document document, Path spoolFile)
+    {
+        this.document = document;
+        this.spoolFile = spoolFile;
+    }
+
+    // Get the opened PDF document.
+    public Document getDocument()
+    {
+        if (this.document == null)
+        {
+            throw new IllegalStateException("The document has been closed.");
+        }
+
+        return this.document;
+    }
+
+    // Close the PDF document and delete its spool file.
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            if (this.document != null)
+            {
+                this.document.close();
+                this.document = null;
+            }
+        }
+        finally
+        {
+            if (this.spoolFile != null)
+            {
+                Files.deleteIfExists(this.spoolFile);
+                this.spoolFile = null;
+            }
+        }
+    }
+}
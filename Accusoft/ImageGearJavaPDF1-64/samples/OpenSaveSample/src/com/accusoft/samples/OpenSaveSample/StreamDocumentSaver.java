@@ -0,0 +1,86 @@
+// ****************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                  *'
+//  This sample code is provided to Accusoft licensees "as is"        *'
+//  with no restrictions on use or modification. No warranty for      *'
+//  use of this sample code is provided by Accusoft.                  *'
+//                                                                    *'
+//  CLASS PURPOSE                                                     *'
+//                                                                    *'
+//  Saves PDF documents to an output stream or a channel.             *'
+//  Document.saveDocument only writes to a file path, so the          *'
+//  document is saved to a spool file in a memory-backed directory    *'
+//  (/dev/shm when available) and transferred to the target with      *'
+//  FileChannel.transferTo, which avoids copying through the heap     *'
+//  for file and socket channels.                                     *'
+//                                                                    *'
+// ****************************************************************** *'
+
+package com.accusoft.samples.OpenSaveSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class StreamDocumentSaver
+{
+    private final Path spoolDirectory;
+
+    // Create a saver spooling to shared memory when available, otherwise to the temporary directory.
+    public StreamDocumentSaver()
+    {
+        this(SpoolFiles.getDefaultDirectory());
+    }
+
+    // Create a saver spooling to the given directory.
+    public StreamDocumentSaver(Path spoolDirectory)
+    {
+        this.spoolDirectory = spoolDirectory;
+    }
+
+    // Save the document to the output stream and return the number of bytes written.
+    // The stream is flushed but not closed.
+    public long save(Document document, SaveOptions options, OutputStream output) throws IOException
+    {
+        long size = this.save(document, options, Channels.newChannel(output));
+        output.flush();
+        return size;
+    }
+
+    // Save the document to the channel and return the number of bytes written. The channel is not closed.
+    public long save(Document document, SaveOptions options, WritableByteChannel output) throws IOException
+    {
+        Path spoolFile = SpoolFiles.create(this.spoolDirectory);
+        try
+        {
+            document.saveDocument(spoolFile.toString(), options);
+
+            FileChannel channel = FileChannel.open(spoolFile, StandardOpenOption.READ);
+            try
+            {
+                long size = channel.size();
+                long position = 0;
+                while (position < size)
+                {
+                    position += channel.transferTo(position, size - position, output);
+                }
+
+                return size;
+            }
+            finally
+            {
+                channel.close();
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists(spoolFile);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+// ****************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                  *'
+//  This sample code is provided to Accusoft licensees "as is"        *'
+//  with no restrictions on use or modification. No warranty for      *'
+//  use of this sample code is provided by Accusoft.                  *'
+//                                                                    *'
+//  CLASS PURPOSE                                                     *'
+//                                                                    *'
+//  Tests IncrementalPageDeleter and IncrementalUpdate without the    *'
+//  PDF library: pages are deleted from the sample PDF files and from *'
+//  a file with a compressed cross-reference stream and object        *'
+//  streams, and the result is read back with PdfFile. The original   *'
+//  bytes must be kept as they are and only the deleted pages may be  *'
+//  missing.                                                          *'
+//                                                                    *'
+// ****************************************************************** *'
+
+package com.accusoft.samples.OpenSaveSample;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.*;
+
+public class IncrementalPageDeleterTest
+{
+    private static final String SAMPLE_DIRECTORY = "../SampleData/Pdf/";
+
+    private Path directory;
+
+    @Before
+    public void createDirectory() throws IOException
+    {
+        this.directory = Files.createTempDirectory("incremental-");
+    }
+
+    @After
+    public void deleteDirectory() throws IOException
+    {
+        for (String name : this.directory.toFile().list())
+        {
+            Files.delete(this.directory.resolve(name));
+        }
+
+        Files.delete(this.directory);
+    }
+
+    @Test
+    public void deletesPagesOfTheSampleFiles() throws IOException
+    {
+        int checked = 0;
+        for (String name : new String[] { "single-page.pdf", "multi-page.pdf", "compression-info.pdf", "accusoft-brochure.pdf" })
+        {
+            Path input = Paths.get(SAMPLE_DIRECTORY + name);
+            List<PdfParser.Reference> pages = getPages(PdfFile.open(input));
+            if (pages.size() < 2)
+            {
+                continue;
+            }
+
+            Path output = this.directory.resolve(name);
+            IncrementalPageDeleter.deletePages(input.toString(), 0, 0, output.toString());
+            assertUpdated(input, output, pages.subList(1, pages.size()));
+            checked++;
+        }
+
+        assertTrue(checked > 0);
+    }
+
+    @Test
+    public void deletesPagesInPlace() throws IOException
+    {
+        Path input = Paths.get(SAMPLE_DIRECTORY + "multi-page.pdf");
+        Path copy = this.directory.resolve("copy.pdf");
+        Files.copy(input, copy);
+        List<PdfParser.Reference> pages = getPages(PdfFile.open(input));
+
+        IncrementalPageDeleter.deletePages(copy.toString(), pages.size() - 1, pages.size() - 1, copy.toString());
+
+        assertUpdated(input, copy, pages.subList(0, pages.size() - 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void keepsTheLastPage() throws IOException
+    {
+        IncrementalPageDeleter.deletePages(SAMPLE_DIRECTORY + "single-page.pdf", 0, 0, this.directory.resolve("out.pdf").toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsPagesOutsideTheDocument() throws IOException
+    {
+        IncrementalPageDeleter.deletePages(SAMPLE_DIRECTORY + "multi-page.pdf", 1, 100, this.directory.resolve("out.pdf").toString());
+    }
+
+    @Test
+    public void updatesAFileWithAnXrefStream() throws IOException
+    {
+        Path input = this.directory.resolve("xref-stream.pdf");
+        Files.write(input, createXrefStreamFile());
+        Path output = this.directory.resolve("out.pdf");
+
+        IncrementalPageDeleter.deletePages(input.toString(), 1, 1, output.toString());
+
+        assertUpdated(input, output, Arrays.asList(new PdfParser.Reference(3, 0), new PdfParser.Reference(5, 0)));
+        PdfFile file = PdfFile.open(output);
+        assertTrue(file.hasXrefStream());
+
+        // The update is small, so its offsets fit in two bytes.
+        Map<String, Object> xref = ((PdfParser.Stream)file.getObject(8)).getDictionary();
+        assertEquals(Arrays.<Object>asList(1L, 2L, 1L), xref.get("W"));
+    }
+
+    @Test
+    public void readsItsOwnXrefStream() throws IOException
+    {
+        Path input = this.directory.resolve("xref-stream.pdf");
+        Files.write(input, createXrefStreamFile());
+        Path first = this.directory.resolve("first.pdf");
+        Path second = this.directory.resolve("second.pdf");
+
+        IncrementalPageDeleter.deletePages(input.toString(), 0, 0, first.toString());
+        IncrementalPageDeleter.deletePages(first.toString(), 0, 0, second.toString());
+
+        assertUpdated(first, second, Arrays.asList(new PdfParser.Reference(5, 0)));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsASourceThatShrankAfterItWasRead() throws IOException
+    {
+        Path input = this.directory.resolve("shrunk.pdf");
+        Files.copy(Paths.get(SAMPLE_DIRECTORY + "multi-page.pdf"), input);
+        PdfFile file = PdfFile.open(input);
+        IncrementalUpdate update = new IncrementalUpdate(file);
+        update.addObject(1L);
+        Files.write(input, Arrays.copyOf(Files.readAllBytes(input), file.getLength() / 2));
+
+        update.save(input, this.directory.resolve("out.pdf"));
+    }
+
+    @Test
+    public void fieldWidthFitsTheValue()
+    {
+        assertEquals(1, IncrementalUpdate.getFieldWidth(0));
+        assertEquals(1, IncrementalUpdate.getFieldWidth(255));
+        assertEquals(2, IncrementalUpdate.getFieldWidth(256));
+        assertEquals(2, IncrementalUpdate.getFieldWidth(65535));
+        assertEquals(3, IncrementalUpdate.getFieldWidth(65536));
+        assertEquals(5, IncrementalUpdate.getFieldWidth(1L << 32));
+    }
+
+    // Check that the output starts with the bytes of the input and holds exactly the expected pages.
+    private static void assertUpdated(Path input, Path output, List<PdfParser.Reference> expectedPages) throws IOException
+    {
+        byte[] original = Files.readAllBytes(input);
+        byte[] updated = Files.readAllBytes(output);
+        assertTrue(updated.length > original.length);
+        assertArrayEquals(original, Arrays.copyOf(updated, original.length));
+
+        PdfFile file = PdfFile.open(output);
+        assertEquals(expectedPages, getPages(file));
+        Object pages = file.getDictionary(file.getTrailer().get("Root")).get("Pages");
+        assertEquals(expectedPages.size(), file.getInteger(file.getDictionary(pages).get("Count")));
+    }
+
+    // Get the references of the pages of the file in page order.
+    private static List<PdfParser.Reference> getPages(PdfFile file) throws IOException
+    {
+        List<PdfParser.Reference> pages = new ArrayList<PdfParser.Reference>();
+        Object root = file.getDictionary(file.getTrailer().get("Root")).get("Pages");
+        addPages(file, (PdfParser.Reference)root, pages);
+        return pages;
+    }
+
+    private static void addPages(PdfFile file, PdfParser.Reference node, List<PdfParser.Reference> pages) throws IOException
+    {
+        Object kids = file.resolve(file.getDictionary(node).get("Kids"));
+        if (kids == null)
+        {
+            pages.add(node);
+            return;
+        }
+
+        for (Object kid : (List<?>)kids)
+        {
+            addPages(file, (PdfParser.Reference)kid, pages);
+        }
+    }
+
+    // Create a three page file whose page tree sits in an object stream, indexed by a Flate compressed
+    // cross-reference stream with the PNG Up predictor.
+    private static byte[] createXrefStreamFile()
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long[] offsets = new long[8];
+        write(output, "%PDF-1.5\n");
+
+        offsets[1] = output.size();
+        write(output, "1 0 obj\n<< /Type /Catalog /Pages 2 0 R >>\nendobj\n");
+
+        String[] objects = {
+            "<< /Type /Pages /Kids [3 0 R 4 0 R 5 0 R] /Count 3 >>",
+            "<< /Type /Page /Parent 2 0 R /MediaBox [0 0 612 792] >>",
+            "<< /Type /Page /Parent 2 0 R /MediaBox [0 0 612 792] >>",
+            "<< /Type /Page /Parent 2 0 R /MediaBox [0 0 612 792] >>" };
+        StringBuilder header = new StringBuilder();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < objects.length; i++)
+        {
+            header.append(i + 2).append(' ').append(body.length()).append(' ');
+            body.append(objects[i]).append('\n');
+        }
+
+        byte[] objectData = deflate((header.toString() + body).getBytes(StandardCharsets.ISO_8859_1));
+        offsets[6] = output.size();
+        write(output, "6 0 obj\n<< /Type /ObjStm /N 4 /First " + header.length() + " /Filter /FlateDecode /Length " +
+            objectData.length + " >>\nstream\n");
+        output.write(objectData, 0, objectData.length);
+        write(output, "\nendstream\nendobj\n");
+
+        // Entries of W [1 2 1]: type, offset or object stream number, generation or index.
+        offsets[7] = output.size();
+        int[][] entries = {
+            { 0, 0, 0 }, { 1, (int)offsets[1], 0 }, { 2, 6, 0 }, { 2, 6, 1 }, { 2, 6, 2 }, { 2, 6, 3 },
+            { 1, (int)offsets[6], 0 }, { 1, (int)offsets[7], 0 } };
+        byte[] previous = new byte[4];
+        ByteArrayOutputStream rows = new ByteArrayOutputStream();
+        for (int[] entry : entries)
+        {
+            byte[] row = { (byte)entry[0], (byte)(entry[1] >> 8), (byte)entry[1], (byte)entry[2] };
+            rows.write(2);
+            for (int i = 0; i < row.length; i++)
+            {
+                rows.write(row[i] - previous[i]);
+            }
+
+            previous = row;
+        }
+
+        byte[] xrefData = deflate(rows.toByteArray());
+        write(output, "7 0 obj\n<< /Type /XRef /Size 8 /Root 1 0 R /W [1 2 1] /Filter /FlateDecode " +
+            "/DecodeParms << /Columns 4 /Predictor 12 >> /Length " + xrefData.length + " >>\nstream\n");
+        output.write(xrefData, 0, xrefData.length);
+        write(output, "\nendstream\nendobj\nstartxref\n" + offsets[7] + "\n%%EOF\n");
+        return output.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] data)
+    {
+        Deflater deflater = new Deflater();
+        try
+        {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished())
+            {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+
+            return output.toByteArray();
+        }
+        finally
+        {
+            deflater.end();
+        }
+    }
+
+    private static void write(ByteArrayOutputStream output, String text)
+    {
+        byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+        output.write(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,252 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Renders a range of pages of a PDF document concurrently on a        *'
+//  bounded pool of worker threads. Each worker opens its own copy of   *'
+//  the document, so no native document or page handle is shared        *'
+//  between threads. Rendered pages are returned in page order.         *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchRenderer
+{
+    private final PDF pdf;
+    private final int threadCount;
+
+    // Create a batch renderer using the initialized PDF session and the given number of worker threads.
+    public BatchRenderer(PDF pdf, int threadCount)
+    {
+        if (pdf == null)
+        {
+            throw new IllegalArgumentException("The PDF session must not be null.");
+        }
+
+        if (threadCount < 1)
+        {
+            throw new IllegalArgumentException("The thread count must be a positive integer, not '" + threadCount + "'.");
+        }
+
+        this.pdf = pdf;
+        this.threadCount = threadCount;
+    }
+
+    // Render pages [firstPage, lastPage] of the PDF file. A non-positive resolution or a negative
+    // smoothing flags value keeps the corresponding RenderOptions default.
+    public BatchResult render(String inputPath, final int firstPage, int lastPage, final double resolution, final int smoothingFlags)
+        throws InterruptedException, IOException
+    {
+        checkPageRange(firstPage, lastPage);
+
+        final byte[][] pages = new byte[lastPage - firstPage + 1][];
+        long startTime = System.nanoTime();
+        this.forEachPage(inputPath, firstPage, lastPage, new PageWorkerFactory()
+        {
+            public PageWorker createWorker()
+            {
+                return new PageWorker()
+                {
+                    private final NativeScope scope = new NativeScope();
+                    private final RenderSettings settings = new RenderSettings(resolution, smoothingFlags);
+                    private RenderOptions options;
+
+                    public void processPage(Document document, int pageNumber)
+                    {
+                        if (this.options == null)
+                        {
+                            this.options = this.scope.add(this.settings.createOptions());
+                        }
+
+                        try (NativeScope pageScope = new NativeScope())
+                        {
+                            Page page = pageScope.add(NativeMetrics.getPage(document, pageNumber));
+                            pages[pageNumber - firstPage] = NativeMetrics.render(page, this.scope.get(this.options), this.settings.getRenderResolution());
+                        }
+                    }
+
+                    public void close()
+                    {
+                        this.scope.close();
+                    }
+                };
+            }
+        });
+
+        return new BatchResult(firstPage, pages, System.nanoTime() - startTime);
+    }
+
+    // Start rendering pages [firstPage, lastPage] of the PDF file in the background and return a stream
+    // delivering them in page order, with at most maxBuffered pages rendered ahead of the consumer.
+    public PageStream stream(String inputPath, int firstPage, int lastPage, double resolution, int smoothingFlags, int maxBuffered)
+    {
+        checkPageRange(firstPage, lastPage);
+        return new PageStream(this, inputPath, firstPage, lastPage, resolution, smoothingFlags, maxBuffered);
+    }
+
+    // Process pages [firstPage, lastPage] of the PDF file on the worker threads. Each thread opens the
+    // document once and hands it, page by page, to its own PageWorker. Pages are claimed in ascending
+    // order but may complete out of order.
+    public void forEachPage(String inputPath, int firstPage, int lastPage, PageWorkerFactory factory)
+        throws InterruptedException, IOException
+    {
+        checkPageRange(firstPage, lastPage);
+
+        int workerCount = Math.min(this.threadCount, lastPage - firstPage + 1);
+        AtomicInteger nextPage = new AtomicInteger(firstPage);
+
+        ExecutorService executor = Executors.newFixedThreadPool(workerCount);
+        try
+        {
+            // Wait for the workers in completion order, so that the first failure stops the others at once.
+            CompletionService<Void> workers = new ExecutorCompletionService<Void>(executor);
+            for (int i = 0; i < workerCount; i++)
+            {
+                workers.submit(new Worker(inputPath, lastPage, nextPage, factory));
+            }
+
+            for (int i = 0; i < workerCount; i++)
+            {
+                waitFor(workers.take());
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+            awaitTermination(executor);
+        }
+    }
+
+    // Processes the pages handed out to one worker thread.
+    public interface PageWorker extends AutoCloseable
+    {
+        // Process a page of the document opened by the worker thread.
+        void processPage(Document document, int pageNumber) throws IOException;
+
+        // Release the resources of the worker once all pages have been processed.
+        @Override
+        void close();
+    }
+
+    // Creates one PageWorker per worker thread.
+    public interface PageWorkerFactory
+    {
+        PageWorker createWorker();
+    }
+
+    private static void checkPageRange(int firstPage, int lastPage)
+    {
+        if (firstPage < 0 || lastPage < firstPage)
+        {
+            throw new IllegalArgumentException("The page range " + firstPage + "-" + lastPage + " is not valid.");
+        }
+    }
+
+    // Wait until the worker threads have closed their documents, even when interrupted meanwhile.
+    private static void awaitTermination(ExecutorService executor)
+    {
+        boolean interrupted = false;
+        while (!executor.isTerminated())
+        {
+            try
+            {
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+            }
+            catch (InterruptedException ex)
+            {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Wait for a worker and rethrow its failure, if any.
+    private static void waitFor(Future<Void> worker) throws InterruptedException, IOException
+    {
+        try
+        {
+            worker.get();
+        }
+        catch (ExecutionException ex)
+        {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException)cause;
+            }
+
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException)cause;
+            }
+
+            if (cause instanceof Error)
+            {
+                throw (Error)cause;
+            }
+
+            throw new RuntimeException(cause);
+        }
+    }
+
+    // Process pages claimed from the shared page counter using a document opened by this worker only.
+    private class Worker implements Callable<Void>
+    {
+        private final String inputPath;
+        private final int lastPage;
+        private final AtomicInteger nextPage;
+        private final PageWorkerFactory factory;
+
+        Worker(String inputPath, int lastPage, AtomicInteger nextPage, PageWorkerFactory factory)
+        {
+            this.inputPath = inputPath;
+            this.lastPage = lastPage;
+            this.nextPage = nextPage;
+            this.factory = factory;
+        }
+
+        public Void call() throws IOException
+        {
+            try (NativeScope scope = new NativeScope(); PageWorker pageWorker = this.factory.createWorker())
+            {
+                Document document = scope.add(DocumentGuard.createDocument(pdf));
+                NativeMetrics.openDocument(document, this.inputPath);
+
+                int pageNumber;
+                while ((pageNumber = this.nextPage.getAndIncrement()) <= this.lastPage)
+                {
+                    if (Thread.currentThread().isInterrupted())
+                    {
+                        break;
+                    }
+
+                    pageWorker.processPage(document, pageNumber);
+                }
+            }
+
+            return null;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Holds the rendered images of a BatchRenderer run in page order,     *'
+//  together with the elapsed time of the run.                          *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+public class BatchResult
+{
+    private final int firstPage;
+    private final byte[][] pages;
+    private final long elapsedNanos;
+
+    BatchResult(int firstPage, byte[][] pages, long elapsedNanos)
+    {
+        this.firstPage = firstPage;
+        this.pages = pages;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    // Get the number (zero-based) of the first rendered page.
+    public int getFirstPage()
+    {
+        return this.firstPage;
+    }
+
+    // Get the number of rendered pages.
+    public int getPageCount()
+    {
+        return this.pages.length;
+    }
+
+    // Get the rendered image of the given page number, as returned by Page.render.
+    public byte[] getPage(int pageNumber)
+    {
+        return this.pages[pageNumber - this.firstPage];
+    }
+
+    // Get the wall clock time of the run in nanoseconds.
+    public long getElapsedNanos()
+    {
+        return this.elapsedNanos;
+    }
+
+    // Get the throughput of the run in pages per second.
+    public double getPagesPerSecond()
+    {
+        if (this.elapsedNanos <= 0)
+        {
+            return 0.0;
+        }
+
+        return this.pages.length * 1e9 / this.elapsedNanos;
+    }
+}
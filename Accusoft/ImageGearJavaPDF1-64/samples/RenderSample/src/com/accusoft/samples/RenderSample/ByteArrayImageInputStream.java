@@ -0,0 +1,77 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  An ImageInputStream reading directly from a byte array, so that     *'
+//  image readers neither copy the data nor spill it to a cache file.   *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+import java.io.IOException;
+import javax.imageio.stream.ImageInputStreamImpl;
+
+class ByteArrayImageInputStream extends ImageInputStreamImpl
+{
+    private final byte[] data;
+
+    ByteArrayImageInputStream(byte[] data)
+    {
+        if (data == null)
+        {
+            throw new IllegalArgumentException("The image data must not be null.");
+        }
+
+        this.data = data;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        checkClosed();
+        this.bitOffset = 0;
+        if (this.streamPos >= this.data.length)
+        {
+            return -1;
+        }
+
+        return this.data[(int)this.streamPos++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException
+    {
+        checkClosed();
+        if (offset < 0 || length < 0 || offset + length > buffer.length || offset + length < 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        this.bitOffset = 0;
+        if (length == 0)
+        {
+            return 0;
+        }
+
+        if (this.streamPos >= this.data.length)
+        {
+            return -1;
+        }
+
+        int count = (int)Math.min(length, this.data.length - this.streamPos);
+        System.arraycopy(this.data, (int)this.streamPos, buffer, offset, count);
+        this.streamPos += count;
+        return count;
+    }
+
+    @Override
+    public long length()
+    {
+        return this.data.length;
+    }
+}
@@ -0,0 +1,300 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Keeps opened PDF documents around so that repeated requests for     *'
+//  the same file do not parse it again. Documents are keyed by their   *'
+//  canonical path and are reopened when the file modification time     *'
+//  or size changes. The least recently used documents are evicted      *'
+//  when the cache holds too many documents or when their estimated     *'
+//  native memory, taken as the file size, exceeds the budget.          *'
+//                                                                      *'
+//  Documents are handed out as reference-counted leases; an evicted    *'
+//  document is only closed once its last lease has been closed.        *'
+//  Leases of the same file share one document, so each thread locks    *'
+//  it through its lease before use (see DocumentGuard). The locks      *'
+//  are striped by canonical path.                                      *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+public class DocumentCache implements AutoCloseable
+{
+    private final PDF pdf;
+    private final int maxDocuments;
+    private final long maxEstimatedBytes;
+    private final StripedLocks locks;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+    private long estimatedBytes;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private boolean closed;
+
+    // Create a cache holding at most maxDocuments documents and maxEstimatedBytes of estimated native memory.
+    public DocumentCache(PDF pdf, int maxDocuments, long maxEstimatedBytes)
+    {
+        if (pdf == null)
+        {
+            throw new IllegalArgumentException("The PDF session must not be null.");
+        }
+
+        if (maxDocuments < 1)
+        {
+            throw new IllegalArgumentException("The maximum number of documents must be a positive integer, not '" + maxDocuments + "'.");
+        }
+
+        if (maxEstimatedBytes < 1)
+        {
+            throw new IllegalArgumentException("The memory budget must be a positive number, not '" + maxEstimatedBytes + "'.");
+        }
+
+        this.pdf = pdf;
+        this.maxDocuments = maxDocuments;
+        this.maxEstimatedBytes = maxEstimatedBytes;
+        this.locks = new StripedLocks(4 * maxDocuments);
+    }
+
+    // Get a lease on the opened document of the PDF file, opening the file on a cache miss.
+    // The lease must be closed once the document is no longer used.
+    public DocumentLease acquire(String inputPath) throws IOException
+    {
+        File file = new File(inputPath).getCanonicalFile();
+        if (!file.isFile())
+        {
+            throw new FileNotFoundException("The PDF file '" + inputPath + "' does not exist.");
+        }
+
+        String path = file.getPath();
+        long modified = file.lastModified();
+        long size = file.length();
+
+        List<Entry> idle = new ArrayList<Entry>();
+        synchronized (this)
+        {
+            this.checkOpen();
+            Entry entry = this.entries.get(path);
+            if (entry != null && entry.modified == modified && entry.size == size)
+            {
+                this.hitCount++;
+                entry.references++;
+                return new DocumentLease(this, entry);
+            }
+
+            if (entry != null)
+            {
+                // The file has changed since it was opened.
+                this.entries.remove(path);
+                this.retire(entry, idle);
+            }
+
+            this.missCount++;
+        }
+
+        closeDocuments(idle);
+
+        // Parse the document outside the lock so that other files can be served meanwhile.
+        Document document = DocumentGuard.createDocument(this.pdf);
+        try
+        {
+            NativeMetrics.openDocument(document, path);
+        }
+        catch (RuntimeException ex)
+        {
+            closeDocument(document);
+            throw ex;
+        }
+
+        Entry entry = new Entry(modified, size, document, new DocumentGuard(document, this.locks.getLock(path)));
+        synchronized (this)
+        {
+            if (this.closed)
+            {
+                closeDocument(document);
+                throw new IllegalStateException("The document cache has been closed.");
+            }
+
+            Entry previous = this.entries.put(path, entry);
+            if (previous != null)
+            {
+                // Another thread opened the same file meanwhile; keep the newest copy.
+                this.retire(previous, idle);
+            }
+
+            this.estimatedBytes += size;
+            this.evictLeastRecentlyUsed(idle);
+        }
+
+        closeDocuments(idle);
+        return new DocumentLease(this, entry);
+    }
+
+    // Get the number of lookups served from the cache.
+    public synchronized long getHitCount()
+    {
+        return this.hitCount;
+    }
+
+    // Get the number of lookups that opened the document.
+    public synchronized long getMissCount()
+    {
+        return this.missCount;
+    }
+
+    // Get the number of documents evicted to keep the cache within its limits. Documents reopened after a
+    // file change or removed by close are not counted.
+    public synchronized long getEvictionCount()
+    {
+        return this.evictionCount;
+    }
+
+    // Get the number of documents in the cache.
+    public synchronized int size()
+    {
+        return this.entries.size();
+    }
+
+    // Get the estimated native memory of the documents in the cache.
+    public synchronized long getEstimatedBytes()
+    {
+        return this.estimatedBytes;
+    }
+
+    // Remove all documents from the cache. Documents still leased are closed with their last lease.
+    @Override
+    public void close()
+    {
+        List<Entry> idle = new ArrayList<Entry>();
+        synchronized (this)
+        {
+            if (this.closed)
+            {
+                return;
+            }
+
+            this.closed = true;
+            for (Entry entry : this.entries.values())
+            {
+                this.retire(entry, idle);
+            }
+
+            this.entries.clear();
+        }
+
+        closeDocuments(idle);
+    }
+
+    // Give back a lease obtained from acquire, closing the document if it has been evicted meanwhile.
+    void release(Entry entry)
+    {
+        synchronized (this)
+        {
+            entry.references--;
+            if (!entry.retired || entry.references > 0 || entry.released)
+            {
+                return;
+            }
+
+            entry.released = true;
+        }
+
+        closeDocument(entry.document);
+    }
+
+    // Remove least recently used entries until the cache is within its limits. Must hold the lock.
+    private void evictLeastRecentlyUsed(List<Entry> idle)
+    {
+        Iterator<Entry> iterator = this.entries.values().iterator();
+        while (this.entries.size() > 1 &&
+               (this.entries.size() > this.maxDocuments || this.estimatedBytes > this.maxEstimatedBytes))
+        {
+            // The most recently used document is always kept, even when it alone exceeds the budget.
+            Entry entry = iterator.next();
+            iterator.remove();
+            this.evictionCount++;
+            this.retire(entry, idle);
+        }
+    }
+
+    // Account for an entry removed from the map, collecting it for closing when it is not leased. Must hold the lock.
+    private void retire(Entry entry, List<Entry> idle)
+    {
+        this.estimatedBytes -= entry.size;
+        entry.retired = true;
+        if (entry.references == 0 && !entry.released)
+        {
+            entry.released = true;
+            idle.add(entry);
+        }
+    }
+
+    private void checkOpen()
+    {
+        if (this.closed)
+        {
+            throw new IllegalStateException("The document cache has been closed.");
+        }
+    }
+
+    // Close the documents of retired entries and clear the list.
+    private static void closeDocuments(List<Entry> idle)
+    {
+        for (Entry entry : idle)
+        {
+            closeDocument(entry.document);
+        }
+
+        idle.clear();
+    }
+
+    // Close and delete a native document.
+    private static void closeDocument(Document document)
+    {
+        try
+        {
+            document.close();
+        }
+        finally
+        {
+            document.delete();
+            NativeMetrics.released(document);
+        }
+    }
+
+    // A cached document, its guard and the number of open leases on it.
+    static class Entry
+    {
+        final long modified;
+        final long size;
+        final Document document;
+        final DocumentGuard guard;
+        int references;
+        boolean retired;
+        boolean released;
+
+        Entry(long modified, long size, Document document, DocumentGuard guard)
+        {
+            this.modified = modified;
+            this.size = size;
+            this.document = document;
+            this.guard = guard;
+            this.references = 1;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Describes and checks the threading model used by these samples for  *'
+//  native documents:                                                   *'
+//                                                                      *'
+//  - Calls on the PDF session itself, such as creating a document,     *'
+//    are serialized on one lock shared by the whole process (see       *'
+//    createDocument).                                                  *'
+//  - Different documents may be used from different threads at the     *'
+//    same time.                                                        *'
+//  - A document, and the pages taken from it, are used by one thread   *'
+//    at a time: the thread holding the lock of its guard.              *'
+//                                                                      *'
+//  The checks cover the guard only. Getting the document or a page     *'
+//  through a guard, an Access or a DocumentLease without holding the   *'
+//  lock throws IllegalStateException. The Document wrapper itself      *'
+//  cannot check its caller, so the main render paths are not checked:  *'
+//                                                                      *'
+//  - RenderCache and TileRenderer take a plain Document; the caller    *'
+//    must hold the lock of its guard for the whole call.               *'
+//  - BatchRenderer, ThumbnailRenderer and PageStream open one          *'
+//    document per worker thread and pass it unguarded to page          *'
+//    processors, which must not keep it past the call.                 *'
+//  - A document obtained through an Access and kept after the Access   *'
+//    is closed is not detected either.                                 *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class DocumentGuard
+{
+    // PDF.getInstance returns a new wrapper on every call, so session-wide calls cannot lock the wrapper.
+    private static final Object SESSION_LOCK = new Object();
+
+    private final Document document;
+    private final ReentrantLock lock;
+
+    // Guard a document with a lock of its own.
+    public DocumentGuard(Document document)
+    {
+        this(document, new ReentrantLock());
+    }
+
+    // Guard a document with the given lock, which may be shared with other documents (see StripedLocks).
+    public DocumentGuard(Document document, ReentrantLock lock)
+    {
+        if (document == null)
+        {
+            throw new IllegalArgumentException("The document must not be null.");
+        }
+
+        if (lock == null)
+        {
+            throw new IllegalArgumentException("The lock must not be null.");
+        }
+
+        this.document = document;
+        this.lock = lock;
+    }
+
+    // Create a document of the PDF session. Session-wide calls made through this method are serialized
+    // on a process-wide lock.
+    public static Document createDocument(PDF pdf)
+    {
+        synchronized (SESSION_LOCK)
+        {
+            return NativeMetrics.createDocument(pdf);
+        }
+    }
+
+    // Lock the document for the current thread, waiting while another thread holds it. The returned
+    // access must be closed by the same thread.
+    public Access lock()
+    {
+        this.lock.lock();
+        return new Access();
+    }
+
+    // Lock the document for the current thread, waiting at most the given time. Returns null on timeout.
+    public Access tryLock(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        if (!this.lock.tryLock(timeout, unit))
+        {
+            return null;
+        }
+
+        return new Access();
+    }
+
+    // Check whether the current thread holds the lock of the document.
+    public boolean isHeldByCurrentThread()
+    {
+        return this.lock.isHeldByCurrentThread();
+    }
+
+    // Get the document. The current thread must hold its lock.
+    public Document getDocument()
+    {
+        this.checkAccess();
+        return this.document;
+    }
+
+    // Fail unless the current thread holds the lock of the document.
+    public void checkAccess()
+    {
+        if (!this.lock.isHeldByCurrentThread())
+        {
+            throw new IllegalStateException("The document is used by thread '" + Thread.currentThread().getName() +
+                "' without holding its lock" + (this.lock.isLocked() ? ", while another thread holds it." : "."));
+        }
+    }
+
+    // Exclusive access to the document by the thread that locked it. Pages taken through the access are
+    // closed when the access is closed, so that they cannot be used once the lock is released.
+    public class Access implements AutoCloseable
+    {
+        private final Thread owner = Thread.currentThread();
+        private final NativeScope pages = new NativeScope();
+        private boolean closed;
+
+        // Get the document.
+        public Document getDocument()
+        {
+            this.checkOwner();
+            return document;
+        }
+
+        // Get a page of the document, valid until the access is closed.
+        public Page getPage(int pageNumber)
+        {
+            this.checkOwner();
+            return this.pages.add(NativeMetrics.getPage(document, pageNumber));
+        }
+
+        // Close the pages taken through the access and release the lock. Closing an access twice has no effect.
+        @Override
+        public void close()
+        {
+            if (Thread.currentThread() != this.owner)
+            {
+                throw new IllegalStateException("The document lock is held by thread '" + this.owner.getName() +
+                    "' and cannot be released by thread '" + Thread.currentThread().getName() + "'.");
+            }
+
+            if (this.closed)
+            {
+                return;
+            }
+
+            this.closed = true;
+            try
+            {
+                this.pages.close();
+            }
+            finally
+            {
+                lock.unlock();
+            }
+        }
+
+        private void checkOwner()
+        {
+            if (this.closed)
+            {
+                throw new IllegalStateException("The document access has been closed.");
+            }
+
+            if (Thread.currentThread() != this.owner)
+            {
+                throw new IllegalStateException("The document is locked by thread '" + this.owner.getName() +
+                    "' and cannot be used by thread '" + Thread.currentThread().getName() + "'.");
+            }
+        }
+    }
+}
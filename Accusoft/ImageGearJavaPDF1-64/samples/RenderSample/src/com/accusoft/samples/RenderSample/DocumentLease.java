@@ -0,0 +1,72 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  A lease on a document held by a DocumentCache. While the lease is   *'
+//  open the document is not closed, even if it is evicted. The lease   *'
+//  must not close the document itself.                                 *'
+//                                                                      *'
+//  Leases of the same file share one document: lock it for the         *'
+//  current thread before using it, and close the access when done.     *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+import com.accusoft.imagegearpdf.*;
+
+public class DocumentLease implements AutoCloseable
+{
+    private final DocumentCache cache;
+    private DocumentCache.Entry entry;
+
+    DocumentLease(DocumentCache cache, DocumentCache.Entry entry)
+    {
+        this.cache = cache;
+        this.entry = entry;
+    }
+
+    // Lock the leased document for the current thread, waiting while another thread uses it.
+    public DocumentGuard.Access lock()
+    {
+        return this.getGuard().lock();
+    }
+
+    // Get the guard of the leased document.
+    public synchronized DocumentGuard getGuard()
+    {
+        if (this.entry == null)
+        {
+            throw new IllegalStateException("The document lease has been closed.");
+        }
+
+        return this.entry.guard;
+    }
+
+    // Get the leased document. The current thread must hold its lock (see lock).
+    public Document getDocument()
+    {
+        return this.getGuard().getDocument();
+    }
+
+    // Give the document back to the cache. Closing a lease twice has no effect.
+    @Override
+    public void close()
+    {
+        DocumentCache.Entry released;
+        synchronized (this)
+        {
+            released = this.entry;
+            this.entry = null;
+        }
+
+        if (released != null)
+        {
+            this.cache.release(released);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  A lock-free latency histogram with power-of-two buckets. Recording  *'
+//  is a few atomic updates, so it can stay enabled in production;      *'
+//  percentiles are reported as the upper bound of their bucket, that   *'
+//  is to within a factor of two.                                       *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class LatencyHistogram
+{
+    // Bucket i counts the latencies whose highest set bit is bit i - 1, bucket 0 the zero latencies.
+    private final AtomicLongArray buckets = new AtomicLongArray(Long.SIZE + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    // Record a latency in nanoseconds. Negative latencies are counted as zero.
+    public void record(long nanos)
+    {
+        nanos = Math.max(nanos, 0);
+        this.buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(nanos));
+        this.count.incrementAndGet();
+        this.totalNanos.addAndGet(nanos);
+
+        long max;
+        while (nanos > (max = this.maxNanos.get()) && !this.maxNanos.compareAndSet(max, nanos))
+        {
+        }
+    }
+
+    // Get the number of recorded latencies.
+    public long getCount()
+    {
+        return this.count.get();
+    }
+
+    // Get the sum of the recorded latencies in nanoseconds.
+    public long getTotalNanos()
+    {
+        return this.totalNanos.get();
+    }
+
+    // Get the largest recorded latency in nanoseconds.
+    public long getMaxNanos()
+    {
+        return this.maxNanos.get();
+    }
+
+    // Get the mean recorded latency in nanoseconds, or 0 when nothing has been recorded.
+    public double getMeanNanos()
+    {
+        long n = this.count.get();
+        return n == 0 ? 0 : (double)this.totalNanos.get() / n;
+    }
+
+    // Get an upper bound of the given percentile (0 to 100) of the recorded latencies in nanoseconds,
+    // or 0 when nothing has been recorded. Concurrent recording may skew the result by a few samples.
+    public long getPercentileNanos(double percentile)
+    {
+        if (!(percentile >= 0 && percentile <= 100))
+        {
+            throw new IllegalArgumentException("The percentile must be between 0 and 100, not '" + percentile + "'.");
+        }
+
+        long total = 0;
+        for (int i = 0; i < this.buckets.length(); i++)
+        {
+            total += this.buckets.get(i);
+        }
+
+        long rank = (long)Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < this.buckets.length(); i++)
+        {
+            seen += this.buckets.get(i);
+            if (seen >= rank && seen > 0)
+            {
+                long upperBound = i == 0 ? 0 : i == Long.SIZE ? Long.MAX_VALUE : (1L << i) - 1;
+                return Math.min(upperBound, this.maxNanos.get());
+            }
+        }
+
+        return 0;
+    }
+
+    // Clear the recorded latencies.
+    public void reset()
+    {
+        for (int i = 0; i < this.buckets.length(); i++)
+        {
+            this.buckets.set(i, 0);
+        }
+
+        this.count.set(0);
+        this.totalNanos.set(0);
+        this.maxNanos.set(0);
+    }
+
+    // Summarize the histogram in milliseconds.
+    @Override
+    public String toString()
+    {
+        return String.format("count=%d mean=%.3f ms p50=%.3f ms p99=%.3f ms max=%.3f ms",
+            this.getCount(), toMillis(this.getMeanNanos()), toMillis(this.getPercentileNanos(50)),
+            toMillis(this.getPercentileNanos(99)), toMillis(this.getMaxNanos()));
+    }
+
+    private static double toMillis(double nanos)
+    {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
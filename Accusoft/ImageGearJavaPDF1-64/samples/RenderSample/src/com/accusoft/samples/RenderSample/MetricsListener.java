@@ -0,0 +1,24 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Receives the native call measurements of NativeMetrics, so that     *'
+//  they can be published to a monitoring system. Listeners are called  *'
+//  on the thread that made the native call and should return quickly.  *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+public interface MetricsListener
+{
+    // Called after each instrumented native call, whether it succeeded or not.
+    void callCompleted(NativeCall call);
+
+    // Called when the number of live native documents or pages changes. The type is Document or Page.
+    void liveObjectsChanged(Class<?> type, long liveCount);
+}
@@ -0,0 +1,101 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  The measurements of one completed native call, as handed to each    *'
+//  MetricsListener. Values that do not apply to the operation are -1.  *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+public class NativeCall
+{
+    private final NativeOperation operation;
+    private final long elapsedNanos;
+    private final int pageNumber;
+    private final double resolution;
+    private final long documentSize;
+    private final long bytesIn;
+    private final long bytesOut;
+    private final Throwable failure;
+
+    NativeCall(NativeOperation operation, long elapsedNanos, int pageNumber, double resolution, long documentSize,
+        long bytesIn, long bytesOut, Throwable failure)
+    {
+        this.operation = operation;
+        this.elapsedNanos = elapsedNanos;
+        this.pageNumber = pageNumber;
+        this.resolution = resolution;
+        this.documentSize = documentSize;
+        this.bytesIn = bytesIn;
+        this.bytesOut = bytesOut;
+        this.failure = failure;
+    }
+
+    // Get the native operation called.
+    public NativeOperation getOperation()
+    {
+        return this.operation;
+    }
+
+    // Get the time spent in the native call in nanoseconds.
+    public long getElapsedNanos()
+    {
+        return this.elapsedNanos;
+    }
+
+    // Get the zero-based page number the call worked on, or -1.
+    public int getPageNumber()
+    {
+        return this.pageNumber;
+    }
+
+    // Get the render resolution in dots per inch, or -1.
+    public double getResolution()
+    {
+        return this.resolution;
+    }
+
+    // Get the size of the PDF file of the document in bytes, or -1 when it is not known.
+    public long getDocumentSize()
+    {
+        return this.documentSize;
+    }
+
+    // Get the number of bytes handed to the native call, or -1.
+    public long getBytesIn()
+    {
+        return this.bytesIn;
+    }
+
+    // Get the number of bytes produced by the native call, or -1.
+    public long getBytesOut()
+    {
+        return this.bytesOut;
+    }
+
+    // Check whether the native call threw.
+    public boolean isFailed()
+    {
+        return this.failure != null;
+    }
+
+    // Get the exception thrown by the native call, or null.
+    public Throwable getFailure()
+    {
+        return this.failure;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s page=%d resolution=%.1f document_size=%d bytes_in=%d bytes_out=%d elapsed=%.3f ms%s",
+            this.operation, this.pageNumber, this.resolution, this.documentSize, this.bytesIn, this.bytesOut,
+            this.elapsedNanos / 1e6, this.failure != null ? " failed: " + this.failure : "");
+    }
+}
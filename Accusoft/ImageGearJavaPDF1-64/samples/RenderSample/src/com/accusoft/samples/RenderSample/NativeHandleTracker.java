@@ -0,0 +1,441 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Tracks the native objects behind the Document, Page and options     *'
+//  wrappers, to find native memory that is only given back by the      *'
+//  finalizers of the wrappers. Every tracked object is watched by a    *'
+//  phantom reference with an estimate of the native memory it holds;   *'
+//  one in every <sample rate> objects also keeps the stack trace of    *'
+//  its creation. An object that becomes unreachable before it was      *'
+//  released is reported as a leak. Totals, leaks and the creation      *'
+//  sites of live objects are exposed through JMX.                      *'
+//                                                                      *'
+//  Tracking is off unless enabled with setSampleRate, or with          *'
+//                                                                      *'
+//      -Digpdf.tracking.sampleRate=<n>                                 *'
+//                                                                      *'
+//  where 1 records the creation stack of every object and larger       *'
+//  values keep the overhead low enough for production use.             *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+public class NativeHandleTracker implements NativeHandleTrackerMBean
+{
+    public static final String SAMPLE_RATE_PROPERTY = "igpdf.tracking.sampleRate";
+    public static final String OBJECT_NAME = "com.accusoft.imagegearpdf:type=NativeHandleTracker";
+
+    // Rough estimates of the native memory behind a wrapper. A document is estimated by the size of
+    // its PDF file once it has been opened.
+    private static final long DOCUMENT_SIZE = 64 * 1024;
+    private static final long PAGE_SIZE = 16 * 1024;
+    private static final long OPTIONS_SIZE = 64;
+
+    private static final int MAX_LEAK_REPORTS = 100;
+    private static final int MAX_STACK_DEPTH = 12;
+
+    private static final NativeHandleTracker instance = new NativeHandleTracker(Integer.getInteger(SAMPLE_RATE_PROPERTY, 0));
+
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<Object>();
+    private final Set<Handle> handles = Collections.newSetFromMap(new ConcurrentHashMap<Handle, Boolean>());
+    private final Map<Object, Handle> handlesByObject = Collections.synchronizedMap(new WeakHashMap<Object, Handle>());
+    private final Map<Class<?>, Totals> liveTotals = new ConcurrentHashMap<Class<?>, Totals>();
+    private final AtomicLong trackedCount = new AtomicLong();
+    private final AtomicLong leakedCount = new AtomicLong();
+    private final AtomicLong leakedBytes = new AtomicLong();
+    private final ArrayDeque<String> leakReports = new ArrayDeque<String>();
+    private volatile int sampleRate;
+    private boolean registered;
+
+    private NativeHandleTracker(int sampleRate)
+    {
+        this.setSampleRate(sampleRate);
+    }
+
+    // Get the tracker of the process.
+    public static NativeHandleTracker getInstance()
+    {
+        return instance;
+    }
+
+    public boolean isEnabled()
+    {
+        return this.sampleRate > 0;
+    }
+
+    public int getSampleRate()
+    {
+        return this.sampleRate;
+    }
+
+    // Enabling tracking registers the MBean. Objects tracked so far stay tracked when it is disabled.
+    public void setSampleRate(int sampleRate)
+    {
+        if (sampleRate < 0)
+        {
+            throw new IllegalArgumentException("The sample rate must be a non-negative integer, not '" + sampleRate + "'.");
+        }
+
+        this.sampleRate = sampleRate;
+        if (sampleRate > 0)
+        {
+            this.registerMBean();
+        }
+    }
+
+    // Start tracking a native object with the default size estimate of its type. Objects already
+    // tracked are left as they are, and nothing is done while tracking is off.
+    public void track(Object resource)
+    {
+        this.track(resource, getDefaultSize(resource));
+    }
+
+    // Start tracking a native object holding about estimatedSize bytes of native memory.
+    public void track(Object resource, long estimatedSize)
+    {
+        int rate = this.sampleRate;
+        if (rate == 0 || resource == null)
+        {
+            return;
+        }
+
+        this.drainQueue();
+
+        Handle handle;
+        synchronized (this.handlesByObject)
+        {
+            if (this.handlesByObject.containsKey(resource))
+            {
+                return;
+            }
+
+            long sequence = this.trackedCount.getAndIncrement();
+            Throwable creation = sequence % rate == 0 ? new Throwable("Created") : null;
+            handle = new Handle(resource, this.queue, estimatedSize, creation);
+            this.handlesByObject.put(resource, handle);
+        }
+
+        this.handles.add(handle);
+        this.getTotals(handle.type).add(1, estimatedSize);
+    }
+
+    // Replace the size estimate of a tracked object, e.g. once a document has been opened.
+    public void setEstimatedSize(Object resource, long estimatedSize)
+    {
+        Handle handle = this.handlesByObject.get(resource);
+        if (handle != null)
+        {
+            synchronized (handle)
+            {
+                if (this.handles.contains(handle))
+                {
+                    this.getTotals(handle.type).add(0, estimatedSize - handle.size);
+                    handle.size = estimatedSize;
+                }
+            }
+        }
+    }
+
+    // Note that a native object has been closed or deleted explicitly.
+    public void released(Object resource)
+    {
+        if (resource == null || this.handles.isEmpty())
+        {
+            return;
+        }
+
+        Handle handle = this.handlesByObject.remove(resource);
+        if (handle != null)
+        {
+            handle.clear();
+            this.untrack(handle);
+        }
+    }
+
+    public long getLiveHandleCount()
+    {
+        this.drainQueue();
+        long count = 0;
+        for (Totals totals : this.liveTotals.values())
+        {
+            count += totals.count.get();
+        }
+
+        return count;
+    }
+
+    public long getLiveNativeBytes()
+    {
+        this.drainQueue();
+        long bytes = 0;
+        for (Totals totals : this.liveTotals.values())
+        {
+            bytes += totals.bytes.get();
+        }
+
+        return bytes;
+    }
+
+    public long getLiveDocumentCount()
+    {
+        this.drainQueue();
+        return this.getTotals(Document.class).count.get();
+    }
+
+    public long getLivePageCount()
+    {
+        this.drainQueue();
+        return this.getTotals(Page.class).count.get();
+    }
+
+    public String[] getLiveHandleSummary()
+    {
+        this.drainQueue();
+        List<String> summary = new ArrayList<String>();
+        for (Map.Entry<Class<?>, Totals> entry : this.liveTotals.entrySet())
+        {
+            Totals totals = entry.getValue();
+            if (totals.count.get() > 0)
+            {
+                summary.add(entry.getKey().getSimpleName() + ": " + totals.count.get() + " live, about " +
+                    totals.bytes.get() + " bytes");
+            }
+        }
+
+        Collections.sort(summary);
+        return summary.toArray(new String[summary.size()]);
+    }
+
+    public String[] getLiveAllocationSites()
+    {
+        this.drainQueue();
+        Map<String, Integer> sites = new HashMap<String, Integer>();
+        for (Handle handle : this.handles)
+        {
+            if (handle.creation != null)
+            {
+                String site = handle.type.getSimpleName() + " created at" + formatStack(handle.creation);
+                Integer count = sites.get(site);
+                sites.put(site, count == null ? 1 : count + 1);
+            }
+        }
+
+        List<Map.Entry<String, Integer>> entries = new ArrayList<Map.Entry<String, Integer>>(sites.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<String, Integer>>()
+        {
+            public int compare(Map.Entry<String, Integer> a, Map.Entry<String, Integer> b)
+            {
+                return b.getValue().compareTo(a.getValue());
+            }
+        });
+
+        String[] result = new String[entries.size()];
+        for (int i = 0; i < result.length; i++)
+        {
+            result[i] = entries.get(i).getValue() + " x " + entries.get(i).getKey();
+        }
+
+        return result;
+    }
+
+    public long getTrackedHandleCount()
+    {
+        return this.trackedCount.get();
+    }
+
+    public long getLeakedHandleCount()
+    {
+        this.drainQueue();
+        return this.leakedCount.get();
+    }
+
+    public long getLeakedNativeBytes()
+    {
+        this.drainQueue();
+        return this.leakedBytes.get();
+    }
+
+    public String[] getRecentLeaks()
+    {
+        this.drainQueue();
+        synchronized (this.leakReports)
+        {
+            return this.leakReports.toArray(new String[this.leakReports.size()]);
+        }
+    }
+
+    // Account for the tracked objects reclaimed by the garbage collector since the last call. Those
+    // were never released, so their native memory was at best given back by their finalizers.
+    private void drainQueue()
+    {
+        Reference<?> reference;
+        while ((reference = this.queue.poll()) != null)
+        {
+            Handle handle = (Handle)reference;
+            if (!this.untrack(handle))
+            {
+                continue;
+            }
+
+            this.leakedCount.incrementAndGet();
+            this.leakedBytes.addAndGet(handle.size);
+
+            String report = handle.type.getSimpleName() + " of about " + handle.size + " bytes was not released" +
+                (handle.creation != null ? "; created at" + formatStack(handle.creation) : ".");
+            synchronized (this.leakReports)
+            {
+                if (this.leakReports.size() == MAX_LEAK_REPORTS)
+                {
+                    this.leakReports.removeFirst();
+                }
+
+                this.leakReports.addLast(report);
+            }
+        }
+    }
+
+    // Remove a handle from the live totals. Returns false when it had already been removed.
+    private boolean untrack(Handle handle)
+    {
+        synchronized (handle)
+        {
+            if (!this.handles.remove(handle))
+            {
+                return false;
+            }
+
+            this.getTotals(handle.type).add(-1, -handle.size);
+            return true;
+        }
+    }
+
+    private Totals getTotals(Class<?> type)
+    {
+        Totals totals = this.liveTotals.get(type);
+        if (totals == null)
+        {
+            Totals created = new Totals();
+            totals = this.liveTotals.putIfAbsent(type, created);
+            if (totals == null)
+            {
+                totals = created;
+            }
+        }
+
+        return totals;
+    }
+
+    private synchronized void registerMBean()
+    {
+        if (this.registered)
+        {
+            return;
+        }
+
+        try
+        {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+            this.registered = true;
+        }
+        catch (JMException ex)
+        {
+            System.err.println("The native handle tracker could not be registered with JMX: " + ex.toString());
+        }
+    }
+
+    private static long getDefaultSize(Object resource)
+    {
+        if (resource instanceof Document)
+        {
+            return DOCUMENT_SIZE;
+        }
+
+        if (resource instanceof Page)
+        {
+            return PAGE_SIZE;
+        }
+
+        return OPTIONS_SIZE;
+    }
+
+    // Format the frames of a creation stack trace below the tracking calls.
+    private static String formatStack(Throwable creation)
+    {
+        StringBuilder stack = new StringBuilder();
+        int depth = 0;
+        for (StackTraceElement frame : creation.getStackTrace())
+        {
+            String className = frame.getClassName();
+            if (depth == 0 && (className.equals(NativeHandleTracker.class.getName()) ||
+                className.equals(NativeMetrics.class.getName()) || className.equals(NativeScope.class.getName())))
+            {
+                continue;
+            }
+
+            if (depth++ == MAX_STACK_DEPTH)
+            {
+                stack.append("\n\t...");
+                break;
+            }
+
+            stack.append("\n\tat ").append(frame);
+        }
+
+        return stack.toString();
+    }
+
+    // The phantom reference watching a tracked object.
+    private static class Handle extends PhantomReference<Object>
+    {
+        final Class<?> type;
+        final Throwable creation;
+        long size;
+
+        Handle(Object resource, ReferenceQueue<Object> queue, long size, Throwable creation)
+        {
+            super(resource, queue);
+            this.type = resource.getClass();
+            this.size = size;
+            this.creation = creation;
+        }
+    }
+
+    // The number and estimated native memory of the live objects of one type.
+    private static class Totals
+    {
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong bytes = new AtomicLong();
+
+        void add(long count, long bytes)
+        {
+            this.count.addAndGet(count);
+            this.bytes.addAndGet(bytes);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  The JMX view of the NativeHandleTracker, registered as              *'
+//  com.accusoft.imagegearpdf:type=NativeHandleTracker while tracking   *'
+//  is enabled. Byte figures are estimates of the native memory held.   *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+public interface NativeHandleTrackerMBean
+{
+    // Check whether new native objects are being tracked.
+    boolean isEnabled();
+
+    // Get the number of tracked objects per recorded creation stack trace, or 0 when tracking is off.
+    int getSampleRate();
+
+    // Set the sample rate; 0 stops tracking new objects.
+    void setSampleRate(int sampleRate);
+
+    // Get the number of live tracked objects.
+    long getLiveHandleCount();
+
+    // Get the estimated native memory held by the live tracked objects.
+    long getLiveNativeBytes();
+
+    // Get the number of live tracked documents.
+    long getLiveDocumentCount();
+
+    // Get the number of live tracked pages.
+    long getLivePageCount();
+
+    // Get the number of live objects and their estimated native memory, one line per wrapper type.
+    String[] getLiveHandleSummary();
+
+    // Get the creation sites of the live sampled objects, most frequent first.
+    String[] getLiveAllocationSites();
+
+    // Get the number of objects tracked since tracking was enabled.
+    long getTrackedHandleCount();
+
+    // Get the number of objects reclaimed by the garbage collector without being released.
+    long getLeakedHandleCount();
+
+    // Get the estimated native memory of the leaked objects.
+    long getLeakedNativeBytes();
+
+    // Get the most recent leak reports, with the creation stack trace of sampled objects.
+    String[] getRecentLeaks();
+}
@@ -0,0 +1,424 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Instrumented versions of the native calls made on the render paths  *'
+//  of RenderSample: initializing the session, opening documents,       *'
+//  taking pages and rendering them. Each call is timed into a per-     *'
+//  operation latency histogram, the bytes handed to and produced by    *'
+//  it are counted, and the documents and pages it creates are counted  *'
+//  until they are released or collected. The measurements are          *'
+//  published to the registered MetricsListener objects, for example    *'
+//  the JfrMetricsListener of RenderSampleJfr.                          *'
+//                                                                      *'
+//  The other samples call the library directly, so their native calls  *'
+//  are not measured here.                                              *'
+//                                                                      *'
+//  Pages remember their page number and the file size of their         *'
+//  document, so that slow renders can be traced back to a document.    *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.io.File;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class NativeMetrics
+{
+    private static final Map<NativeOperation, Counters> counters = new EnumMap<NativeOperation, Counters>(NativeOperation.class);
+    private static final AtomicLong liveDocuments = new AtomicLong();
+    private static final AtomicLong livePages = new AtomicLong();
+    private static final CopyOnWriteArrayList<MetricsListener> listeners = new CopyOnWriteArrayList<MetricsListener>();
+
+    // The documents and pages created through this class, weakly referenced so that tracking them
+    // does not keep them from being finalized.
+    private static final Map<Object, Origin> origins = Collections.synchronizedMap(new WeakHashMap<Object, Origin>());
+
+    // The references counting the tracked objects as live. A reference is removed once, either when its
+    // object is released or when the garbage collector has queued it.
+    private static final Set<LiveReference> liveReferences = Collections.newSetFromMap(new ConcurrentHashMap<LiveReference, Boolean>());
+    private static final ReferenceQueue<Object> collected = new ReferenceQueue<Object>();
+
+    static
+    {
+        for (NativeOperation operation : NativeOperation.values())
+        {
+            counters.put(operation, new Counters());
+        }
+    }
+
+    private NativeMetrics()
+    {
+    }
+
+    // Register a listener for the measurements of all following native calls.
+    public static void addListener(MetricsListener listener)
+    {
+        if (listener == null)
+        {
+            throw new IllegalArgumentException("The metrics listener must not be null.");
+        }
+
+        listeners.add(listener);
+    }
+
+    // Unregister a listener.
+    public static void removeListener(MetricsListener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    // Get the latency histogram of a native operation.
+    public static LatencyHistogram getLatency(NativeOperation operation)
+    {
+        return counters.get(operation).latency;
+    }
+
+    // Get the number of bytes handed to a native operation so far.
+    public static long getBytesIn(NativeOperation operation)
+    {
+        return counters.get(operation).bytesIn.get();
+    }
+
+    // Get the number of bytes produced by a native operation so far.
+    public static long getBytesOut(NativeOperation operation)
+    {
+        return counters.get(operation).bytesOut.get();
+    }
+
+    // Get the number of native calls of an operation that threw.
+    public static long getFailureCount(NativeOperation operation)
+    {
+        return counters.get(operation).failures.get();
+    }
+
+    // Get the number of documents created and neither released nor collected.
+    public static long getLiveDocumentCount()
+    {
+        drainCollected();
+        return liveDocuments.get();
+    }
+
+    // Get the number of pages taken and neither released nor collected.
+    public static long getLivePageCount()
+    {
+        drainCollected();
+        return livePages.get();
+    }
+
+    // Clear the latencies, byte counts and failure counts. Live object counts are kept.
+    public static void reset()
+    {
+        for (Counters operationCounters : counters.values())
+        {
+            operationCounters.reset();
+        }
+    }
+
+    // Summarize the measurements of the operations called so far, one line per operation.
+    public static String getSummary()
+    {
+        StringBuilder summary = new StringBuilder();
+        for (Map.Entry<NativeOperation, Counters> entry : counters.entrySet())
+        {
+            Counters operationCounters = entry.getValue();
+            if (operationCounters.latency.getCount() > 0)
+            {
+                summary.append(String.format("%-14s %s bytes_in=%d bytes_out=%d failures=%d%n", entry.getKey(),
+                    operationCounters.latency, operationCounters.bytesIn.get(), operationCounters.bytesOut.get(),
+                    operationCounters.failures.get()));
+            }
+        }
+
+        summary.append(String.format("Live documents: %d, live pages: %d%n", getLiveDocumentCount(), getLivePageCount()));
+        return summary.toString();
+    }
+
+    // Initialize the PDF session.
+    public static void initialize(PDF pdf)
+    {
+        long startTime = System.nanoTime();
+        Throwable failure = null;
+        try
+        {
+            pdf.initialize();
+        }
+        catch (Throwable ex)
+        {
+            failure = ex;
+            throw ex;
+        }
+        finally
+        {
+            record(NativeOperation.INITIALIZE, startTime, -1, -1, -1, -1, -1, failure);
+        }
+    }
+
+    // Create a new document, counted as live until it is released.
+    public static Document createDocument(PDF pdf)
+    {
+        Document document = pdf.createDocument();
+        track(document, -1, -1, liveDocuments, Document.class);
+        return document;
+    }
+
+    // Open a PDF file into a document created through createDocument.
+    public static void openDocument(Document document, String path)
+    {
+        long size = new File(path).length();
+        long startTime = System.nanoTime();
+        Throwable failure = null;
+        try
+        {
+            document.openDocument(path);
+        }
+        catch (Throwable ex)
+        {
+            failure = ex;
+            throw ex;
+        }
+        finally
+        {
+            record(NativeOperation.OPEN_DOCUMENT, startTime, -1, -1, size, size, -1, failure);
+        }
+
+        Origin origin = origins.get(document);
+        if (origin != null)
+        {
+            origins.put(document, new Origin(-1, size, origin.reference));
+            NativeHandleTracker.getInstance().setEstimatedSize(document, size);
+        }
+    }
+
+    // Get a page of the document, counted as live until it is released.
+    public static Page getPage(Document document, int pageNumber)
+    {
+        long documentSize = getDocumentSize(document);
+        long startTime = System.nanoTime();
+        Throwable failure = null;
+        Page page;
+        try
+        {
+            page = document.getPage(pageNumber);
+        }
+        catch (Throwable ex)
+        {
+            failure = ex;
+            throw ex;
+        }
+        finally
+        {
+            record(NativeOperation.GET_PAGE, startTime, pageNumber, -1, documentSize, -1, -1, failure);
+        }
+
+        track(page, pageNumber, documentSize, livePages, Page.class);
+        return page;
+    }
+
+    // Render the page. The resolution is recorded as unknown; reading it back from the options would cost a
+    // JNI call per render.
+    public static byte[] render(Page page, RenderOptions options)
+    {
+        return render(page, options, -1);
+    }
+
+    // Render the page with options known to render at the given resolution, which is recorded with the call.
+    public static byte[] render(Page page, RenderOptions options, double resolution)
+    {
+        Origin origin = getOrigin(page);
+        long startTime = System.nanoTime();
+        Throwable failure = null;
+        byte[] imageData = null;
+        try
+        {
+            imageData = page.render(options);
+            return imageData;
+        }
+        catch (Throwable ex)
+        {
+            failure = ex;
+            throw ex;
+        }
+        finally
+        {
+            record(NativeOperation.RENDER, startTime, origin.pageNumber, resolution, origin.documentSize, -1,
+                imageData != null ? imageData.length : -1, failure);
+        }
+    }
+
+    // Note that a document or page created through this class has been closed. Other
+    // objects are ignored, so this can be called for any object released.
+    public static void released(Object resource)
+    {
+        NativeHandleTracker.getInstance().released(resource);
+        drainCollected();
+        Origin origin = resource != null ? origins.remove(resource) : null;
+        if (origin != null)
+        {
+            origin.reference.clear();
+            untrack(origin.reference);
+        }
+    }
+
+    private static long getDocumentSize(Document document)
+    {
+        Origin origin = origins.get(document);
+        return origin != null ? origin.documentSize : -1;
+    }
+
+    private static Origin getOrigin(Page page)
+    {
+        Origin origin = origins.get(page);
+        return origin != null ? origin : Origin.UNKNOWN;
+    }
+
+    private static void track(Object resource, int pageNumber, long documentSize, AtomicLong liveCount, Class<?> type)
+    {
+        NativeHandleTracker.getInstance().track(resource);
+        drainCollected();
+        LiveReference reference = new LiveReference(resource, type, liveCount);
+        liveReferences.add(reference);
+        origins.put(resource, new Origin(pageNumber, documentSize, reference));
+        publishLiveObjects(type, liveCount.incrementAndGet());
+    }
+
+    // Stop counting the tracked objects reclaimed by the garbage collector without being released.
+    private static void drainCollected()
+    {
+        Reference<?> reference;
+        while ((reference = collected.poll()) != null)
+        {
+            untrack((LiveReference)reference);
+        }
+    }
+
+    // Stop counting an object as live, unless that has been done already.
+    private static void untrack(LiveReference reference)
+    {
+        if (liveReferences.remove(reference))
+        {
+            publishLiveObjects(reference.type, reference.liveCount.decrementAndGet());
+        }
+    }
+
+    // Update the counters of the operation and publish the call to the listeners.
+    private static void record(NativeOperation operation, long startTime, int pageNumber, double resolution,
+        long documentSize, long bytesIn, long bytesOut, Throwable failure)
+    {
+        long elapsedNanos = System.nanoTime() - startTime;
+        Counters operationCounters = counters.get(operation);
+        operationCounters.latency.record(elapsedNanos);
+        if (bytesIn > 0)
+        {
+            operationCounters.bytesIn.addAndGet(bytesIn);
+        }
+
+        if (bytesOut > 0)
+        {
+            operationCounters.bytesOut.addAndGet(bytesOut);
+        }
+
+        if (failure != null)
+        {
+            operationCounters.failures.incrementAndGet();
+        }
+
+        if (listeners.isEmpty())
+        {
+            return;
+        }
+
+        NativeCall call = new NativeCall(operation, elapsedNanos, pageNumber, resolution, documentSize, bytesIn, bytesOut, failure);
+        for (MetricsListener listener : listeners)
+        {
+            try
+            {
+                listener.callCompleted(call);
+            }
+            catch (RuntimeException ex)
+            {
+                // A failing listener must not fail the native call it measured.
+            }
+        }
+    }
+
+    private static void publishLiveObjects(Class<?> type, long liveCount)
+    {
+        for (MetricsListener listener : listeners)
+        {
+            try
+            {
+                listener.liveObjectsChanged(type, liveCount);
+            }
+            catch (RuntimeException ex)
+            {
+                // A failing listener must not fail the native call that changed the count.
+            }
+        }
+    }
+
+    // The counters of one native operation.
+    private static class Counters
+    {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong bytesIn = new AtomicLong();
+        final AtomicLong bytesOut = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+
+        void reset()
+        {
+            this.latency.reset();
+            this.bytesIn.set(0);
+            this.bytesOut.set(0);
+            this.failures.set(0);
+        }
+    }
+
+    // The page number and document file size of a tracked page, or the file size of a tracked document.
+    private static class Origin
+    {
+        static final Origin UNKNOWN = new Origin(-1, -1, null);
+
+        final int pageNumber;
+        final long documentSize;
+        final LiveReference reference;
+
+        Origin(int pageNumber, long documentSize, LiveReference reference)
+        {
+            this.pageNumber = pageNumber;
+            this.documentSize = documentSize;
+            this.reference = reference;
+        }
+    }
+
+    // The weak reference counting a tracked document or page as live.
+    private static class LiveReference extends WeakReference<Object>
+    {
+        final Class<?> type;
+        final AtomicLong liveCount;
+
+        LiveReference(Object resource, Class<?> type, AtomicLong liveCount)
+        {
+            super(resource, collected);
+            this.type = type;
+            this.liveCount = liveCount;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Releases the native objects behind ImageGear PDF wrappers           *'
+//  deterministically, for use with try-with-resources:                 *'
+//                                                                      *'
+//      try (NativeScope scope = new NativeScope())                     *'
+//      {                                                               *'
+//          Page page = scope.add(document.getPage(0));                 *'
+//          RenderOptions options = scope.add(new RenderOptions());     *'
+//          ...                                                         *'
+//      }                                                               *'
+//                                                                      *'
+//  Objects are closed and deleted in reverse order of registration.    *'
+//  Closing a scope twice is a no-op, and once an object is deleted     *'
+//  its finalizer has nothing left to release.                          *'
+//                                                                      *'
+//  The wrappers themselves cannot be changed, so calling a method on   *'
+//  one after its scope has closed still passes a null pointer to the   *'
+//  native library and may crash the process. Code that can outlive     *'
+//  the scope should reach the object through get, which throws         *'
+//  IllegalStateException once the scope is closed.                     *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.util.ArrayDeque;
+
+public class NativeScope implements AutoCloseable
+{
+    private final ArrayDeque<Object> resources = new ArrayDeque<Object>();
+    private boolean closed;
+
+    // Register the PDF session; it is terminated and deleted with the scope.
+    public PDF add(PDF pdf)
+    {
+        this.register(pdf);
+        return pdf;
+    }
+
+    // Register a document; it is closed and deleted with the scope.
+    public Document add(Document document)
+    {
+        this.register(document);
+        return document;
+    }
+
+    // Register a page; it is closed and deleted with the scope.
+    public Page add(Page page)
+    {
+        this.register(page);
+        return page;
+    }
+
+    // Register render options; they are deleted with the scope.
+    public RenderOptions add(RenderOptions options)
+    {
+        this.register(options);
+        return options;
+    }
+
+    // Register save options; they are deleted with the scope.
+    public SaveOptions add(SaveOptions options)
+    {
+        this.register(options);
+        return options;
+    }
+
+    // Register add image options; they are deleted with the scope.
+    public AddImageOptions add(AddImageOptions options)
+    {
+        this.register(options);
+        return options;
+    }
+
+    // Register a utility object; it is deleted with the scope.
+    public ProUtility add(ProUtility utility)
+    {
+        this.register(utility);
+        return utility;
+    }
+
+    // Get an object registered with this scope, checking that it has not been released yet. Throws
+    // IllegalStateException once the scope is closed instead of letting the call reach native code.
+    public synchronized <T> T get(T resource)
+    {
+        if (this.closed)
+        {
+            throw new IllegalStateException("The native scope has been closed.");
+        }
+
+        // The wrappers do not override equals, so this compares identities.
+        if (resource == null || !this.resources.contains(resource))
+        {
+            throw new IllegalArgumentException("The native object is not registered with this scope.");
+        }
+
+        return resource;
+    }
+
+    // Check whether the scope has been closed.
+    public synchronized boolean isClosed()
+    {
+        return this.closed;
+    }
+
+    // Release all registered objects, most recently registered first. The first failure is rethrown
+    // after every object has been released.
+    @Override
+    public void close()
+    {
+        RuntimeException failure = null;
+        Object resource;
+        while ((resource = this.poll()) != null)
+        {
+            try
+            {
+                release(resource);
+            }
+            catch (RuntimeException ex)
+            {
+                if (failure == null)
+                {
+                    failure = ex;
+                }
+                else
+                {
+                    failure.addSuppressed(ex);
+                }
+            }
+        }
+
+        if (failure != null)
+        {
+            throw failure;
+        }
+    }
+
+    // Add an object to the scope, releasing it at once if the scope is already closed.
+    private void register(Object resource)
+    {
+        if (resource == null)
+        {
+            throw new IllegalArgumentException("The native object must not be null.");
+        }
+
+        synchronized (this)
+        {
+            if (!this.closed)
+            {
+                this.resources.push(resource);
+                NativeHandleTracker.getInstance().track(resource);
+                return;
+            }
+        }
+
+        release(resource);
+        throw new IllegalStateException("The native scope has been closed.");
+    }
+
+    // Take the most recently registered object, marking the scope closed.
+    private synchronized Object poll()
+    {
+        this.closed = true;
+        return this.resources.poll();
+    }
+
+    // Close and delete the native object behind a wrapper.
+    private static void release(Object resource)
+    {
+        if (resource instanceof Page)
+        {
+            Page page = (Page)resource;
+            try
+            {
+                page.close();
+            }
+            finally
+            {
+                page.delete();
+                NativeMetrics.released(page);
+            }
+        }
+        else if (resource instanceof Document)
+        {
+            Document document = (Document)resource;
+            try
+            {
+                document.close();
+            }
+            finally
+            {
+                document.delete();
+                NativeMetrics.released(document);
+            }
+        }
+        else if (resource instanceof PDF)
+        {
+            PDF pdf = (PDF)resource;
+            try
+            {
+                pdf.terminate();
+            }
+            finally
+            {
+                pdf.delete();
+                NativeHandleTracker.getInstance().released(resource);
+            }
+        }
+        else if (resource instanceof RenderOptions)
+        {
+            ((RenderOptions)resource).delete();
+            NativeHandleTracker.getInstance().released(resource);
+        }
+        else if (resource instanceof SaveOptions)
+        {
+            ((SaveOptions)resource).delete();
+            NativeHandleTracker.getInstance().released(resource);
+        }
+        else if (resource instanceof AddImageOptions)
+        {
+            ((AddImageOptions)resource).delete();
+            NativeHandleTracker.getInstance().released(resource);
+        }
+        else if (resource instanceof ProUtility)
+        {
+            ((ProUtility)resource).delete();
+            NativeHandleTracker.getInstance().released(resource);
+        }
+    }
+}
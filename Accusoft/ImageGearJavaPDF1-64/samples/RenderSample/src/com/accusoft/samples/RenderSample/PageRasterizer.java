@@ -0,0 +1,202 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Renders a PDF page to a BufferedImage on the fast path: the image   *'
+//  returned by Page.render is decoded straight from memory by a        *'
+//  cached image reader, optionally into a caller-supplied image whose  *'
+//  pixel buffer is reused from page to page.                           *'
+//                                                                      *'
+//  An instance is not thread-safe; use one rasterizer per thread.      *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Iterator;
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+
+public class PageRasterizer implements AutoCloseable
+{
+    private ImageReader reader;
+
+    // Render the page to a new BufferedImage.
+    public BufferedImage rasterize(Page page, RenderOptions options) throws IOException
+    {
+        return this.decode(NativeMetrics.render(page, options), null);
+    }
+
+    // Render the page into the destination image when it has the size and color model of the
+    // rendered page, otherwise into a new BufferedImage. The image written to is returned.
+    public BufferedImage rasterize(Page page, RenderOptions options, BufferedImage destination) throws IOException
+    {
+        return this.decode(NativeMetrics.render(page, options), destination);
+    }
+
+    // Decode an image returned by Page.render, reusing the destination image when it is compatible.
+    public BufferedImage decode(byte[] imageData, BufferedImage destination) throws IOException
+    {
+        ImageInputStream input = new ByteArrayImageInputStream(imageData);
+        try
+        {
+            ImageReader imageReader = this.getReader(input);
+            imageReader.setInput(input, true, true);
+            try
+            {
+                int width = imageReader.getWidth(0);
+                int height = imageReader.getHeight(0);
+
+                ImageReadParam param = imageReader.getDefaultReadParam();
+                if (isCompatible(destination, imageReader.getRawImageType(0), width, height))
+                {
+                    param.setDestination(destination);
+                }
+
+                return imageReader.read(0, param);
+            }
+            finally
+            {
+                imageReader.setInput(null);
+            }
+        }
+        finally
+        {
+            input.close();
+        }
+    }
+
+    // Decode the part of an image returned by Page.render that is covered by the region, when the page
+    // was rendered at the given resolution. Only the pixels of the region are kept in memory, and the
+    // parts of the region outside the page are left white. Returns null when the region misses the page.
+    public BufferedImage decode(byte[] imageData, RenderRegion region, double resolution) throws IOException
+    {
+        ImageInputStream input = new ByteArrayImageInputStream(imageData);
+        try
+        {
+            ImageReader imageReader = this.getReader(input);
+            imageReader.setInput(input, true, true);
+            try
+            {
+                int width = imageReader.getWidth(0);
+                int height = imageReader.getHeight(0);
+                Rectangle regionPixels = region.toPixels(resolution, height);
+                Rectangle sourceRegion = regionPixels.intersection(new Rectangle(0, 0, width, height));
+                if (sourceRegion.isEmpty())
+                {
+                    return null;
+                }
+
+                ImageReadParam param = imageReader.getDefaultReadParam();
+                param.setSourceRegion(sourceRegion);
+                if (!sourceRegion.equals(regionPixels))
+                {
+                    BufferedImage destination = createImage(imageReader, regionPixels.width, regionPixels.height);
+                    Graphics2D graphics = destination.createGraphics();
+                    try
+                    {
+                        graphics.setColor(Color.WHITE);
+                        graphics.fillRect(0, 0, regionPixels.width, regionPixels.height);
+                    }
+                    finally
+                    {
+                        graphics.dispose();
+                    }
+
+                    param.setDestination(destination);
+                    param.setDestinationOffset(new Point(sourceRegion.x - regionPixels.x, sourceRegion.y - regionPixels.y));
+                }
+
+                return imageReader.read(0, param);
+            }
+            finally
+            {
+                imageReader.setInput(null);
+            }
+        }
+        finally
+        {
+            input.close();
+        }
+    }
+
+    // Release the cached image reader.
+    @Override
+    public void close()
+    {
+        if (this.reader != null)
+        {
+            this.reader.dispose();
+            this.reader = null;
+        }
+    }
+
+    // Get a reader for the image format, reusing the cached one while the format does not change.
+    private ImageReader getReader(ImageInputStream input) throws IOException
+    {
+        if (this.reader != null && this.reader.getOriginatingProvider().canDecodeInput(input))
+        {
+            return this.reader;
+        }
+
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext())
+        {
+            throw new IIOException("The rendered page image format is not supported by ImageIO.");
+        }
+
+        this.close();
+        this.reader = readers.next();
+        return this.reader;
+    }
+
+    // Create an image the reader can decode into. Readers that cannot describe the raw image type, such as
+    // some JPEG readers for YCbCr or CMYK data, offer their default type instead.
+    private static BufferedImage createImage(ImageReader imageReader, int width, int height) throws IOException
+    {
+        ImageTypeSpecifier imageType = imageReader.getRawImageType(0);
+        if (imageType == null)
+        {
+            Iterator<ImageTypeSpecifier> imageTypes = imageReader.getImageTypes(0);
+            if (imageTypes.hasNext())
+            {
+                imageType = imageTypes.next();
+            }
+        }
+
+        if (imageType == null)
+        {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+
+        return imageType.createBufferedImage(width, height);
+    }
+
+    // Check whether the rendered image can be decoded into the destination image as is.
+    private static boolean isCompatible(BufferedImage destination, ImageTypeSpecifier imageType, int width, int height)
+    {
+        return destination != null &&
+            imageType != null &&
+            destination.getWidth() == width &&
+            destination.getHeight() == height &&
+            destination.getColorModel().equals(imageType.getColorModel()) &&
+            destination.getSampleModel().getNumBands() == imageType.getSampleModel().getNumBands() &&
+            destination.getSampleModel().getDataType() == imageType.getSampleModel().getDataType();
+    }
+}
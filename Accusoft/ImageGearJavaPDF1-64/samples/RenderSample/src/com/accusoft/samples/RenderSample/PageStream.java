@@ -0,0 +1,292 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Streams the rendered pages of a page range in page order while      *'
+//  the worker threads of a BatchRenderer keep rendering ahead. At      *'
+//  most maxBuffered pages beyond the last page taken are rendered or   *'
+//  held in memory; workers wait for the consumer beyond that point.    *'
+//  Closing the stream cancels the pages not rendered yet.              *'
+//                                                                      *'
+//      try (PageStream pages = renderer.stream(path, 0, last, ...))    *'
+//      {                                                               *'
+//          while (pages.hasNext())                                     *'
+//          {                                                           *'
+//              upload(pages.next());                                   *'
+//          }                                                           *'
+//      }                                                               *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+
+public class PageStream implements Iterator<RenderedPage>, AutoCloseable
+{
+    private final int lastPage;
+    private final int maxBuffered;
+    private final Map<Integer, byte[]> rendered = new HashMap<Integer, byte[]>();
+    private final Thread producer;
+
+    private int nextPage;
+    private boolean finished;
+    private boolean cancelled;
+    private Throwable failure;
+
+    PageStream(final BatchRenderer renderer, final String inputPath, int firstPage, int lastPage,
+               final double resolution, final int smoothingFlags, int maxBuffered)
+    {
+        if (maxBuffered < 1)
+        {
+            throw new IllegalArgumentException("The number of buffered pages must be a positive integer, not '" + maxBuffered + "'.");
+        }
+
+        this.lastPage = lastPage;
+        this.maxBuffered = maxBuffered;
+        this.nextPage = firstPage;
+
+        final int first = firstPage;
+        final int last = lastPage;
+        this.producer = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                produce(renderer, inputPath, first, last, resolution, smoothingFlags);
+            }
+        }, "PageStream " + inputPath);
+        this.producer.setDaemon(true);
+        this.producer.start();
+    }
+
+    // Check whether there are pages left to take.
+    @Override
+    public synchronized boolean hasNext()
+    {
+        return !this.cancelled && this.nextPage <= this.lastPage;
+    }
+
+    // Take the next page in page order, waiting for it to be rendered.
+    @Override
+    public RenderedPage next()
+    {
+        synchronized (this)
+        {
+            if (!this.hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+
+            try
+            {
+                while (!this.rendered.containsKey(this.nextPage))
+                {
+                    if (this.failure != null)
+                    {
+                        throw asUnchecked(this.failure);
+                    }
+
+                    if (this.finished || this.cancelled)
+                    {
+                        throw new CancellationException("The page stream stopped before page " + this.nextPage + " was rendered.");
+                    }
+
+                    this.wait();
+                }
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException("Interrupted while waiting for page " + this.nextPage + "."));
+            }
+
+            int pageNumber = this.nextPage++;
+            RenderedPage page = new RenderedPage(pageNumber, this.rendered.remove(pageNumber));
+            this.notifyAll();
+            return page;
+        }
+    }
+
+    @Override
+    public void remove()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    // Cancel the pages not rendered yet, drop the buffered ones and wait for the worker threads to
+    // release their documents. Closing twice has no effect.
+    @Override
+    public void close()
+    {
+        synchronized (this)
+        {
+            if (this.cancelled)
+            {
+                return;
+            }
+
+            this.cancelled = true;
+            this.rendered.clear();
+            this.notifyAll();
+        }
+
+        this.producer.interrupt();
+
+        boolean interrupted = false;
+        while (this.producer.isAlive())
+        {
+            try
+            {
+                this.producer.join();
+            }
+            catch (InterruptedException ex)
+            {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Render the page range on the worker threads, feeding the buffer.
+    private void produce(BatchRenderer renderer, String inputPath, int firstPage, int lastPage, double resolution, int smoothingFlags)
+    {
+        try
+        {
+            renderer.forEachPage(inputPath, firstPage, lastPage, new RenderingWorkerFactory(resolution, smoothingFlags));
+        }
+        catch (InterruptedException ex)
+        {
+            // Cancelled by close.
+        }
+        catch (Throwable ex)
+        {
+            this.fail(ex);
+        }
+        finally
+        {
+            synchronized (this)
+            {
+                this.finished = true;
+                this.notifyAll();
+            }
+        }
+    }
+
+    // Wait until the page is within maxBuffered pages of the consumer. Returns false when cancelled.
+    private synchronized boolean awaitWindow(int pageNumber) throws IOException
+    {
+        try
+        {
+            while (!this.cancelled && this.failure == null && pageNumber >= this.nextPage + this.maxBuffered)
+            {
+                this.wait();
+            }
+        }
+        catch (InterruptedException ex)
+        {
+            throw new InterruptedIOException("Interrupted while waiting for the consumer.");
+        }
+
+        return !this.cancelled && this.failure == null;
+    }
+
+    // Record the first failure of a worker at once, so that neither the consumer nor the other
+    // workers wait for pages that will not be rendered.
+    private synchronized void fail(Throwable ex)
+    {
+        if (!this.cancelled && this.failure == null)
+        {
+            this.failure = ex;
+            this.notifyAll();
+        }
+    }
+
+    // Hand a rendered page over to the consumer.
+    private synchronized void publish(int pageNumber, byte[] imageData)
+    {
+        if (!this.cancelled)
+        {
+            this.rendered.put(pageNumber, imageData);
+            this.notifyAll();
+        }
+    }
+
+    private static RuntimeException asUnchecked(Throwable failure)
+    {
+        if (failure instanceof RuntimeException)
+        {
+            return (RuntimeException)failure;
+        }
+
+        if (failure instanceof IOException)
+        {
+            return new UncheckedIOException((IOException)failure);
+        }
+
+        return new RuntimeException(failure);
+    }
+
+    // Creates the workers rendering pages into the buffer.
+    private class RenderingWorkerFactory implements BatchRenderer.PageWorkerFactory
+    {
+        private final double resolution;
+        private final int smoothingFlags;
+
+        RenderingWorkerFactory(double resolution, int smoothingFlags)
+        {
+            this.resolution = resolution;
+            this.smoothingFlags = smoothingFlags;
+        }
+
+        public BatchRenderer.PageWorker createWorker()
+        {
+            final NativeScope scope = new NativeScope();
+            final RenderSettings settings = new RenderSettings(this.resolution, this.smoothingFlags);
+            final RenderOptions options = scope.add(settings.createOptions());
+
+            return new BatchRenderer.PageWorker()
+            {
+                public void processPage(Document document, int pageNumber) throws IOException
+                {
+                    if (!awaitWindow(pageNumber))
+                    {
+                        return;
+                    }
+
+                    try (NativeScope pageScope = new NativeScope())
+                    {
+                        Page page = pageScope.add(NativeMetrics.getPage(document, pageNumber));
+                        publish(pageNumber, NativeMetrics.render(page, scope.get(options), settings.getRenderResolution()));
+                    }
+                    catch (RuntimeException ex)
+                    {
+                        fail(ex);
+                        throw ex;
+                    }
+                }
+
+                public void close()
+                {
+                    scope.close();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,414 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Caches rendered page images in front of Page.render. Images are     *'
+//  kept on the heap up to a byte budget; the least recently used       *'
+//  ones are then either dropped or, when a spill directory is given,   *'
+//  moved to files up to a second byte budget. Spilling is best effort: *'
+//  an image that cannot be written to disk is simply dropped.          *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RenderCache implements AutoCloseable
+{
+    private final long maxMemoryBytes;
+    private final long maxDiskBytes;
+    private final Path spillDirectory;
+    private final LinkedHashMap<RenderKey, byte[]> memoryEntries = new LinkedHashMap<RenderKey, byte[]>(64, 0.75f, true);
+    private final LinkedHashMap<RenderKey, SpilledImage> diskEntries = new LinkedHashMap<RenderKey, SpilledImage>(64, 0.75f, true);
+
+    private long memoryBytes;
+    private long diskBytes;
+    private long memoryHitCount;
+    private long diskHitCount;
+    private long missCount;
+    private long evictionCount;
+    private boolean closed;
+
+    // Create a cache keeping at most maxMemoryBytes of images on the heap and nothing on disk.
+    public RenderCache(long maxMemoryBytes)
+    {
+        this(maxMemoryBytes, null, 0);
+    }
+
+    // Create a cache keeping at most maxMemoryBytes of images on the heap and spilling up to
+    // maxDiskBytes of evicted images to files in the spill directory.
+    public RenderCache(long maxMemoryBytes, Path spillDirectory, long maxDiskBytes)
+    {
+        if (maxMemoryBytes < 0 || maxDiskBytes < 0)
+        {
+            throw new IllegalArgumentException("The cache budgets must be non-negative numbers.");
+        }
+
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.spillDirectory = spillDirectory;
+        this.maxDiskBytes = spillDirectory != null ? maxDiskBytes : 0;
+    }
+
+    // Get the rendered image of a page, rendering it with the options on a cache miss.
+    // The returned array is shared with the cache and must not be modified.
+    public byte[] render(String documentId, Document document, int pageNumber, RenderOptions options)
+    {
+        RenderKey key = new RenderKey(documentId, pageNumber, options);
+        byte[] imageData = this.get(key);
+        if (imageData != null)
+        {
+            return imageData;
+        }
+
+        return this.renderPage(key, document, options);
+    }
+
+    // Get the rendered image of a page, rendering it with the cached native options of the settings on a
+    // cache miss. A cache hit makes no native call at all.
+    // The returned array is shared with the cache and must not be modified.
+    public byte[] render(String documentId, Document document, int pageNumber, RenderSettings settings, RenderOptionsCache optionsCache)
+    {
+        RenderKey key = new RenderKey(documentId, pageNumber, settings);
+        byte[] imageData = this.get(key);
+        if (imageData != null)
+        {
+            return imageData;
+        }
+
+        return this.renderPage(key, document, optionsCache.get(settings));
+    }
+
+    // Render the page of the key with the options and cache the rendered image.
+    private byte[] renderPage(RenderKey key, Document document, RenderOptions options)
+    {
+        byte[] imageData;
+        try (NativeScope scope = new NativeScope())
+        {
+            Page page = scope.add(NativeMetrics.getPage(document, key.getPageNumber()));
+            imageData = NativeMetrics.render(page, options, key.getResolution());
+        }
+
+        this.put(key, imageData);
+        return imageData;
+    }
+
+    // Get a cached image, or null when the key is not cached. Images found on disk move back to the heap;
+    // a spill file that can no longer be read counts as a miss.
+    public byte[] get(RenderKey key)
+    {
+        SpilledImage spilled;
+        synchronized (this)
+        {
+            byte[] imageData = this.memoryEntries.get(key);
+            if (imageData != null)
+            {
+                this.memoryHitCount++;
+                return imageData;
+            }
+
+            spilled = this.diskEntries.remove(key);
+            if (spilled == null)
+            {
+                this.missCount++;
+                return null;
+            }
+
+            this.diskBytes -= spilled.size;
+        }
+
+        // The entry is no longer in the map, so the file is deleted even when it cannot be read.
+        byte[] imageData;
+        try
+        {
+            imageData = spilled.read();
+        }
+        catch (IOException ex)
+        {
+            imageData = null;
+        }
+        finally
+        {
+            spilled.deleteQuietly();
+        }
+
+        synchronized (this)
+        {
+            if (imageData == null)
+            {
+                this.missCount++;
+                return null;
+            }
+
+            this.diskHitCount++;
+        }
+
+        this.put(key, imageData);
+        return imageData;
+    }
+
+    // Add an image to the cache, evicting least recently used images to stay within the budgets.
+    public void put(RenderKey key, byte[] imageData)
+    {
+        if (imageData.length > this.maxMemoryBytes)
+        {
+            return;
+        }
+
+        List<Map.Entry<RenderKey, byte[]>> evicted = new ArrayList<Map.Entry<RenderKey, byte[]>>();
+        synchronized (this)
+        {
+            byte[] previous = this.memoryEntries.put(key, imageData);
+            if (previous != null)
+            {
+                this.memoryBytes -= previous.length;
+            }
+
+            this.memoryBytes += imageData.length;
+            Iterator<Map.Entry<RenderKey, byte[]>> iterator = this.memoryEntries.entrySet().iterator();
+            while (this.memoryBytes > this.maxMemoryBytes && iterator.hasNext())
+            {
+                Map.Entry<RenderKey, byte[]> entry = iterator.next();
+                iterator.remove();
+                this.memoryBytes -= entry.getValue().length;
+                this.evictionCount++;
+                evicted.add(entry);
+            }
+        }
+
+        // Write evicted images to the spill directory outside the lock. An image that cannot be spilled is
+        // dropped without affecting the others.
+        for (Map.Entry<RenderKey, byte[]> entry : evicted)
+        {
+            this.spill(entry.getKey(), entry.getValue());
+        }
+    }
+
+    // Get the number of lookups served from the heap.
+    public synchronized long getMemoryHitCount()
+    {
+        return this.memoryHitCount;
+    }
+
+    // Get the number of lookups served from the spill directory.
+    public synchronized long getDiskHitCount()
+    {
+        return this.diskHitCount;
+    }
+
+    // Get the number of lookups that were not cached.
+    public synchronized long getMissCount()
+    {
+        return this.missCount;
+    }
+
+    // Get the number of images evicted from the heap.
+    public synchronized long getEvictionCount()
+    {
+        return this.evictionCount;
+    }
+
+    // Get the number of image bytes held on the heap.
+    public synchronized long getMemoryBytes()
+    {
+        return this.memoryBytes;
+    }
+
+    // Get the number of image bytes held in the spill directory.
+    public synchronized long getDiskBytes()
+    {
+        return this.diskBytes;
+    }
+
+    // Remove all images from the cache and delete the spill files. Images evicted afterwards are not spilled.
+    @Override
+    public void close() throws IOException
+    {
+        List<SpilledImage> spilled;
+        synchronized (this)
+        {
+            this.closed = true;
+            spilled = new ArrayList<SpilledImage>(this.diskEntries.values());
+            this.diskEntries.clear();
+            this.memoryEntries.clear();
+            this.diskBytes = 0;
+            this.memoryBytes = 0;
+        }
+
+        for (SpilledImage image : spilled)
+        {
+            image.delete();
+        }
+    }
+
+    // Move an image evicted from the heap to the spill directory, if there is room for it and the
+    // cache has not been closed. The image is dropped when its spill file cannot be written.
+    private void spill(RenderKey key, byte[] imageData)
+    {
+        if (imageData.length > this.maxDiskBytes)
+        {
+            return;
+        }
+
+        synchronized (this)
+        {
+            if (this.closed)
+            {
+                return;
+            }
+        }
+
+        SpilledImage image;
+        try
+        {
+            image = SpilledImage.write(this.spillDirectory, imageData);
+        }
+        catch (IOException ex)
+        {
+            // The disk is full or the spill directory is gone.
+            return;
+        }
+
+        List<SpilledImage> evicted = new ArrayList<SpilledImage>();
+        synchronized (this)
+        {
+            if (this.closed)
+            {
+                // The cache was closed while the file was written.
+                evicted.add(image);
+            }
+            else
+            {
+                this.add(key, image, evicted);
+            }
+        }
+
+        for (SpilledImage oldest : evicted)
+        {
+            oldest.deleteQuietly();
+        }
+    }
+
+    // Add a spill file to the disk tier, collecting the files it replaces or evicts. Must hold the lock.
+    private void add(RenderKey key, SpilledImage image, List<SpilledImage> evicted)
+    {
+        SpilledImage previous = this.diskEntries.put(key, image);
+        if (previous != null)
+        {
+            this.diskBytes -= previous.size;
+            evicted.add(previous);
+        }
+
+        this.diskBytes += image.size;
+        Iterator<SpilledImage> iterator = this.diskEntries.values().iterator();
+        while (this.diskBytes > this.maxDiskBytes && iterator.hasNext())
+        {
+            SpilledImage oldest = iterator.next();
+            iterator.remove();
+            this.diskBytes -= oldest.size;
+            evicted.add(oldest);
+        }
+    }
+
+    // An image stored in a spill file.
+    private static class SpilledImage
+    {
+        private final Path file;
+        private final int size;
+
+        private SpilledImage(Path file, int size)
+        {
+            this.file = file;
+            this.size = size;
+        }
+
+        // Write the image to a new, uniquely named spill file in the directory. The name never clashes with
+        // files left behind by a crash or with other caches sharing the directory.
+        static SpilledImage write(Path directory, byte[] imageData) throws IOException
+        {
+            Path file = Files.createTempFile(directory, "render-", ".img");
+            try
+            {
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+                try
+                {
+                    ByteBuffer buffer = ByteBuffer.wrap(imageData);
+                    while (buffer.hasRemaining())
+                    {
+                        channel.write(buffer);
+                    }
+                }
+                finally
+                {
+                    channel.close();
+                }
+            }
+            catch (IOException ex)
+            {
+                Files.deleteIfExists(file);
+                throw ex;
+            }
+
+            return new SpilledImage(file, imageData.length);
+        }
+
+        // Read the image back from the spill file.
+        byte[] read() throws IOException
+        {
+            FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ);
+            try
+            {
+                byte[] imageData = new byte[this.size];
+                ByteBuffer buffer = ByteBuffer.wrap(imageData);
+                while (buffer.hasRemaining())
+                {
+                    if (channel.read(buffer) < 0)
+                    {
+                        throw new EOFException("The spill file " + this.file + " has been truncated.");
+                    }
+                }
+
+                return imageData;
+            }
+            finally
+            {
+                channel.close();
+            }
+        }
+
+        void delete() throws IOException
+        {
+            Files.deleteIfExists(this.file);
+        }
+
+        // Delete the spill file, leaving it behind when that fails.
+        void deleteQuietly()
+        {
+            try
+            {
+                this.delete();
+            }
+            catch (IOException ex)
+            {
+                // The file keeps its unique name and is never read again.
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Identifies a rendered page image in a RenderCache: the document,    *'
+//  the page number and the render options it was rendered with.        *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.io.File;
+import java.io.IOException;
+
+public final class RenderKey
+{
+    private final String documentId;
+    private final int pageNumber;
+    private final double resolution;
+    private final int smoothingFlags;
+
+    // Create a key for a page of the identified document rendered with the given options.
+    public RenderKey(String documentId, int pageNumber, RenderOptions options)
+    {
+        this(documentId, pageNumber, options.getResolution(), options.getSmoothingFlags());
+    }
+
+    // Create a key for a page of the identified document rendered with the given settings, without
+    // reading back native options.
+    public RenderKey(String documentId, int pageNumber, RenderSettings settings)
+    {
+        this(documentId, pageNumber, settings.getResolution(), settings.getSmoothingFlags());
+    }
+
+    // Create a key for a page of the identified document rendered at the given resolution and smoothing flags.
+    // A non-positive resolution or a negative smoothing flags value stands for the RenderOptions default and
+    // is stored as that default, so keys made from RenderOptions and from RenderSettings match.
+    public RenderKey(String documentId, int pageNumber, double resolution, int smoothingFlags)
+    {
+        if (documentId == null)
+        {
+            throw new IllegalArgumentException("The document identifier must not be null.");
+        }
+
+        this.documentId = documentId;
+        this.pageNumber = pageNumber;
+        this.resolution = resolution > 0 ? resolution : RenderSettings.DEFAULT_RESOLUTION;
+        this.smoothingFlags = smoothingFlags >= 0 ? smoothingFlags : RenderSettings.DEFAULT_SMOOTHING_FLAGS;
+    }
+
+    // Get an identifier of the current content of a PDF file, made of its canonical path,
+    // modification time and size.
+    public static String getDocumentId(String inputPath) throws IOException
+    {
+        File file = new File(inputPath).getCanonicalFile();
+        return file.getPath() + "|" + file.lastModified() + "|" + file.length();
+    }
+
+    public String getDocumentId()
+    {
+        return this.documentId;
+    }
+
+    public int getPageNumber()
+    {
+        return this.pageNumber;
+    }
+
+    public double getResolution()
+    {
+        return this.resolution;
+    }
+
+    public int getSmoothingFlags()
+    {
+        return this.smoothingFlags;
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        if (this == other)
+        {
+            return true;
+        }
+
+        if (!(other instanceof RenderKey))
+        {
+            return false;
+        }
+
+        RenderKey key = (RenderKey)other;
+        return this.pageNumber == key.pageNumber &&
+            Double.compare(this.resolution, key.resolution) == 0 &&
+            this.smoothingFlags == key.smoothingFlags &&
+            this.documentId.equals(key.documentId);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hash = this.documentId.hashCode();
+        hash = 31 * hash + this.pageNumber;
+        long bits = Double.doubleToLongBits(this.resolution);
+        hash = 31 * hash + (int)(bits ^ (bits >>> 32));
+        hash = 31 * hash + this.smoothingFlags;
+        return hash;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.documentId + "#" + this.pageNumber + "@" + this.resolution + "/" + this.smoothingFlags;
+    }
+}
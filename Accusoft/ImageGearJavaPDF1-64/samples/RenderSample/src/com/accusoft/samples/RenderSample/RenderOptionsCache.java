@@ -0,0 +1,93 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Keeps native RenderOptions for the most recently used render        *'
+//  settings, so that rendering page after page with the same settings  *'
+//  creates and configures the native options only once. The least      *'
+//  recently used options are deleted when the cache is full.           *'
+//                                                                      *'
+//  A cache is not thread-safe; use one cache per thread.               *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class RenderOptionsCache implements AutoCloseable
+{
+    private final LinkedHashMap<RenderSettings, RenderOptions> entries;
+    private int createCount;
+
+    // Create a cache keeping the native options of at most maxEntries render settings.
+    public RenderOptionsCache(final int maxEntries)
+    {
+        if (maxEntries < 1)
+        {
+            throw new IllegalArgumentException("The maximum number of entries must be a positive integer, not '" + maxEntries + "'.");
+        }
+
+        this.entries = new LinkedHashMap<RenderSettings, RenderOptions>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RenderSettings, RenderOptions> eldest)
+            {
+                if (this.size() <= maxEntries)
+                {
+                    return false;
+                }
+
+                release(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    // Get the native options for the settings, valid until they are evicted or the cache is closed.
+    // Callers must not modify the returned options.
+    public RenderOptions get(RenderSettings settings)
+    {
+        RenderOptions options = this.entries.get(settings);
+        if (options == null)
+        {
+            options = settings.createOptions();
+            NativeHandleTracker.getInstance().track(options);
+            this.entries.put(settings, options);
+            this.createCount++;
+        }
+
+        return options;
+    }
+
+    // Get the number of native options created, to compare with the number of renders.
+    public int getCreateCount()
+    {
+        return this.createCount;
+    }
+
+    // Delete all cached native options.
+    @Override
+    public void close()
+    {
+        for (RenderOptions options : this.entries.values())
+        {
+            release(options);
+        }
+
+        this.entries.clear();
+    }
+
+    private static void release(RenderOptions options)
+    {
+        options.delete();
+        NativeHandleTracker.getInstance().released(options);
+    }
+}
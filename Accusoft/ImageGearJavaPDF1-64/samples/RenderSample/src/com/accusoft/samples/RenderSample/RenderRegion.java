@@ -0,0 +1,101 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Describes a tile to render: a clip rectangle in PDF page space      *'
+//  (points, origin at the lower left corner of the page) and the       *'
+//  size in pixels of the image the rectangle is rendered to.           *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+import java.awt.Rectangle;
+
+public final class RenderRegion
+{
+    private static final double POINTS_PER_INCH = 72.0;
+
+    private final double x;
+    private final double y;
+    private final double width;
+    private final double height;
+    private final int outputWidth;
+    private final int outputHeight;
+
+    // Create a region for the clip rectangle rendered to an image of outputWidth x outputHeight pixels.
+    public RenderRegion(double x, double y, double width, double height, int outputWidth, int outputHeight)
+    {
+        if (width <= 0 || height <= 0)
+        {
+            throw new IllegalArgumentException("The clip rectangle must have a positive width and height.");
+        }
+
+        if (outputWidth < 1 || outputHeight < 1)
+        {
+            throw new IllegalArgumentException("The output size must be at least one pixel in each direction.");
+        }
+
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.outputWidth = outputWidth;
+        this.outputHeight = outputHeight;
+    }
+
+    public double getX()
+    {
+        return this.x;
+    }
+
+    public double getY()
+    {
+        return this.y;
+    }
+
+    public double getWidth()
+    {
+        return this.width;
+    }
+
+    public double getHeight()
+    {
+        return this.height;
+    }
+
+    public int getOutputWidth()
+    {
+        return this.outputWidth;
+    }
+
+    public int getOutputHeight()
+    {
+        return this.outputHeight;
+    }
+
+    // Get the resolution in dots per inch at which the clip rectangle covers the output size.
+    // When the aspect ratios differ, the larger scale is used so that no detail is lost.
+    public double getResolution()
+    {
+        double horizontal = this.outputWidth * POINTS_PER_INCH / this.width;
+        double vertical = this.outputHeight * POINTS_PER_INCH / this.height;
+        return Math.max(horizontal, vertical);
+    }
+
+    // Get the clip rectangle in pixels of a page image of the given height rendered at the resolution.
+    // The rectangle may extend beyond the page image.
+    public Rectangle toPixels(double resolution, int imageHeight)
+    {
+        double scale = resolution / POINTS_PER_INCH;
+        int left = (int)Math.floor(this.x * scale);
+        int right = (int)Math.ceil((this.x + this.width) * scale);
+        int top = imageHeight - (int)Math.ceil((this.y + this.height) * scale);
+        int bottom = imageHeight - (int)Math.floor(this.y * scale);
+        return new Rectangle(left, top, right - left, bottom - top);
+    }
+}
@@ -14,13 +14,16 @@
 //                                                                      *'
 //   First:             The path to source PDF file.                    *'
 //   Second (optional): The page number (zero-based) of the             *'
-//                      PDF document to render (default is 0).          *'
+//                      PDF document to render (default is 0), or a     *'
+//                      page range such as 0-9 to render in parallel.   *'
 //   Third (optional):  The path to output image file                   *'
 //                      (default is <input_file_path>.png).             *'
 //   Fourth (optional): The resolution for PDF page rasterization       *'
 //                      (default is 150.0).                             *'
 //   Fifth (optional):  The smoothing flags for PDF page rasterization  *'
 //                      (default is 1).                                 *'
+//   Sixth (optional):  The number of render threads used for a page    *'
+//                      range (default is the number of processors).    *'
 //                                                                      *'
 // ******************************************************************** *'
 
@@ -36,6 +39,9 @@ import java.io.*;
 
 public class RenderSample
 {
+    // Flight Recorder listener of the RenderSampleJfr module, built for Java 11 apart from this one.
+    private static final String JFR_LISTENER_CLASS = "com.accusoft.samples.RenderSampleJfr.JfrMetricsListener";
+
     private PDF pdf;
     private Document document;
     private Page page;
@@ -50,7 +56,7 @@ public class RenderSample
     {
         if (args == null ||
             args.length < 1 ||
-            args.length > 5 ||
+            args.length > 6 ||
             args[0].equals("-h") ||
             args[0].equals("--help"))
         {
@@ -60,6 +66,7 @@ public class RenderSample
 
         String inputPath = null;
         int pageNumber = 0;
+        int lastPageNumber = -1;
         String outputPath = null;
         double resolution = 0.0;
         int smoothingFlags = -1;
@@ -69,7 +76,16 @@ public class RenderSample
             inputPath = args[0];
             if (args.length > 1)
             {
-                pageNumber = Integer.parseInt(args[1]);
+                int separator = args[1].indexOf('-', 1);
+                if (separator > 0)
+                {
+                    pageNumber = Integer.parseInt(args[1].substring(0, separator));
+                    lastPageNumber = Integer.parseInt(args[1].substring(separator + 1));
+                }
+                else
+                {
+                    pageNumber = Integer.parseInt(args[1]);
+                }
             }
 
             if (args.length > 2)
@@ -83,7 +99,7 @@ public class RenderSample
         }
         catch (NumberFormatException ex)
         {
-            System.err.println("The page number must be an integer, not '" + args[1] + "'.");
+            System.err.println("The page number must be an integer or a range of integers, not '" + args[1] + "'.");
             return;
         }
 
@@ -123,21 +139,55 @@ public class RenderSample
             return;
         }
 
+        int threadCount = Runtime.getRuntime().availableProcessors();
+        try
+        {
+            if (args.length > 5)
+            {
+                threadCount = Integer.parseInt(args[5]);
+            }
+        }
+        catch (NumberFormatException ex)
+        {
+            threadCount = 0;
+        }
+
+        if (threadCount < 1)
+        {
+            System.err.println("The thread count must be a positive integer, not '" + args[5] + "'.");
+            return;
+        }
+
+        // Publish the native call measurements as Flight Recorder events when the listener is available.
+        MetricsListener jfrListener = loadJfrListener();
+        if (jfrListener != null)
+        {
+            NativeMetrics.addListener(jfrListener);
+        }
+
         RenderSample sample = new RenderSample();
-        sample.performRender(inputPath, pageNumber, outputPath, resolution, smoothingFlags);
+        if (lastPageNumber >= 0)
+        {
+            sample.performBatchRender(inputPath, pageNumber, lastPageNumber, outputPath, resolution, smoothingFlags, threadCount);
+        }
+        else
+        {
+            sample.performRender(inputPath, pageNumber, outputPath, resolution, smoothingFlags);
+        }
     }
 
     // Print the sample usage information.
     private static void printUsage()
     {
         System.out.println("Usage:");
-        System.out.println("       RenderSample.jar <input_file_path> [<page_number> [<output_file_path> [<resolution> [<smoothing_flags>]]]]");
+        System.out.println("       RenderSample.jar <input_file_path> [<page_number> [<output_file_path> [<resolution> [<smoothing_flags> [<thread_count>]]]]]");
         System.out.println("where:");
         System.out.println("       <input_file_path>:   The path to source PDF file.");
-        System.out.println("       <page_number>:       The page number in the PDF file to render (default is 0).");
-        System.out.println("       <output_file_path>:  The path to output PNG file (default is <input_file_path>.png).");
+        System.out.println("       <page_number>:       The page number in the PDF file to render (default is 0), or a page range <first>-<last>.");
+        System.out.println("       <output_file_path>:  The path to output PNG file (default is <input_file_path>.png). For a page range the page number is added before the extension.");
         System.out.println("       <resolution>:        The resolution in dots per inch for PDF page rasterization (default is 150.0).");
         System.out.println("       <smoothing_flags>:   The smoothing flags for PDF page rasterization (default is 1).");
+        System.out.println("       <thread_count>:      The number of threads rendering a page range (default is the number of processors).");
     }
 
     private void performRender(String inputPath, int pageNumber, String outputPath, double resolution, int smoothingFlags)
@@ -162,6 +212,82 @@ public class RenderSample
         }
     }
 
+    // Render a range of pages on several threads and write each page to its own output file.
+    private void performBatchRender(String inputPath, int firstPage, int lastPage, String outputPath, double resolution, int smoothingFlags, int threadCount)
+    {
+        try
+        {
+            this.initPdf();
+
+            BatchRenderer renderer = new BatchRenderer(this.pdf, threadCount);
+
+            // Write the pages out while the following ones are still being rendered. The pixel buffer
+            // is reused while the page size does not change.
+            long startTime = System.nanoTime();
+            try (PageStream pages = renderer.stream(inputPath, firstPage, lastPage, resolution, smoothingFlags, 2 * threadCount);
+                 PageRasterizer rasterizer = new PageRasterizer())
+            {
+                BufferedImage bufferedImage = null;
+                while (pages.hasNext())
+                {
+                    RenderedPage page = pages.next();
+                    bufferedImage = rasterizer.decode(page.getImageData(), bufferedImage);
+                    ImageIO.write(bufferedImage, "png", new File(getPageOutputPath(outputPath, page.getPageNumber())));
+                }
+            }
+
+            double elapsedSeconds = (System.nanoTime() - startTime) / 1e9;
+            int pageCount = lastPage - firstPage + 1;
+            System.out.println(String.format("Rendered %d pages in %.3f s (%.2f pages per second).",
+                pageCount, elapsedSeconds, pageCount / elapsedSeconds));
+            System.out.print(NativeMetrics.getSummary());
+        }
+        catch (IOException ex)
+        {
+            System.err.println("IOException: " + ex.toString());
+        }
+        catch (Throwable ex)
+        {
+            System.err.println("Exception: " + ex.toString());
+        }
+        finally
+        {
+            this.terminatePdf();
+        }
+    }
+
+    // Create the Flight Recorder listener, or return null when its module is not on the class path or
+    // the JVM has no Flight Recorder.
+    private static MetricsListener loadJfrListener()
+    {
+        try
+        {
+            Class.forName("jdk.jfr.Event");
+            return Class.forName(JFR_LISTENER_CLASS).asSubclass(MetricsListener.class).getDeclaredConstructor().newInstance();
+        }
+        catch (ClassNotFoundException | LinkageError ex)
+        {
+            return null;
+        }
+        catch (ReflectiveOperationException ex)
+        {
+            System.err.println("Could not create the Flight Recorder listener: " + ex.toString());
+            return null;
+        }
+    }
+
+    // Get the output file path of a page rendered as part of a page range.
+    private static String getPageOutputPath(String outputPath, int pageNumber)
+    {
+        String basePath = outputPath;
+        if (basePath.toLowerCase().endsWith(".png"))
+        {
+            basePath = basePath.substring(0, basePath.length() - 4);
+        }
+
+        return basePath + "." + pageNumber + ".png";
+    }
+
     // Initialize the PDF session.
     private void initPdf()
     {
@@ -174,36 +300,39 @@ public class RenderSample
         // pdf.setOEMLicenseKey("YourOEMLicenseKey");
 
         // Only initialize the PDF session after setting any licensing information is provided.
-        this.pdf.initialize();
+        NativeMetrics.initialize(this.pdf);
     }
 
     // Open input PDF document.
     private void openPdf(String inputPath)
     {
-        this.document = this.pdf.createDocument();
-        this.document.openDocument(inputPath);
+        this.document = NativeMetrics.createDocument(this.pdf);
+        NativeMetrics.openDocument(this.document, inputPath);
     }
 
     // Render page of PDF document.
     private void renderPage(int pageNumber, String outputPath, double resolution, int smoothingFlags) throws IOException
     {
         // Get the page to render.
-        this.page = this.document.getPage(pageNumber);
+        this.page = NativeMetrics.getPage(this.document, pageNumber);
 
-        // Render the page to a BufferedImage object.
-        RenderOptions options = new RenderOptions();
-        if (resolution > 0)
+        // Render the page to a BufferedImage object. The render options are released when the scope closes.
+        BufferedImage bufferedImage;
+        try (NativeScope scope = new NativeScope(); PageRasterizer rasterizer = new PageRasterizer())
         {
-            options.setResolution(resolution);
-        }
+            RenderOptions options = scope.add(new RenderOptions());
+            if (resolution > 0)
+            {
+                options.setResolution(resolution);
+            }
 
-        if (smoothingFlags >= 0)
-        {
-            options.setSmoothingFlags(smoothingFlags);
-        }
+            if (smoothingFlags >= 0)
+            {
+                options.setSmoothingFlags(smoothingFlags);
+            }
 
-        ByteArrayInputStream imageData = new ByteArrayInputStream(this.page.render(options));
-        BufferedImage bufferedImage = ImageIO.read(imageData);
+            bufferedImage = rasterizer.rasterize(this.page, options);
+        }
 
         // Write the BufferedImage object to the output image file.
         File outputFile = new File(outputPath);
@@ -216,12 +345,14 @@ public class RenderSample
         if (this.page != null)
         {
             this.page.close();
+            NativeMetrics.released(this.page);
             this.page = null;
         }
 
         if (this.document != null)
         {
             this.document.close();
+            NativeMetrics.released(this.document);
             this.document = null;
         }
 
@@ -0,0 +1,116 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Immutable render settings: a resolution and smoothing flags held in *'
+//  Java. Unlike RenderOptions they cost no native allocation or JNI    *'
+//  call to create, compare or hash, so they can be kept in keys and    *'
+//  passed around freely. They are turned into native options once,     *'
+//  through createOptions or a RenderOptionsCache.                      *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+import com.accusoft.imagegearpdf.*;
+
+public final class RenderSettings
+{
+    // The documented defaults of native RenderOptions.
+    public static final double DEFAULT_RESOLUTION = 150.0;
+    public static final int DEFAULT_SMOOTHING_FLAGS = SmoothingFlags.SmoothText;
+
+    // The RenderOptions defaults.
+    public static final RenderSettings DEFAULT = new RenderSettings(0, -1);
+
+    private final double resolution;
+    private final int smoothingFlags;
+
+    // Create render settings. A non-positive resolution or a negative smoothing flags value keeps the
+    // corresponding RenderOptions default.
+    public RenderSettings(double resolution, int smoothingFlags)
+    {
+        this.resolution = resolution > 0 ? resolution : 0;
+        this.smoothingFlags = smoothingFlags >= 0 ? smoothingFlags : -1;
+    }
+
+    // Get the resolution in dots per inch, or 0 for the default.
+    public double getResolution()
+    {
+        return this.resolution;
+    }
+
+    // Get the resolution in dots per inch that options created from these settings render at.
+    public double getRenderResolution()
+    {
+        return this.resolution > 0 ? this.resolution : DEFAULT_RESOLUTION;
+    }
+
+    // Get the smoothing flags, or -1 for the default.
+    public int getSmoothingFlags()
+    {
+        return this.smoothingFlags;
+    }
+
+    public RenderSettings withResolution(double resolution)
+    {
+        return new RenderSettings(resolution, this.smoothingFlags);
+    }
+
+    public RenderSettings withSmoothingFlags(int smoothingFlags)
+    {
+        return new RenderSettings(this.resolution, smoothingFlags);
+    }
+
+    // Create native render options with these settings. The caller owns the options and must delete them.
+    public RenderOptions createOptions()
+    {
+        RenderOptions options = new RenderOptions();
+        if (this.resolution > 0)
+        {
+            options.setResolution(this.resolution);
+        }
+
+        if (this.smoothingFlags >= 0)
+        {
+            options.setSmoothingFlags(this.smoothingFlags);
+        }
+
+        return options;
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        if (this == other)
+        {
+            return true;
+        }
+
+        if (!(other instanceof RenderSettings))
+        {
+            return false;
+        }
+
+        RenderSettings settings = (RenderSettings)other;
+        return Double.compare(this.resolution, settings.resolution) == 0 &&
+            this.smoothingFlags == settings.smoothingFlags;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        long bits = Double.doubleToLongBits(this.resolution);
+        return 31 * (int)(bits ^ (bits >>> 32)) + this.smoothingFlags;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.resolution + "/" + this.smoothingFlags;
+    }
+}
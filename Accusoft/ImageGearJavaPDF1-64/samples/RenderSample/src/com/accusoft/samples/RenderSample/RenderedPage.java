@@ -0,0 +1,37 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  A page image delivered by a PageStream.                             *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+public final class RenderedPage
+{
+    private final int pageNumber;
+    private final byte[] imageData;
+
+    RenderedPage(int pageNumber, byte[] imageData)
+    {
+        this.pageNumber = pageNumber;
+        this.imageData = imageData;
+    }
+
+    // Get the page number (zero-based).
+    public int getPageNumber()
+    {
+        return this.pageNumber;
+    }
+
+    // Get the rendered image, as returned by Page.render.
+    public byte[] getImageData()
+    {
+        return this.imageData;
+    }
+}
@@ -0,0 +1,58 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  A fixed set of locks shared by any number of keys, so that objects  *'
+//  that come and go, such as cached documents, can be locked by key    *'
+//  without keeping a lock per object. Keys that share a stripe are     *'
+//  serialized with each other, which is safe but less concurrent.      *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+public class StripedLocks
+{
+    private final ReentrantLock[] locks;
+
+    // Create the given number of stripes, rounded up to a power of two.
+    public StripedLocks(int stripeCount)
+    {
+        if (stripeCount < 1)
+        {
+            throw new IllegalArgumentException("The stripe count must be a positive integer, not '" + stripeCount + "'.");
+        }
+
+        int size = Integer.highestOneBit(stripeCount);
+        if (size < stripeCount)
+        {
+            size <<= 1;
+        }
+
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++)
+        {
+            this.locks[i] = new ReentrantLock();
+        }
+    }
+
+    // Get the lock of the stripe of a key. Equal keys always get the same lock.
+    public ReentrantLock getLock(Object key)
+    {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return this.locks[hash & (this.locks.length - 1)];
+    }
+
+    // Get the number of stripes.
+    public int getStripeCount()
+    {
+        return this.locks.length;
+    }
+}
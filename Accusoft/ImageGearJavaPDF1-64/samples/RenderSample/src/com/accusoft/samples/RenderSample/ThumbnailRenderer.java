@@ -0,0 +1,166 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Renders thumbnails of a range of pages, each fitted into a box of   *'
+//  maxWidth x maxHeight pixels, on the worker threads of a             *'
+//  BatchRenderer. Every page is rasterized directly at the low         *'
+//  resolution that fits the box, estimated from the previous page of   *'
+//  the same worker, and each thumbnail is handed to the listener as    *'
+//  soon as it is ready.                                                *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+public class ThumbnailRenderer
+{
+    // Smoothing suited to small output: anti-aliased text, line art and images.
+    public static final int THUMBNAIL_SMOOTHING_FLAGS =
+        SmoothingFlags.SmoothText | SmoothingFlags.SmoothLineArt | SmoothingFlags.SmoothImage;
+
+    // Letter page size in inches, used to estimate the resolution of the first page.
+    private static final double INITIAL_PAGE_WIDTH = 8.5;
+    private static final double INITIAL_PAGE_HEIGHT = 11.0;
+
+    // Render again at the fitted resolution when the estimate was lower by more than this factor.
+    private static final double RERENDER_THRESHOLD = 1.25;
+
+    private final BatchRenderer renderer;
+    private final int maxWidth;
+    private final int maxHeight;
+
+    // Receives the thumbnails. It is called from the worker threads, in completion order.
+    public interface ThumbnailListener
+    {
+        void thumbnailRendered(int pageNumber, BufferedImage thumbnail);
+    }
+
+    // Create a thumbnail renderer fitting pages into maxWidth x maxHeight pixels.
+    public ThumbnailRenderer(BatchRenderer renderer, int maxWidth, int maxHeight)
+    {
+        if (renderer == null)
+        {
+            throw new IllegalArgumentException("The batch renderer must not be null.");
+        }
+
+        if (maxWidth < 1 || maxHeight < 1)
+        {
+            throw new IllegalArgumentException("The thumbnail size must be at least one pixel in each direction.");
+        }
+
+        this.renderer = renderer;
+        this.maxWidth = maxWidth;
+        this.maxHeight = maxHeight;
+    }
+
+    // Render thumbnails of pages [firstPage, lastPage] of the PDF file.
+    public void render(String inputPath, int firstPage, int lastPage, final ThumbnailListener listener)
+        throws InterruptedException, IOException
+    {
+        if (listener == null)
+        {
+            throw new IllegalArgumentException("The thumbnail listener must not be null.");
+        }
+
+        this.renderer.forEachPage(inputPath, firstPage, lastPage, new BatchRenderer.PageWorkerFactory()
+        {
+            public BatchRenderer.PageWorker createWorker()
+            {
+                return new ThumbnailWorker(listener);
+            }
+        });
+    }
+
+    // Get the resolution fitting a page of the given size in inches into the thumbnail box.
+    private double getFittedResolution(double pageWidth, double pageHeight)
+    {
+        return Math.min(this.maxWidth / pageWidth, this.maxHeight / pageHeight);
+    }
+
+    // Renders the thumbnails of the pages handed to one worker thread.
+    private class ThumbnailWorker implements BatchRenderer.PageWorker
+    {
+        private final ThumbnailListener listener;
+        private final PageRasterizer rasterizer = new PageRasterizer();
+        private final RenderOptionsCache optionsCache = new RenderOptionsCache(4);
+        private double resolution = getFittedResolution(INITIAL_PAGE_WIDTH, INITIAL_PAGE_HEIGHT);
+
+        ThumbnailWorker(ThumbnailListener listener)
+        {
+            this.listener = listener;
+        }
+
+        public void processPage(Document document, int pageNumber) throws IOException
+        {
+            BufferedImage image;
+            try (NativeScope scope = new NativeScope())
+            {
+                Page page = scope.add(NativeMetrics.getPage(document, pageNumber));
+                image = this.rasterize(page, this.resolution);
+
+                // Derive the page size from the rendered image and check the estimate.
+                double fitted = getFittedResolution(image.getWidth() / this.resolution, image.getHeight() / this.resolution);
+                if (fitted > this.resolution * RERENDER_THRESHOLD)
+                {
+                    image = this.rasterize(page, fitted);
+                }
+
+                this.resolution = fitted;
+            }
+
+            this.listener.thumbnailRendered(pageNumber, fit(image));
+        }
+
+        public void close()
+        {
+            this.rasterizer.close();
+            this.optionsCache.close();
+        }
+
+        // Render the page at the resolution with thumbnail smoothing. Pages of the same size share the
+        // native options of their resolution.
+        private BufferedImage rasterize(Page page, double resolution) throws IOException
+        {
+            RenderOptions options = this.optionsCache.get(new RenderSettings(resolution, THUMBNAIL_SMOOTHING_FLAGS));
+            return this.rasterizer.rasterize(page, options);
+        }
+
+        // Scale the image down when rounding or a larger page made it exceed the thumbnail box.
+        private BufferedImage fit(BufferedImage image)
+        {
+            double scale = Math.min((double)maxWidth / image.getWidth(), (double)maxHeight / image.getHeight());
+            if (scale >= 1.0)
+            {
+                return image;
+            }
+
+            int width = Math.max(1, (int)Math.round(image.getWidth() * scale));
+            int height = Math.max(1, (int)Math.round(image.getHeight() * scale));
+            BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = thumbnail.createGraphics();
+            try
+            {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.drawImage(image, 0, 0, width, height, null);
+            }
+            finally
+            {
+                graphics.dispose();
+            }
+
+            return thumbnail;
+        }
+    }
+}
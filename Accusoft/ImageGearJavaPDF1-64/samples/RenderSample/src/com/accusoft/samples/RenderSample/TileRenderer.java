@@ -0,0 +1,132 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Renders a tile of a PDF page described by a RenderRegion. The page  *'
+//  is rendered at the resolution matching the tile scale and only the  *'
+//  clip rectangle is decoded, so the decoded pixels scale with the     *'
+//  viewport. The library still renders the whole page, and its         *'
+//  encoded image is held on the heap while the tile is decoded, so     *'
+//  the resolution is capped: deeper zoom levels are rendered at the    *'
+//  cap and the decoded clip is scaled up to the tile size. With a      *'
+//  RenderCache, all tiles of a page at the same zoom level share a     *'
+//  single render.                                                      *'
+//                                                                      *'
+//  An instance is not thread-safe; use one tile renderer per thread.   *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+public class TileRenderer implements AutoCloseable
+{
+    // The default resolution cap, at which a letter size page renders to 5100 x 6600 pixels.
+    public static final double DEFAULT_MAX_RESOLUTION = 600.0;
+
+    private final RenderCache cache;
+    private final double maxResolution;
+    private final PageRasterizer rasterizer = new PageRasterizer();
+
+    // Native options of the recent zoom levels, so that a tile costs a single native render call.
+    private final RenderOptionsCache optionsCache = new RenderOptionsCache(8);
+
+    // Create a tile renderer rendering every tile from scratch.
+    public TileRenderer()
+    {
+        this(null);
+    }
+
+    // Create a tile renderer sharing page renders between tiles through the cache.
+    public TileRenderer(RenderCache cache)
+    {
+        this(cache, DEFAULT_MAX_RESOLUTION);
+    }
+
+    // Create a tile renderer sharing page renders through the cache, or rendering every tile from scratch
+    // when the cache is null, and never rendering a page above maxResolution dots per inch.
+    public TileRenderer(RenderCache cache, double maxResolution)
+    {
+        if (maxResolution <= 0)
+        {
+            throw new IllegalArgumentException("The maximum resolution must be a positive number, not '" + maxResolution + "'.");
+        }
+
+        this.cache = cache;
+        this.maxResolution = maxResolution;
+    }
+
+    // Render the region of a page. The document identifier is only used to key the cache.
+    // A negative smoothing flags value keeps the RenderOptions default.
+    // Returns an image of the region output size, white where the region lies outside the page. Above the
+    // maximum resolution the page is rendered at the maximum and the tile is scaled up.
+    public BufferedImage render(String documentId, Document document, int pageNumber, RenderRegion region, int smoothingFlags) throws IOException
+    {
+        double resolution = Math.min(region.getResolution(), this.maxResolution);
+        RenderSettings settings = new RenderSettings(resolution, smoothingFlags);
+        byte[] imageData;
+        if (this.cache != null)
+        {
+            imageData = this.cache.render(documentId, document, pageNumber, settings, this.optionsCache);
+        }
+        else
+        {
+            try (NativeScope scope = new NativeScope())
+            {
+                Page page = scope.add(NativeMetrics.getPage(document, pageNumber));
+                imageData = NativeMetrics.render(page, this.optionsCache.get(settings), settings.getRenderResolution());
+            }
+        }
+
+        BufferedImage tile = this.rasterizer.decode(imageData, region, resolution);
+        if (tile != null && tile.getWidth() == region.getOutputWidth() && tile.getHeight() == region.getOutputHeight())
+        {
+            return tile;
+        }
+
+        return fit(tile, region);
+    }
+
+    // Release the cached image reader.
+    @Override
+    public void close()
+    {
+        this.rasterizer.close();
+        this.optionsCache.close();
+    }
+
+    // Scale the decoded clip rectangle to the output size of the region, or return a white image when
+    // the region misses the page. The clip rectangle is smaller than the output when the resolution was capped.
+    private static BufferedImage fit(BufferedImage tile, RenderRegion region)
+    {
+        BufferedImage output = new BufferedImage(region.getOutputWidth(), region.getOutputHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = output.createGraphics();
+        try
+        {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, output.getWidth(), output.getHeight());
+            if (tile != null)
+            {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.drawImage(tile, 0, 0, output.getWidth(), output.getHeight(), null);
+            }
+        }
+        finally
+        {
+            graphics.dispose();
+        }
+
+        return output;
+    }
+}
@@ -0,0 +1,212 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Tests the reference counting and eviction of DocumentCache with the *'
+//  sample PDF files: leases of one file share a document, the least    *'
+//  recently used documents are evicted, and an evicted document stays  *'
+//  usable until its last lease has been closed.                        *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.Assert.*;
+
+public class DocumentCacheTest
+{
+    private static final String SINGLE_PAGE_PATH = "../SampleData/Pdf/single-page.pdf";
+    private static final String MULTI_PAGE_PATH = "../SampleData/Pdf/multi-page.pdf";
+    private static final String BROCHURE_PATH = "../SampleData/Pdf/accusoft-brochure.pdf";
+
+    private static PDF pdf;
+
+    private DocumentCache cache;
+
+    @BeforeClass
+    public static void initPdf()
+    {
+        System.loadLibrary("IgPdf");
+        pdf = PDF.getInstance();
+        pdf.initialize();
+    }
+
+    @AfterClass
+    public static void terminatePdf()
+    {
+        pdf.terminate();
+    }
+
+    @Before
+    public void createCache()
+    {
+        this.cache = new DocumentCache(pdf, 2, Long.MAX_VALUE);
+    }
+
+    @After
+    public void closeCache()
+    {
+        this.cache.close();
+    }
+
+    @Test
+    public void leasesOfTheSameFileShareOneDocument() throws IOException
+    {
+        try (DocumentLease first = this.cache.acquire(SINGLE_PAGE_PATH);
+             DocumentLease second = this.cache.acquire(SINGLE_PAGE_PATH))
+        {
+            assertSame(first.getGuard(), second.getGuard());
+        }
+
+        assertEquals(1, this.cache.getMissCount());
+        assertEquals(1, this.cache.getHitCount());
+        assertEquals(1, this.cache.size());
+    }
+
+    @Test
+    public void closedLeasesKeepTheDocumentCached() throws IOException
+    {
+        this.cache.acquire(SINGLE_PAGE_PATH).close();
+        this.cache.acquire(SINGLE_PAGE_PATH).close();
+
+        assertEquals(1, this.cache.getMissCount());
+        assertEquals(1, this.cache.getHitCount());
+        assertEquals(0, this.cache.getEvictionCount());
+    }
+
+    @Test
+    public void leastRecentlyUsedDocumentIsEvicted() throws IOException
+    {
+        this.cache.acquire(SINGLE_PAGE_PATH).close();
+        this.cache.acquire(MULTI_PAGE_PATH).close();
+
+        // Using the first document again makes the second one the least recently used.
+        this.cache.acquire(SINGLE_PAGE_PATH).close();
+        this.cache.acquire(BROCHURE_PATH).close();
+
+        assertEquals(2, this.cache.size());
+        assertEquals(1, this.cache.getEvictionCount());
+
+        this.cache.acquire(SINGLE_PAGE_PATH).close();
+        assertEquals(2, this.cache.getHitCount());
+
+        this.cache.acquire(MULTI_PAGE_PATH).close();
+        assertEquals(4, this.cache.getMissCount());
+    }
+
+    @Test
+    public void memoryBudgetEvictsAllButTheMostRecentDocument() throws IOException
+    {
+        try (DocumentCache smallCache = new DocumentCache(pdf, 10, 1))
+        {
+            smallCache.acquire(SINGLE_PAGE_PATH).close();
+            smallCache.acquire(MULTI_PAGE_PATH).close();
+
+            assertEquals(1, smallCache.size());
+            assertEquals(1, smallCache.getEvictionCount());
+            assertEquals(new File(MULTI_PAGE_PATH).length(), smallCache.getEstimatedBytes());
+        }
+    }
+
+    @Test
+    public void evictedDocumentStaysOpenWhileLeased() throws IOException
+    {
+        try (DocumentLease lease = this.cache.acquire(SINGLE_PAGE_PATH))
+        {
+            this.cache.acquire(MULTI_PAGE_PATH).close();
+            this.cache.acquire(BROCHURE_PATH).close();
+            assertEquals(1, this.cache.getEvictionCount());
+
+            try (DocumentGuard.Access access = lease.lock())
+            {
+                assertNotNull(access.getPage(0));
+            }
+        }
+
+        // The last lease has been closed, so the file is opened again.
+        this.cache.acquire(SINGLE_PAGE_PATH).close();
+        assertEquals(4, this.cache.getMissCount());
+    }
+
+    @Test
+    public void changedFileIsReopenedWithoutCountingAnEviction() throws IOException
+    {
+        File file = File.createTempFile("document-cache-", ".pdf");
+        try
+        {
+            Files.copy(new File(SINGLE_PAGE_PATH).toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            this.cache.acquire(file.getPath()).close();
+
+            Files.copy(new File(MULTI_PAGE_PATH).toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            this.cache.acquire(file.getPath()).close();
+
+            assertEquals(2, this.cache.getMissCount());
+            assertEquals(0, this.cache.getEvictionCount());
+            assertEquals(1, this.cache.size());
+            assertEquals(file.length(), this.cache.getEstimatedBytes());
+        }
+        finally
+        {
+            this.cache.close();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void closeDoesNotCountEvictions() throws IOException
+    {
+        this.cache.acquire(SINGLE_PAGE_PATH).close();
+        this.cache.acquire(MULTI_PAGE_PATH).close();
+        this.cache.close();
+
+        assertEquals(0, this.cache.getEvictionCount());
+        assertEquals(0, this.cache.size());
+        assertEquals(0, this.cache.getEstimatedBytes());
+    }
+
+    @Test
+    public void leaseOutlivesTheClosedCache() throws IOException
+    {
+        try (DocumentLease lease = this.cache.acquire(SINGLE_PAGE_PATH))
+        {
+            this.cache.close();
+            try (DocumentGuard.Access access = lease.lock())
+            {
+                assertNotNull(access.getPage(0));
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void acquireFailsOnceClosed() throws IOException
+    {
+        this.cache.close();
+        this.cache.acquire(SINGLE_PAGE_PATH);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closedLeaseCannotBeLocked() throws IOException
+    {
+        DocumentLease lease = this.cache.acquire(SINGLE_PAGE_PATH);
+        lease.close();
+        lease.close();
+        lease.lock();
+    }
+}
@@ -0,0 +1,158 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Tests the heap and disk tiers of RenderCache: evicted images are    *'
+//  spilled and read back, a failing spill or an unreadable spill file  *'
+//  only drops that image, and keys made from native options and from   *'
+//  settings with the default values are equal.                         *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class RenderCacheTest
+{
+    private static final int IMAGE_SIZE = 100;
+
+    private static PDF pdf;
+
+    private Path spillDirectory;
+    private RenderCache cache;
+
+    @BeforeClass
+    public static void initPdf()
+    {
+        System.loadLibrary("IgPdf");
+        pdf = PDF.getInstance();
+        pdf.initialize();
+    }
+
+    @AfterClass
+    public static void terminatePdf()
+    {
+        pdf.terminate();
+    }
+
+    @Before
+    public void createCache() throws IOException
+    {
+        this.spillDirectory = Files.createTempDirectory("render-cache-test");
+
+        // Room for one image on the heap and two on disk.
+        this.cache = new RenderCache(IMAGE_SIZE, this.spillDirectory, 2 * IMAGE_SIZE);
+    }
+
+    @After
+    public void closeCache() throws IOException
+    {
+        this.cache.close();
+        if (Files.isDirectory(this.spillDirectory))
+        {
+            deleteFiles(this.spillDirectory);
+            Files.delete(this.spillDirectory);
+        }
+    }
+
+    @Test
+    public void evictedImagesAreSpilledAndReadBack()
+    {
+        RenderKey first = key(1);
+        byte[] firstImage = image(1);
+        this.cache.put(first, firstImage);
+        this.cache.put(key(2), image(2));
+
+        assertEquals(IMAGE_SIZE, this.cache.getDiskBytes());
+        assertArrayEquals(firstImage, this.cache.get(first));
+        assertEquals(1, this.cache.getDiskHitCount());
+    }
+
+    @Test
+    public void putKeepsGoingWhenTheSpillDirectoryIsGone() throws IOException
+    {
+        Files.delete(this.spillDirectory);
+
+        this.cache.put(key(1), image(1));
+        this.cache.put(key(2), image(2));
+        this.cache.put(key(3), image(3));
+
+        assertEquals(0, this.cache.getDiskBytes());
+        assertEquals(2, this.cache.getEvictionCount());
+        assertNull(this.cache.get(key(1)));
+        assertArrayEquals(image(3), this.cache.get(key(3)));
+    }
+
+    @Test
+    public void unreadableSpillFileCountsAsMiss() throws IOException
+    {
+        this.cache.put(key(1), image(1));
+        this.cache.put(key(2), image(2));
+        deleteFiles(this.spillDirectory);
+
+        assertNull(this.cache.get(key(1)));
+        assertEquals(1, this.cache.getMissCount());
+        assertEquals(0, this.cache.getDiskHitCount());
+        assertEquals(0, this.cache.getDiskBytes());
+        assertArrayEquals(image(2), this.cache.get(key(2)));
+    }
+
+    @Test
+    public void defaultOptionsAndDefaultSettingsGiveEqualKeys()
+    {
+        RenderOptions options = new RenderOptions();
+        try
+        {
+            RenderKey optionsKey = new RenderKey("document", 0, options);
+            RenderKey settingsKey = new RenderKey("document", 0, RenderSettings.DEFAULT);
+            assertEquals(optionsKey, settingsKey);
+            assertEquals(optionsKey.hashCode(), settingsKey.hashCode());
+        }
+        finally
+        {
+            options.delete();
+        }
+    }
+
+    private static RenderKey key(int pageNumber)
+    {
+        return new RenderKey("document", pageNumber, RenderSettings.DEFAULT);
+    }
+
+    private static byte[] image(int pageNumber)
+    {
+        byte[] imageData = new byte[IMAGE_SIZE];
+        Arrays.fill(imageData, (byte)pageNumber);
+        return imageData;
+    }
+
+    private static void deleteFiles(Path directory) throws IOException
+    {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory))
+        {
+            for (Path file : files)
+            {
+                Files.delete(file);
+            }
+        }
+    }
+}
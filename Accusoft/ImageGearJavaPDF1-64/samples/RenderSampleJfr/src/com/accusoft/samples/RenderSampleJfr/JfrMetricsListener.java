@@ -0,0 +1,138 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Emits a JDK Flight Recorder event for each native call measured by  *'
+//  NativeMetrics, carrying the operation, page number, resolution,     *'
+//  document size, byte counts and call duration, and an event for      *'
+//  each change of the live document and page counts. The events are    *'
+//  recorded only while a recording with them enabled is running, e.g.  *'
+//                                                                      *'
+//      java -XX:StartFlightRecording=filename=render.jfr ...           *'
+//                                                                      *'
+//  and can be inspected with JDK Mission Control or "jfr print".       *'
+//                                                                      *'
+//  This module targets Java 11, the first release with jdk.jfr in its  *'
+//  API, so that RenderSample keeps building for Java 8. RenderSample   *'
+//  loads the listener by name when this module is on its class path:   *'
+//                                                                      *'
+//      java -cp RenderSample-1.0.jar:RenderSampleJfr-1.0.jar           *'
+//           com.accusoft.samples.RenderSample.RenderSample ...         *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.RenderSampleJfr;
+
+import com.accusoft.samples.RenderSample.MetricsListener;
+import com.accusoft.samples.RenderSample.NativeCall;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+public class JfrMetricsListener implements MetricsListener
+{
+    public void callCompleted(NativeCall call)
+    {
+        NativeCallEvent.emit(call);
+    }
+
+    public void liveObjectsChanged(Class<?> type, long liveCount)
+    {
+        LiveObjectsEvent.emit(type, liveCount);
+    }
+
+    // The measurements of one native call. The event is committed once the call has returned, so the
+    // time spent in the native code is carried by the call duration field.
+    @Name("com.accusoft.imagegearpdf.NativeCall")
+    @Label("ImageGear PDF Native Call")
+    @Category("ImageGear PDF")
+    @Description("A call into the ImageGear PDF native library.")
+    static class NativeCallEvent extends Event
+    {
+        @Label("Operation")
+        String operation;
+
+        @Label("Call Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long callDuration;
+
+        @Label("Page Number")
+        @Description("The zero-based page number, or -1.")
+        int pageNumber;
+
+        @Label("Resolution")
+        @Description("The render resolution in dots per inch, or -1.")
+        double resolution;
+
+        @Label("Document Size")
+        @DataAmount
+        long documentSize;
+
+        @Label("Bytes In")
+        @DataAmount
+        long bytesIn;
+
+        @Label("Bytes Out")
+        @DataAmount
+        long bytesOut;
+
+        @Label("Failure")
+        String failure;
+
+        static void emit(NativeCall call)
+        {
+            NativeCallEvent event = new NativeCallEvent();
+            if (!event.isEnabled())
+            {
+                return;
+            }
+
+            event.operation = call.getOperation().name();
+            event.callDuration = call.getElapsedNanos();
+            event.pageNumber = call.getPageNumber();
+            event.resolution = call.getResolution();
+            event.documentSize = call.getDocumentSize();
+            event.bytesIn = call.getBytesIn();
+            event.bytesOut = call.getBytesOut();
+            event.failure = call.isFailed() ? call.getFailure().toString() : null;
+            event.commit();
+        }
+    }
+
+    // The number of live native documents or pages after a change.
+    @Name("com.accusoft.imagegearpdf.LiveObjects")
+    @Label("ImageGear PDF Live Objects")
+    @Category("ImageGear PDF")
+    @StackTrace(false)
+    static class LiveObjectsEvent extends Event
+    {
+        @Label("Object Type")
+        String type;
+
+        @Label("Live Count")
+        long liveCount;
+
+        static void emit(Class<?> type, long liveCount)
+        {
+            LiveObjectsEvent event = new LiveObjectsEvent();
+            if (!event.isEnabled())
+            {
+                return;
+            }
+
+            event.type = type.getSimpleName();
+            event.liveCount = liveCount;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,391 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Chooses the PDF resources a worker is initialized with. Most of the *'
+//  resource/PDF tree is only needed for Chinese, Japanese and Korean   *'
+//  text: the CJK CMaps, the CJK fonts, the CJK code page mappings and  *'
+//  the GB18030 converters. createLatinResources builds a copy of the   *'
+//  tree without them, made of symbolic links so that the remaining     *'
+//  files are still shared between processes through the page cache.    *'
+//  needsFullResources tells whether a PDF file refers to any of the    *'
+//  left out resources, or is encrypted so that this cannot be told, so *'
+//  that it can go to a worker initialized with the full tree instead.  *'
+//                                                                      *'
+//  The native parser of every worker loads the files of the tree, so   *'
+//  it is built in a directory of the cache directory that only the     *'
+//  current user can access. A directory of that name which belongs to  *'
+//  another user, or which other users can access, is never used.       *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.WorkerFarmSample;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+public final class PdfResources
+{
+    // System property giving a worker the path passed to PDF.setPDFResources.
+    public static final String RESOURCES_PROPERTY = "igpdf.resources";
+
+    // CMaps that are not tied to a CJK character collection.
+    private static final Set<String> GENERIC_CMAPS = new HashSet<String>(Arrays.asList("Identity-H", "Identity-V"));
+
+    // Files of the other resource directories only used for CJK text.
+    private static final Set<String> CJK_FILES = new HashSet<String>(Arrays.asList(
+        "Font/AdobeGothicStd-Bold.otf",
+        "Font/AdobeMyungjoStd-Medium.otf",
+        "Unicode/icu/ctb_gb18030.cnv",
+        "Unicode/icu/ctl_gb18030.cnv",
+        "Unicode/mappings/adobe/HKSCS.txt",
+        "Unicode/mappings/adobe/JISX0208.txt",
+        "Unicode/mappings/adobe/JISX0213.txt",
+        "Unicode/mappings/adobe/Japanese83pv.txt",
+        "Unicode/mappings/mac/CHINSIMP.TXT",
+        "Unicode/mappings/mac/CHINTRAD.TXT",
+        "Unicode/mappings/mac/JAPANESE.TXT",
+        "Unicode/mappings/mac/KOREAN.TXT",
+        "Unicode/mappings/win/CP932.TXT",
+        "Unicode/mappings/win/CP936.TXT",
+        "Unicode/mappings/win/CP949.TXT",
+        "Unicode/mappings/win/CP950.TXT"));
+
+    // Names found in the font dictionaries of PDF files with CJK fonts or encodings: the character
+    // collections, also as the Ordering strings of CIDSystemInfo dictionaries, and the predefined CMaps.
+    private static final List<String> CJK_MARKERS = Arrays.asList(
+        "Adobe-GB1", "Adobe-CNS1", "Adobe-Japan1", "Adobe-Japan2", "Adobe-Korea1",
+        "(GB1)", "(CNS1)", "(Japan1)", "(Japan2)", "(Korea1)",
+        "UniGB-", "UniCNS-", "UniJIS", "UniKS-", "RKSJ-", "EUC-H", "EUC-V", "GBK-", "GBpc-", "GBT-",
+        "B5pc-", "HKscs-", "ETen-B5", "KSC-", "KSCms-", "KSCpc-", "83pv-", "90ms-", "90msp-", "90pv-");
+
+    // Marker of compressed object streams, whose font dictionaries cannot be seen without inflating them.
+    private static final String OBJECT_STREAM_MARKER = "/ObjStm";
+
+    // Marker of encrypted files, whose strings and streams, Ordering strings included, cannot be read.
+    private static final String ENCRYPT_MARKER = "/Encrypt";
+
+    // Permissions of the directory holding the resource trees of the current user.
+    private static final Set<PosixFilePermission> OWNER_ONLY = EnumSet.of(
+        PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_EXECUTE);
+
+    private static final int SCAN_CHUNK_SIZE = 1 << 20;
+
+    // Files with object streams are read whole to inflate them; larger ones are assumed to need everything.
+    private static final long MAX_INFLATED_FILE_SIZE = 64L << 20;
+
+    private PdfResources()
+    {
+    }
+
+    // Get the JVM argument making a worker initialize its PDF session with the given resources.
+    public static String getJvmArgument(Path resourceDirectory)
+    {
+        return "-D" + RESOURCES_PROPERTY + "=" + resourceDirectory.toAbsolutePath();
+    }
+
+    // Get the resource directory a worker was started with, or null for the library default.
+    public static String getWorkerResources()
+    {
+        return System.getProperty(RESOURCES_PROPERTY);
+    }
+
+    // Build, or reuse, a copy of the resource tree without the CJK resources in a private directory of the
+    // cache directory and return its path. The copy is made of symbolic links to the original files where
+    // the file system supports them.
+    public static Path createLatinResources(Path resourceDirectory, Path cacheDirectory) throws IOException
+    {
+        resourceDirectory = resourceDirectory.toRealPath();
+        Path userDirectory = getUserDirectory(cacheDirectory);
+        String name = "latin-" + Integer.toHexString(resourceDirectory.toString().hashCode());
+        Path target = userDirectory.resolve(name);
+        if (Files.isDirectory(target))
+        {
+            return target;
+        }
+
+        // Build next to the target and move it in place, so that concurrent builders never see a partial tree.
+        Path staging = Files.createTempDirectory(userDirectory, name + "-");
+        try
+        {
+            copyTree(resourceDirectory, resourceDirectory, staging);
+            Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (FileAlreadyExistsException ex)
+        {
+            // Another process built it first.
+        }
+        catch (IOException ex)
+        {
+            if (!Files.isDirectory(target))
+            {
+                throw ex;
+            }
+        }
+        finally
+        {
+            deleteTree(staging);
+        }
+
+        return target;
+    }
+
+    // Get the directory of the cache directory holding the resource trees of the current user, creating it
+    // when needed. The cache directory may be shared with other users, such as /dev/shm, so the directory
+    // must belong to the current user and be closed to everyone else.
+    private static Path getUserDirectory(Path cacheDirectory) throws IOException
+    {
+        Path directory = cacheDirectory.resolve("igpdf-resources-" + System.getProperty("user.name"));
+        boolean posix = Files.getFileStore(cacheDirectory).supportsFileAttributeView(PosixFileAttributeView.class);
+        try
+        {
+            if (posix)
+            {
+                Files.createDirectory(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+            }
+            else
+            {
+                Files.createDirectory(directory);
+            }
+        }
+        catch (FileAlreadyExistsException ex)
+        {
+            // Created earlier, by this user or maybe by someone else; checked below.
+        }
+
+        BasicFileAttributes attributes = posix ?
+            Files.readAttributes(directory, PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS) :
+            Files.readAttributes(directory, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        if (!attributes.isDirectory())
+        {
+            throw new IOException("The resource cache " + directory + " is not a directory.");
+        }
+
+        UserPrincipal user = directory.getFileSystem().getUserPrincipalLookupService().lookupPrincipalByName(System.getProperty("user.name"));
+        if (!user.equals(Files.getOwner(directory, LinkOption.NOFOLLOW_LINKS)))
+        {
+            throw new IOException("The resource cache " + directory + " belongs to another user; remove it or choose another cache directory.");
+        }
+
+        // createDirectory applies the umask, and a directory that already existed keeps its own mode.
+        if (posix && !((PosixFileAttributes)attributes).permissions().equals(OWNER_ONLY))
+        {
+            throw new IOException("The resource cache " + directory + " is accessible to other users; remove it or restrict it to its owner.");
+        }
+
+        return directory;
+    }
+
+    // Check whether a PDF file may need the CJK resources: it names a CJK character collection or
+    // predefined CMap, in its body or in its Flate compressed object streams. Encrypted files and files
+    // whose object streams cannot be checked are assumed to need them.
+    public static boolean needsFullResources(Path pdfPath) throws IOException
+    {
+        int overlap = Math.max(OBJECT_STREAM_MARKER.length(), ENCRYPT_MARKER.length());
+        for (String marker : CJK_MARKERS)
+        {
+            overlap = Math.max(overlap, marker.length());
+        }
+
+        byte[] buffer = new byte[SCAN_CHUNK_SIZE + overlap];
+        boolean hasObjectStreams = false;
+        try (InputStream input = Files.newInputStream(pdfPath))
+        {
+            int kept = 0;
+            int read;
+            while ((read = input.read(buffer, kept, buffer.length - kept)) > 0)
+            {
+                int length = kept + read;
+                String text = new String(buffer, 0, length, StandardCharsets.ISO_8859_1);
+                if (containsCjkMarker(text) || text.contains(ENCRYPT_MARKER))
+                {
+                    return true;
+                }
+
+                hasObjectStreams |= text.contains(OBJECT_STREAM_MARKER);
+
+                // Keep the end of the chunk so that markers crossing chunk boundaries are found.
+                kept = Math.min(overlap, length);
+                System.arraycopy(buffer, length - kept, buffer, 0, kept);
+            }
+        }
+
+        return hasObjectStreams && objectStreamsNeedFullResources(pdfPath);
+    }
+
+    private static boolean containsCjkMarker(String text)
+    {
+        for (String marker : CJK_MARKERS)
+        {
+            if (text.contains(marker))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // Inflate the object streams of a PDF file and look for CJK markers in them.
+    private static boolean objectStreamsNeedFullResources(Path pdfPath) throws IOException
+    {
+        if (Files.size(pdfPath) > MAX_INFLATED_FILE_SIZE)
+        {
+            return true;
+        }
+
+        String text = new String(Files.readAllBytes(pdfPath), StandardCharsets.ISO_8859_1);
+        for (int marker = text.indexOf(OBJECT_STREAM_MARKER); marker >= 0; marker = text.indexOf(OBJECT_STREAM_MARKER, marker + 1))
+        {
+            // The stream data follows the "stream" keyword and its end of line after the dictionary.
+            int dictionaryEnd = text.indexOf(">>", marker);
+            int start = dictionaryEnd < 0 ? -1 : text.indexOf("stream", dictionaryEnd);
+            if (start < 0)
+            {
+                return true;
+            }
+
+            start += "stream".length();
+            if (start < text.length() && text.charAt(start) == '\r')
+            {
+                start++;
+            }
+
+            if (start < text.length() && text.charAt(start) == '\n')
+            {
+                start++;
+            }
+
+            int end = text.indexOf("endstream", start);
+            if (end < 0)
+            {
+                return true;
+            }
+
+            String objects = inflate(text, start, end);
+            if (objects == null || containsCjkMarker(objects))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // Inflate Flate data stored as ISO-8859-1 characters, or return null when it is not Flate data.
+    private static String inflate(String text, int start, int end)
+    {
+        byte[] data = text.substring(start, end).getBytes(StandardCharsets.ISO_8859_1);
+        Inflater inflater = new Inflater();
+        try
+        {
+            inflater.setInput(data);
+            ByteArrayOutputStream output = new ByteArrayOutputStream(4 * data.length);
+            byte[] buffer = new byte[64 * 1024];
+            while (!inflater.finished())
+            {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                {
+                    break;
+                }
+
+                output.write(buffer, 0, count);
+            }
+
+            return new String(output.toByteArray(), StandardCharsets.ISO_8859_1);
+        }
+        catch (DataFormatException ex)
+        {
+            return null;
+        }
+        finally
+        {
+            inflater.end();
+        }
+    }
+
+    // Check whether a file of the resource tree, given relative to its root, is only used for CJK text.
+    static boolean isCjkResource(String relativePath)
+    {
+        relativePath = relativePath.replace('\\', '/');
+        if (relativePath.startsWith("CMap/"))
+        {
+            return !GENERIC_CMAPS.contains(relativePath.substring("CMap/".length()));
+        }
+
+        return CJK_FILES.contains(relativePath);
+    }
+
+    // Recreate the directories of the source tree under the target and link every non-CJK file.
+    private static void copyTree(Path root, Path source, Path target) throws IOException
+    {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(source))
+        {
+            for (Path entry : entries)
+            {
+                Path destination = target.resolve(entry.getFileName().toString());
+                if (Files.isDirectory(entry))
+                {
+                    Files.createDirectory(destination);
+                    copyTree(root, entry, destination);
+                }
+                else if (!isCjkResource(root.relativize(entry).toString()))
+                {
+                    try
+                    {
+                        Files.createSymbolicLink(destination, entry);
+                    }
+                    catch (UnsupportedOperationException | IOException ex)
+                    {
+                        Files.copy(entry, destination);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void deleteTree(Path directory) throws IOException
+    {
+        if (!Files.exists(directory))
+        {
+            return;
+        }
+
+        try (Stream<Path> paths = Files.walk(directory))
+        {
+            Path[] sorted = paths.sorted(Comparator.reverseOrder()).toArray(Path[]::new);
+            for (Path path : sorted)
+            {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
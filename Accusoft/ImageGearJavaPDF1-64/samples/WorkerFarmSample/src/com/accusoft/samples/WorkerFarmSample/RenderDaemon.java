@@ -0,0 +1,557 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  SAMPLE PURPOSE                                                      *'
+//                                                                      *'
+//  This sample illustrates how to keep PDF sessions warm in a          *'
+//  resident process, so that short jobs do not pay for JVM startup,    *'
+//  loading the native library and initializing the PDF session. The    *'
+//  daemon starts a WorkerFarm once and serves jobs over HTTP on the    *'
+//  loopback interface only:                                            *'
+//                                                                      *'
+//   GET  /pages?input=<pdf>                  The page count.           *'
+//   GET  /render?input=<pdf>&page=<n>        The page image, as        *'
+//        [&resolution=<dpi>][&smoothing=<f>] returned by Page.render.  *'
+//   POST /save?input=<pdf>&output=<pdf>      Save a copy of the PDF.   *'
+//        [&linearized=true]                                            *'
+//   POST /add-image?input=<image>            Create a PDF holding      *'
+//        &output=<pdf>[&compression=<c>]     the image.                *'
+//   GET  /status                             Workers and restarts.     *'
+//   POST /shutdown                           Stop the daemon.          *'
+//                                                                      *'
+//  Every request must carry the token printed at startup in the        *'
+//  X-Render-Token header. Requests whose Host is not a loopback name,  *'
+//  or which carry an Origin header, are refused, so that web pages     *'
+//  cannot reach the daemon through the browser. Paths are resolved     *'
+//  against the root directory, and paths leading outside of it are     *'
+//  refused.                                                            *'
+//                                                                      *'
+//                                                                      *'
+//  ARGUMENTS                                                           *'
+//                                                                      *'
+//   First (optional):  The loopback port to listen on                  *'
+//                      (default is 8765).                              *'
+//   Second (optional): The number of worker processes                  *'
+//                      (default is the number of processors).          *'
+//   Third (optional):  A PDF file whose first page every worker        *'
+//                      renders once at startup, to warm it up.         *'
+//   Fourth (optional): The resource/PDF directory. When given, the     *'
+//                      workers start without the CJK resources, and    *'
+//                      documents needing them go to a second set of    *'
+//                      workers with the full resources, started on     *'
+//                      first use (see PdfResources).                   *'
+//   Fifth (optional):  The root directory of the request paths         *'
+//                      (default is the current directory).             *'
+//                                                                      *'
+//  An empty optional argument keeps its default.                       *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.WorkerFarmSample;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class RenderDaemon
+{
+    private static final int DEFAULT_PORT = 8765;
+
+    // Time after which a worker running a single job is considered stuck.
+    private static final long JOB_TIMEOUT_MILLIS = 60000;
+
+    private static final String TOKEN_HEADER = "X-Render-Token";
+
+    private final WorkerFarm farm;
+    private final Path rootDirectory;
+    private final String token;
+    private final Path resourceDirectory;
+    private final int fullWorkerCount;
+    private WorkerFarm fullFarm;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    // Start the workers and listen on the loopback interface. With a resource directory the workers
+    // start without the CJK resources. Request paths must lead inside the root directory.
+    private RenderDaemon(int port, int workerCount, Path resourceDirectory, Path rootDirectory) throws IOException
+    {
+        this.rootDirectory = rootDirectory.toRealPath();
+        this.token = new BigInteger(130, new SecureRandom()).toString(32);
+        this.resourceDirectory = resourceDirectory;
+        this.fullWorkerCount = Math.max(1, workerCount / 4);
+        if (resourceDirectory != null)
+        {
+            Path sharedDirectory = WorkerFarm.getDefaultSharedDirectory();
+            Path latinResources = PdfResources.createLatinResources(resourceDirectory, sharedDirectory);
+            this.farm = new WorkerFarm(workerCount, JOB_TIMEOUT_MILLIS, sharedDirectory,
+                Collections.singletonList(PdfResources.getJvmArgument(latinResources)));
+        }
+        else
+        {
+            this.farm = new WorkerFarm(workerCount, JOB_TIMEOUT_MILLIS);
+        }
+
+        try
+        {
+            this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        }
+        catch (IOException ex)
+        {
+            this.farm.close();
+            throw ex;
+        }
+
+        // Requests wait for an idle worker inside the farm; a few more threads than workers keep them busy.
+        this.executor = Executors.newFixedThreadPool(2 * workerCount);
+        this.server.setExecutor(this.executor);
+        this.server.createContext("/", new JobHandler());
+    }
+
+    // Application entry point.
+    public static void main(String[] args)
+    {
+        if (args != null &&
+            (args.length > 5 ||
+             (args.length > 0 && (args[0].equals("-h") || args[0].equals("--help")))))
+        {
+            printUsage();
+            return;
+        }
+
+        int port = DEFAULT_PORT;
+        try
+        {
+            if (args.length > 0)
+            {
+                port = Integer.parseInt(args[0]);
+            }
+        }
+        catch (NumberFormatException ex)
+        {
+            port = -1;
+        }
+
+        if (port < 0 || port > 65535)
+        {
+            System.err.println("The port must be an integer from 0 to 65535, not '" + args[0] + "'.");
+            return;
+        }
+
+        int workerCount = Runtime.getRuntime().availableProcessors();
+        try
+        {
+            if (args.length > 1)
+            {
+                workerCount = Integer.parseInt(args[1]);
+            }
+        }
+        catch (NumberFormatException ex)
+        {
+            workerCount = 0;
+        }
+
+        if (workerCount < 1)
+        {
+            System.err.println("The worker count must be a positive integer, not '" + args[1] + "'.");
+            return;
+        }
+
+        Path resourceDirectory = args.length > 3 && !args[3].isEmpty() ? Paths.get(args[3]) : null;
+        Path rootDirectory = Paths.get(args.length > 4 ? args[4] : "");
+
+        RenderDaemon daemon = null;
+        try
+        {
+            daemon = new RenderDaemon(port, workerCount, resourceDirectory, rootDirectory);
+            if (args.length > 2 && !args[2].isEmpty())
+            {
+                daemon.warmUp(args[2]);
+            }
+
+            daemon.server.start();
+            System.out.println("Listening on http://" + daemon.server.getAddress().getHostString() + ":" + daemon.server.getAddress().getPort() + "/");
+            System.out.println("Serving files under " + daemon.rootDirectory + "; send " + TOKEN_HEADER + ": " + daemon.token + " with every request.");
+            daemon.stopped.await();
+        }
+        catch (IOException ex)
+        {
+            System.err.println("IOException: " + ex.toString());
+        }
+        catch (Throwable ex)
+        {
+            System.err.println("Exception: " + ex.toString());
+        }
+        finally
+        {
+            if (daemon != null)
+            {
+                daemon.stop();
+            }
+        }
+    }
+
+    // Print the sample usage information.
+    private static void printUsage()
+    {
+        System.out.println("Usage:");
+        System.out.println("       RenderDaemon [<port> [<worker_count> [<warm_up_file_path> [<resource_directory> [<root_directory>]]]]]");
+        System.out.println("where:");
+        System.out.println("       <port>:               The loopback port to listen on (default is " + DEFAULT_PORT + ").");
+        System.out.println("       <worker_count>:       The number of worker processes (default is the number of processors).");
+        System.out.println("       <warm_up_file_path>:  A PDF file whose first page every worker renders once at startup.");
+        System.out.println("       <resource_directory>: The resource/PDF directory; workers then load the CJK resources only when a document needs them.");
+        System.out.println("       <root_directory>:     The directory request paths are resolved against and must stay in (default is the current directory).");
+    }
+
+    // Render the first page of the file once per worker, so that the native code paths and the JIT
+    // compiled Java code are warm before the first real job.
+    private void warmUp(String inputPath) throws InterruptedException
+    {
+        List<Future<byte[]>> jobs = new ArrayList<Future<byte[]>>();
+        for (int i = 0; i < this.farm.getWorkerCount(); i++)
+        {
+            jobs.add(this.farm.render(inputPath, 0, 0, -1));
+        }
+
+        for (Future<byte[]> job : jobs)
+        {
+            try
+            {
+                job.get();
+            }
+            catch (ExecutionException ex)
+            {
+                System.err.println("Warm up: " + ex.getCause().toString());
+            }
+        }
+    }
+
+    // Get the farm for jobs on a PDF file: the one with the full resources when the file may need the CJK
+    // resources, otherwise the default one.
+    private WorkerFarm getFarm(String inputPath) throws IOException
+    {
+        if (this.resourceDirectory == null)
+        {
+            return this.farm;
+        }
+
+        boolean needsFullResources;
+        try
+        {
+            needsFullResources = PdfResources.needsFullResources(Paths.get(inputPath));
+        }
+        catch (IOException ex)
+        {
+            // The worker reports the problem with the file.
+            return this.farm;
+        }
+
+        return needsFullResources ? this.getFullFarm() : this.farm;
+    }
+
+    // Get the farm with the full resources, starting it on first use.
+    private synchronized WorkerFarm getFullFarm() throws IOException
+    {
+        if (this.fullFarm == null)
+        {
+            this.fullFarm = new WorkerFarm(this.fullWorkerCount, JOB_TIMEOUT_MILLIS, WorkerFarm.getDefaultSharedDirectory(),
+                Collections.singletonList(PdfResources.getJvmArgument(this.resourceDirectory)));
+        }
+
+        return this.fullFarm;
+    }
+
+    private synchronized int getFullWorkerCount()
+    {
+        return this.fullFarm != null ? this.fullFarm.getWorkerCount() : 0;
+    }
+
+    private void stop()
+    {
+        this.server.stop(0);
+        this.executor.shutdownNow();
+        this.farm.close();
+        synchronized (this)
+        {
+            if (this.fullFarm != null)
+            {
+                this.fullFarm.close();
+            }
+        }
+    }
+
+    // Run the job named by the request path and send its result.
+    private class JobHandler implements HttpHandler
+    {
+        public void handle(HttpExchange exchange) throws IOException
+        {
+            try
+            {
+                String refusal = checkRequest(exchange);
+                if (refusal != null)
+                {
+                    sendText(exchange, 403, refusal);
+                    return;
+                }
+
+                String path = exchange.getRequestURI().getPath();
+                String method = exchange.getRequestMethod();
+                Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+                if (path.equals("/pages") && method.equals("GET"))
+                {
+                    String inputPath = getInputPath(query, "input");
+                    long pageCount = getFarm(inputPath).getPageCount(inputPath).get();
+                    sendText(exchange, 200, Long.toString(pageCount));
+                }
+                else if (path.equals("/render") && method.equals("GET"))
+                {
+                    String inputPath = getInputPath(query, "input");
+                    byte[] imageData = getFarm(inputPath).render(inputPath,
+                        getInteger(query, "page", 0), getDouble(query, "resolution", 0), getInteger(query, "smoothing", -1)).get();
+                    send(exchange, 200, "application/octet-stream", imageData);
+                }
+                else if (path.equals("/save") && method.equals("POST"))
+                {
+                    String inputPath = getInputPath(query, "input");
+                    getFarm(inputPath).save(inputPath, getOutputPath(query, "output"), Boolean.parseBoolean(query.get("linearized"))).get();
+                    sendText(exchange, 200, "Saved.");
+                }
+                else if (path.equals("/add-image") && method.equals("POST"))
+                {
+                    farm.addImage(getInputPath(query, "input"), getOutputPath(query, "output"), getInteger(query, "compression", -1)).get();
+                    sendText(exchange, 200, "Saved.");
+                }
+                else if (path.equals("/status") && method.equals("GET"))
+                {
+                    sendText(exchange, 200, "workers=" + farm.getWorkerCount() + " restarts=" + farm.getRestartCount() +
+                        " full_resource_workers=" + getFullWorkerCount());
+                }
+                else if (path.equals("/shutdown") && method.equals("POST"))
+                {
+                    sendText(exchange, 200, "Stopping.");
+                    stopped.countDown();
+                }
+                else
+                {
+                    sendText(exchange, 404, "Unknown job '" + method + " " + path + "'.");
+                }
+            }
+            catch (SecurityException ex)
+            {
+                sendText(exchange, 403, ex.getMessage());
+            }
+            catch (IllegalArgumentException ex)
+            {
+                sendText(exchange, 400, ex.getMessage());
+            }
+            catch (ExecutionException ex)
+            {
+                sendText(exchange, 500, ex.getCause().toString());
+            }
+            catch (IOException ex)
+            {
+                sendText(exchange, 500, ex.toString());
+            }
+            catch (InterruptedException ex)
+            {
+                sendText(exchange, 503, "The daemon is stopping.");
+                Thread.currentThread().interrupt();
+            }
+            catch (RuntimeException ex)
+            {
+                sendText(exchange, 503, ex.toString());
+            }
+            finally
+            {
+                exchange.close();
+            }
+        }
+    }
+
+    // Check that the request comes from a local client holding the token rather than from a web page, and
+    // return the reason to refuse it, or null.
+    private String checkRequest(HttpExchange exchange)
+    {
+        // Browsers send an Origin header with cross-site POSTs and scripted requests; local clients do not.
+        if (exchange.getRequestHeaders().getFirst("Origin") != null)
+        {
+            return "Requests from web pages are not accepted.";
+        }
+
+        // A page on a rebound DNS name reaches the loopback address with its own name in the Host header.
+        if (!isLoopbackHost(exchange.getRequestHeaders().getFirst("Host")))
+        {
+            return "The Host header must name the loopback interface.";
+        }
+
+        String requestToken = exchange.getRequestHeaders().getFirst(TOKEN_HEADER);
+        if (requestToken == null ||
+            !MessageDigest.isEqual(requestToken.getBytes(StandardCharsets.UTF_8), this.token.getBytes(StandardCharsets.UTF_8)))
+        {
+            return "The " + TOKEN_HEADER + " header is missing or wrong.";
+        }
+
+        return null;
+    }
+
+    // Check whether a Host header value, with or without its port, names the loopback interface.
+    private static boolean isLoopbackHost(String host)
+    {
+        if (host == null)
+        {
+            return false;
+        }
+
+        String name = host.toLowerCase(Locale.ROOT);
+        int portSeparator = name.lastIndexOf(':');
+        if (portSeparator >= 0 && portSeparator > name.lastIndexOf(']'))
+        {
+            name = name.substring(0, portSeparator);
+        }
+
+        return name.equals("localhost") || name.equals("127.0.0.1") || name.equals("[::1]");
+    }
+
+    // Get an existing file named by a parameter, resolved against the root directory.
+    private String getInputPath(Map<String, String> query, String name) throws IOException
+    {
+        Path path = this.rootDirectory.resolve(getParameter(query, name)).normalize();
+        this.checkInsideRoot(path, query.get(name));
+        if (!Files.exists(path))
+        {
+            throw new IllegalArgumentException("The file '" + query.get(name) + "' does not exist.");
+        }
+
+        // The real path follows symbolic links, which may lead out of the root directory.
+        return this.checkInsideRoot(path.toRealPath(), query.get(name));
+    }
+
+    // Get a file to write named by a parameter, resolved against the root directory. Its directory must
+    // exist.
+    private String getOutputPath(Map<String, String> query, String name) throws IOException
+    {
+        Path path = this.rootDirectory.resolve(getParameter(query, name)).normalize();
+        this.checkInsideRoot(path, query.get(name));
+        Path directory = path.getParent();
+        if (directory == null || path.getFileName() == null || !Files.isDirectory(directory))
+        {
+            throw new IllegalArgumentException("The directory of '" + query.get(name) + "' does not exist.");
+        }
+
+        // A symbolic link, even a broken one, is followed when the file is written.
+        Path realPath = Files.exists(path, LinkOption.NOFOLLOW_LINKS) ? path.toRealPath() : directory.toRealPath().resolve(path.getFileName());
+        return this.checkInsideRoot(realPath, query.get(name));
+    }
+
+    private String checkInsideRoot(Path path, String value)
+    {
+        if (!path.startsWith(this.rootDirectory))
+        {
+            throw new SecurityException("The path '" + value + "' leads outside of the root directory.");
+        }
+
+        return path.toString();
+    }
+
+    // Split a raw query string into decoded parameters.
+    private static Map<String, String> parseQuery(String rawQuery) throws UnsupportedEncodingException
+    {
+        Map<String, String> parameters = new HashMap<String, String>();
+        if (rawQuery == null)
+        {
+            return parameters;
+        }
+
+        for (String pair : rawQuery.split("&"))
+        {
+            int separator = pair.indexOf('=');
+            if (separator > 0)
+            {
+                parameters.put(URLDecoder.decode(pair.substring(0, separator), "UTF-8"), URLDecoder.decode(pair.substring(separator + 1), "UTF-8"));
+            }
+        }
+
+        return parameters;
+    }
+
+    private static String getParameter(Map<String, String> query, String name)
+    {
+        String value = query.get(name);
+        if (value == null || value.isEmpty())
+        {
+            throw new IllegalArgumentException("The '" + name + "' parameter is missing.");
+        }
+
+        return value;
+    }
+
+    private static int getInteger(Map<String, String> query, String name, int defaultValue)
+    {
+        String value = query.get(name);
+        try
+        {
+            return value == null ? defaultValue : Integer.parseInt(value);
+        }
+        catch (NumberFormatException ex)
+        {
+            throw new IllegalArgumentException("The '" + name + "' parameter must be an integer, not '" + value + "'.");
+        }
+    }
+
+    private static double getDouble(Map<String, String> query, String name, double defaultValue)
+    {
+        String value = query.get(name);
+        try
+        {
+            return value == null ? defaultValue : Double.parseDouble(value);
+        }
+        catch (NumberFormatException ex)
+        {
+            throw new IllegalArgumentException("The '" + name + "' parameter must be a number, not '" + value + "'.");
+        }
+    }
+
+    private static void sendText(HttpExchange exchange, int status, String text) throws IOException
+    {
+        send(exchange, status, "text/plain; charset=utf-8", (text + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException
+    {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        OutputStream output = exchange.getResponseBody();
+        output.write(body);
+        output.close();
+    }
+}
@@ -0,0 +1,322 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  The supervisor side of one WorkerProcess: the child JVM, the        *'
+//  loopback socket the two exchange jobs over, and the memory mapped   *'
+//  file the worker writes rendered pages to. The standard output and   *'
+//  error of the worker are inherited, so whatever the native library   *'
+//  prints there shows up without touching the protocol. A connection   *'
+//  runs one job at a time. Any failure of the socket means that the    *'
+//  worker has exited and the connection must be replaced.              *'
+//                                                                      *'
+//  Any local process can connect to the loopback port, so the worker   *'
+//  proves who it is with a random token. The token is written to the   *'
+//  standard input of the worker, because its command line can be read  *'
+//  by every local user. Connections that do not present the token are  *'
+//  closed and the supervisor keeps waiting for the worker.             *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.WorkerFarmSample;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+class WorkerConnection
+{
+    // Time a new worker is given to connect back to the supervisor.
+    private static final long CONNECT_TIMEOUT_MILLIS = 60000;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final int index;
+    private final Process process;
+    private final Socket socket;
+    private final DataOutputStream output;
+    private final DataInputStream input;
+    private final Path resultPath;
+    private final FileChannel resultChannel;
+    private MappedByteBuffer result;
+    private volatile boolean killed;
+
+    private WorkerConnection(int index, Process process, Socket socket, Path resultPath, FileChannel resultChannel) throws IOException
+    {
+        this.index = index;
+        this.process = process;
+        this.socket = socket;
+        this.output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        this.input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.resultPath = resultPath;
+        this.resultChannel = resultChannel;
+    }
+
+    // Start a worker JVM with the class path and native library path of this JVM plus the given JVM
+    // arguments, and wait until its PDF session is initialized.
+    static WorkerConnection start(int index, Path sharedDirectory, List<String> jvmArguments) throws IOException
+    {
+        Path resultPath = Files.createTempFile(sharedDirectory, "igpdf-worker-" + index + "-", ".bin");
+        FileChannel resultChannel = null;
+        ServerSocket server = null;
+        Socket socket = null;
+        Process process = null;
+        try
+        {
+            resultChannel = FileChannel.open(resultPath, StandardOpenOption.READ);
+
+            server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+            String token = new BigInteger(130, RANDOM).toString(32);
+
+            List<String> command = new ArrayList<String>();
+            command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add("-Djava.library.path=" + System.getProperty("java.library.path"));
+            command.addAll(jvmArguments);
+            command.add(WorkerProcess.class.getName());
+            command.add(resultPath.toString());
+            command.add(Integer.toString(server.getLocalPort()));
+
+            process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+
+            // The standard input only carries the token. Unlike the command line, other users cannot read it.
+            OutputStream tokenOutput = process.getOutputStream();
+            try
+            {
+                tokenOutput.write((token + "\n").getBytes(StandardCharsets.US_ASCII));
+            }
+            finally
+            {
+                tokenOutput.close();
+            }
+
+            socket = accept(server, process, index, token);
+            socket.setTcpNoDelay(true);
+            WorkerConnection connection = new WorkerConnection(index, process, socket, resultPath, resultChannel);
+            try
+            {
+                if (connection.input.readInt() != WorkerProtocol.READY)
+                {
+                    throw new IOException("Worker " + index + " did not start correctly.");
+                }
+            }
+            catch (EOFException ex)
+            {
+                throw new IOException("Worker " + index + " exited before its PDF session was initialized; see its standard error.", ex);
+            }
+
+            return connection;
+        }
+        catch (IOException | RuntimeException ex)
+        {
+            if (process != null)
+            {
+                process.destroyForcibly();
+            }
+
+            if (socket != null)
+            {
+                socket.close();
+            }
+
+            if (resultChannel != null)
+            {
+                resultChannel.close();
+            }
+
+            Files.deleteIfExists(resultPath);
+            throw ex;
+        }
+        finally
+        {
+            if (server != null)
+            {
+                server.close();
+            }
+        }
+    }
+
+    // Wait for the worker to connect and present its token, giving up when it exits first or takes too long.
+    // Other connections are closed.
+    private static Socket accept(ServerSocket server, Process process, int index, String token) throws IOException
+    {
+        long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MILLIS;
+        server.setSoTimeout(1000);
+        while (true)
+        {
+            Socket socket = null;
+            try
+            {
+                socket = server.accept();
+            }
+            catch (SocketTimeoutException ex)
+            {
+                // No connection yet.
+            }
+
+            if (socket != null)
+            {
+                try
+                {
+                    // Read the token unbuffered, so that nothing after it is consumed here.
+                    socket.setSoTimeout(1000);
+                    String presented = new DataInputStream(socket.getInputStream()).readUTF();
+                    socket.setSoTimeout(0);
+                    if (token.equals(presented))
+                    {
+                        return socket;
+                    }
+                }
+                catch (IOException ex)
+                {
+                    // The peer did not present a token in time.
+                }
+
+                socket.close();
+            }
+
+            if (!process.isAlive())
+            {
+                throw new IOException("Worker " + index + " exited before connecting; see its standard error.");
+            }
+
+            if (System.currentTimeMillis() >= deadline)
+            {
+                throw new IOException("Worker " + index + " did not connect within " + CONNECT_TIMEOUT_MILLIS + " ms.");
+            }
+        }
+    }
+
+    // Get the slot of the worker in its farm.
+    int getIndex()
+    {
+        return this.index;
+    }
+
+    // Send a job and wait for its result. A job failing in the worker throws WorkerJobException; any
+    // other IOException means that the worker process is gone.
+    long call(WorkerJob job) throws IOException
+    {
+        job.write(this.output);
+        this.output.flush();
+
+        byte status = this.input.readByte();
+        if (status == WorkerProtocol.STATUS_OK)
+        {
+            return this.input.readLong();
+        }
+
+        if (status == WorkerProtocol.STATUS_ERROR)
+        {
+            throw new WorkerJobException("Could not " + job.describe() + ": " + this.input.readUTF());
+        }
+
+        throw new IOException("Worker " + this.index + " sent the unknown status '" + status + "'.");
+    }
+
+    // Copy the given number of bytes out of the result file of the worker.
+    byte[] readResult(int length) throws IOException
+    {
+        if (this.result == null || this.result.capacity() < length)
+        {
+            this.result = this.resultChannel.map(FileChannel.MapMode.READ_ONLY, 0, this.resultChannel.size());
+            if (this.result.capacity() < length)
+            {
+                throw new IOException("Worker " + this.index + " reported " + length + " bytes but wrote " + this.result.capacity() + ".");
+            }
+        }
+
+        byte[] data = new byte[length];
+        this.result.clear();
+        this.result.get(data);
+        return data;
+    }
+
+    // Kill the worker process, for instance when a job has run for too long. Pending calls fail.
+    void kill()
+    {
+        this.killed = true;
+        this.process.destroyForcibly();
+    }
+
+    // Ask the worker to exit, wait for it for a while, then kill it and delete its result file.
+    void shutdown(long timeoutMillis)
+    {
+        try
+        {
+            if (!this.killed && this.process.isAlive())
+            {
+                this.output.writeByte(WorkerProtocol.SHUTDOWN);
+                this.output.flush();
+                this.process.waitFor(timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        catch (IOException ex)
+        {
+            // The worker is already gone.
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            this.destroy();
+        }
+    }
+
+    // Kill the worker process and delete its result file.
+    void destroy()
+    {
+        this.process.destroyForcibly();
+        try
+        {
+            this.socket.close();
+            this.resultChannel.close();
+            Files.deleteIfExists(this.resultPath);
+        }
+        catch (IOException ex)
+        {
+            System.err.println("IOException: " + ex.toString());
+        }
+    }
+
+    // A job that failed inside a worker which is still running.
+    static class WorkerJobException extends IOException
+    {
+        private static final long serialVersionUID = 1L;
+
+        WorkerJobException(String message)
+        {
+            super(message);
+        }
+    }
+}
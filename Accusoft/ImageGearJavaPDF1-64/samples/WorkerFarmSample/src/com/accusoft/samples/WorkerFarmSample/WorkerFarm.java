@@ -0,0 +1,315 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Runs PDF jobs on a fixed number of child JVMs, each with its own    *'
+//  PDF session, so that a document crashing or hanging the native      *'
+//  library takes down one worker instead of the application. Jobs      *'
+//  go to the first idle worker. A worker that exits, or runs a job     *'
+//  for longer than the job timeout, is killed and replaced, and the    *'
+//  job is tried once more on the new worker before it fails.           *'
+//                                                                      *'
+//  Rendered pages travel through a memory mapped file per worker,      *'
+//  placed in /dev/shm when available; only short messages go through   *'
+//  the loopback socket of each worker.                                 *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.WorkerFarmSample;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WorkerFarm implements AutoCloseable
+{
+    // A job is run at most this many times when its worker dies under it.
+    private static final int MAX_ATTEMPTS = 2;
+
+    // Time a worker is given to exit on its own when the farm is closed.
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+    private final Path sharedDirectory;
+    private final List<String> jvmArguments;
+    private final long jobTimeoutMillis;
+    private final BlockingQueue<WorkerConnection> idleWorkers = new LinkedBlockingQueue<WorkerConnection>();
+    private final WorkerConnection[] workers;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService watchdog;
+    private final AtomicInteger restartCount = new AtomicInteger();
+    private volatile boolean closed;
+
+    // Start workerCount workers. A job running longer than jobTimeoutMillis kills its worker.
+    public WorkerFarm(int workerCount, long jobTimeoutMillis) throws IOException
+    {
+        this(workerCount, jobTimeoutMillis, getDefaultSharedDirectory(), Collections.<String>emptyList());
+    }
+
+    // Start workerCount workers with the given JVM arguments, such as a heap size, sharing rendered pages
+    // through files in sharedDirectory.
+    public WorkerFarm(int workerCount, long jobTimeoutMillis, Path sharedDirectory, List<String> jvmArguments) throws IOException
+    {
+        if (workerCount < 1)
+        {
+            throw new IllegalArgumentException("The worker count must be a positive integer, not '" + workerCount + "'.");
+        }
+
+        if (jobTimeoutMillis < 1)
+        {
+            throw new IllegalArgumentException("The job timeout must be a positive number, not '" + jobTimeoutMillis + "'.");
+        }
+
+        this.sharedDirectory = sharedDirectory;
+        this.jvmArguments = new ArrayList<String>(jvmArguments);
+        this.jobTimeoutMillis = jobTimeoutMillis;
+        this.workers = new WorkerConnection[workerCount];
+        this.executor = Executors.newFixedThreadPool(workerCount);
+        this.watchdog = Executors.newSingleThreadScheduledExecutor();
+        try
+        {
+            for (int i = 0; i < workerCount; i++)
+            {
+                this.workers[i] = WorkerConnection.start(i, sharedDirectory, this.jvmArguments);
+                this.idleWorkers.add(this.workers[i]);
+            }
+        }
+        catch (IOException | RuntimeException ex)
+        {
+            this.close();
+            throw ex;
+        }
+    }
+
+    // Get the directory used for the result files by default: /dev/shm when it is writable, so that the
+    // files stay in memory, otherwise the temporary directory.
+    public static Path getDefaultSharedDirectory()
+    {
+        File sharedMemory = new File("/dev/shm");
+        if (sharedMemory.isDirectory() && sharedMemory.canWrite())
+        {
+            return sharedMemory.toPath();
+        }
+
+        return Paths.get(System.getProperty("java.io.tmpdir"));
+    }
+
+    // Count the pages of a PDF file.
+    public Future<Long> getPageCount(String inputPath)
+    {
+        final WorkerJob job = WorkerJob.getPageCount(inputPath);
+        return this.submit(new WorkerTask<Long>()
+        {
+            public Long run(WorkerConnection worker) throws IOException
+            {
+                return worker.call(job);
+            }
+        });
+    }
+
+    // Render a page of a PDF file. The result is the image data returned by Page.render. A non-positive
+    // resolution or a negative smoothing flags value keeps the corresponding RenderOptions default.
+    public Future<byte[]> render(String inputPath, int pageNumber, double resolution, int smoothingFlags)
+    {
+        final WorkerJob job = WorkerJob.renderPage(inputPath, pageNumber, resolution, smoothingFlags);
+        return this.submit(new WorkerTask<byte[]>()
+        {
+            public byte[] run(WorkerConnection worker) throws IOException
+            {
+                return worker.readResult((int)worker.call(job));
+            }
+        });
+    }
+
+    // Save a copy of a PDF file, optionally linearized.
+    public Future<Void> save(String inputPath, String outputPath, boolean linearized)
+    {
+        final WorkerJob job = WorkerJob.saveDocument(inputPath, outputPath, linearized);
+        return this.submit(new WorkerTask<Void>()
+        {
+            public Void run(WorkerConnection worker) throws IOException
+            {
+                worker.call(job);
+                return null;
+            }
+        });
+    }
+
+    // Create a PDF file with a single page holding the image file. A negative compression type keeps the
+    // AddImageOptions default.
+    public Future<Void> addImage(String imagePath, String outputPath, int compressionType)
+    {
+        final WorkerJob job = WorkerJob.addImage(imagePath, outputPath, compressionType);
+        return this.submit(new WorkerTask<Void>()
+        {
+            public Void run(WorkerConnection worker) throws IOException
+            {
+                worker.call(job);
+                return null;
+            }
+        });
+    }
+
+    // Get the number of workers.
+    public int getWorkerCount()
+    {
+        return this.workers.length;
+    }
+
+    // Get the number of workers replaced after a crash or a timeout.
+    public int getRestartCount()
+    {
+        return this.restartCount.get();
+    }
+
+    // Stop taking jobs, cancel the queued ones and stop the workers.
+    @Override
+    public void close()
+    {
+        this.closed = true;
+        this.executor.shutdownNow();
+        this.watchdog.shutdownNow();
+
+        // Idle workers are asked to exit; busy ones are killed, which also unblocks their job threads.
+        synchronized (this.workers)
+        {
+            for (WorkerConnection worker : this.workers)
+            {
+                if (worker != null)
+                {
+                    if (this.idleWorkers.remove(worker))
+                    {
+                        worker.shutdown(SHUTDOWN_TIMEOUT_MILLIS);
+                    }
+                    else
+                    {
+                        worker.kill();
+                        worker.destroy();
+                    }
+                }
+            }
+        }
+    }
+
+    private <T> Future<T> submit(final WorkerTask<T> task)
+    {
+        if (this.closed)
+        {
+            throw new IllegalStateException("The worker farm has been closed.");
+        }
+
+        return this.executor.submit(new Callable<T>()
+        {
+            public T call() throws Exception
+            {
+                return runOnWorker(task);
+            }
+        });
+    }
+
+    // Run a task on an idle worker, replacing the worker and retrying when the worker dies under it.
+    private <T> T runOnWorker(WorkerTask<T> task) throws IOException, InterruptedException
+    {
+        WorkerConnection worker = this.idleWorkers.take();
+        try
+        {
+            for (int attempt = 1; ; attempt++)
+            {
+                final WorkerConnection current = worker;
+                ScheduledFuture<?> timeout = this.watchdog.schedule(new Runnable()
+                {
+                    public void run()
+                    {
+                        current.kill();
+                    }
+                }, this.jobTimeoutMillis, TimeUnit.MILLISECONDS);
+
+                try
+                {
+                    T value = task.run(worker);
+                    if (!timeout.cancel(false))
+                    {
+                        // The watchdog fired after the job finished: the result is good, the worker is not.
+                        worker = this.restart(worker);
+                    }
+
+                    return value;
+                }
+                catch (WorkerConnection.WorkerJobException ex)
+                {
+                    if (!timeout.cancel(false))
+                    {
+                        worker = this.restart(worker);
+                    }
+
+                    throw ex;
+                }
+                catch (IOException ex)
+                {
+                    boolean timedOut = !timeout.cancel(false);
+                    if (this.closed)
+                    {
+                        throw ex;
+                    }
+
+                    worker = this.restart(worker);
+                    if (attempt >= MAX_ATTEMPTS)
+                    {
+                        throw new IOException(timedOut ? "The job timed out on its last worker." : "The worker crashed while running the job.", ex);
+                    }
+                }
+            }
+        }
+        finally
+        {
+            if (this.closed)
+            {
+                worker.destroy();
+            }
+            else
+            {
+                this.idleWorkers.add(worker);
+            }
+        }
+    }
+
+    // Replace a dead worker by a new one in the same slot. When the new worker cannot be started the
+    // exception is thrown and the destroyed worker goes back to the idle queue, where the next job to take
+    // it fails to reach it and restarts the slot again.
+    private WorkerConnection restart(WorkerConnection worker) throws IOException
+    {
+        worker.kill();
+        worker.destroy();
+        WorkerConnection replacement = WorkerConnection.start(worker.getIndex(), this.sharedDirectory, this.jvmArguments);
+        synchronized (this.workers)
+        {
+            this.workers[worker.getIndex()] = replacement;
+        }
+
+        this.restartCount.incrementAndGet();
+        return replacement;
+    }
+
+    // A job run against one worker.
+    private interface WorkerTask<T>
+    {
+        T run(WorkerConnection worker) throws IOException;
+    }
+}
@@ -0,0 +1,183 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  SAMPLE PURPOSE                                                      *'
+//                                                                      *'
+//  This sample illustrates how to render all pages of a PDF document   *'
+//  on several worker processes, each with its own PDF session, so      *'
+//  that a document crashing the native library does not take the       *'
+//  application down with it.                                           *'
+//                                                                      *'
+//                                                                      *'
+//  ARGUMENTS                                                           *'
+//                                                                      *'
+//   First:             The path to source PDF file.                    *'
+//   Second (optional): The path to output image files                  *'
+//                      (default is <input_file_path>.png); the page    *'
+//                      number is added before the extension.           *'
+//   Third (optional):  The number of worker processes                  *'
+//                      (default is the number of processors).          *'
+//   Fourth (optional): The resolution for PDF page rasterization       *'
+//                      (default is 150.0).                             *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.WorkerFarmSample;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import javax.imageio.ImageIO;
+
+public class WorkerFarmSample
+{
+    // Time after which a worker rendering a single page is considered stuck.
+    private static final long JOB_TIMEOUT_MILLIS = 60000;
+
+    // Application entry point.
+    public static void main(String[] args)
+    {
+        if (args == null ||
+            args.length < 1 ||
+            args.length > 4 ||
+            args[0].equals("-h") ||
+            args[0].equals("--help"))
+        {
+            printUsage();
+            return;
+        }
+
+        String inputPath = args[0];
+        String outputPath = args.length > 1 ? args[1] : inputPath + ".png";
+
+        int workerCount = Runtime.getRuntime().availableProcessors();
+        try
+        {
+            if (args.length > 2)
+            {
+                workerCount = Integer.parseInt(args[2]);
+            }
+        }
+        catch (NumberFormatException ex)
+        {
+            workerCount = 0;
+        }
+
+        if (workerCount < 1)
+        {
+            System.err.println("The worker count must be a positive integer, not '" + args[2] + "'.");
+            return;
+        }
+
+        double resolution = 0.0;
+        try
+        {
+            if (args.length > 3)
+            {
+                resolution = Double.parseDouble(args[3]);
+                if (resolution < 1)
+                {
+                    resolution = -1;
+                }
+            }
+        }
+        catch (NumberFormatException ex)
+        {
+            // This is checked below.
+            resolution = -1.0;
+        }
+
+        if (resolution < 0)
+        {
+            System.err.println("The resolution must be a positive fractional number (not less than 1), not '" + args[3] + "'.");
+            return;
+        }
+
+        WorkerFarmSample sample = new WorkerFarmSample();
+        sample.performRender(inputPath, outputPath, workerCount, resolution);
+    }
+
+    // Print the sample usage information.
+    private static void printUsage()
+    {
+        System.out.println("Usage:");
+        System.out.println("       WorkerFarmSample.jar <input_file_path> [<output_file_path> [<worker_count> [<resolution>]]]");
+        System.out.println("where:");
+        System.out.println("       <input_file_path>:   The path to source PDF file.");
+        System.out.println("       <output_file_path>:  The path to output PNG files (default is <input_file_path>.png). The page number is added before the extension.");
+        System.out.println("       <worker_count>:      The number of worker processes (default is the number of processors).");
+        System.out.println("       <resolution>:        The resolution in dots per inch for PDF page rasterization (default is 150.0).");
+    }
+
+    // Render every page of the document on the worker farm and write each page to its own output file.
+    private void performRender(String inputPath, String outputPath, int workerCount, double resolution)
+    {
+        try (WorkerFarm farm = new WorkerFarm(workerCount, JOB_TIMEOUT_MILLIS))
+        {
+            long startTime = System.nanoTime();
+            long pageCount = farm.getPageCount(inputPath).get();
+
+            // Keep at most two pages per worker in flight, so that rendered pages waiting to be written cannot
+            // pile up on the heap when the workers outpace the PNG encoding. The farm hands the queued pages
+            // to the workers as they become idle.
+            int window = 2 * workerCount;
+            ArrayDeque<Future<byte[]>> pages = new ArrayDeque<Future<byte[]>>();
+            int nextPageNumber = 0;
+            for (int pageNumber = 0; pageNumber < pageCount; pageNumber++)
+            {
+                while (nextPageNumber < pageCount && pages.size() < window)
+                {
+                    pages.add(farm.render(inputPath, nextPageNumber, resolution, -1));
+                    nextPageNumber++;
+                }
+
+                try
+                {
+                    byte[] imageData = pages.poll().get();
+                    BufferedImage bufferedImage = ImageIO.read(new ByteArrayInputStream(imageData));
+                    ImageIO.write(bufferedImage, "png", new File(getPageOutputPath(outputPath, pageNumber)));
+                }
+                catch (ExecutionException ex)
+                {
+                    // A page failing, even by crashing its worker, does not stop the other pages.
+                    System.err.println("Page " + pageNumber + ": " + ex.getCause().toString());
+                }
+            }
+
+            double elapsedSeconds = (System.nanoTime() - startTime) / 1e9;
+            System.out.println(String.format("Rendered %d pages in %.3f s on %d workers (%d restarted).",
+                pageCount, elapsedSeconds, workerCount, farm.getRestartCount()));
+        }
+        catch (IOException ex)
+        {
+            System.err.println("IOException: " + ex.toString());
+        }
+        catch (ExecutionException ex)
+        {
+            System.err.println("Exception: " + ex.getCause().toString());
+        }
+        catch (Throwable ex)
+        {
+            System.err.println("Exception: " + ex.toString());
+        }
+    }
+
+    // Get the output file path of a page.
+    private static String getPageOutputPath(String outputPath, int pageNumber)
+    {
+        String basePath = outputPath;
+        if (basePath.toLowerCase().endsWith(".png"))
+        {
+            basePath = basePath.substring(0, basePath.length() - 4);
+        }
+
+        return basePath + "." + pageNumber + ".png";
+    }
+}
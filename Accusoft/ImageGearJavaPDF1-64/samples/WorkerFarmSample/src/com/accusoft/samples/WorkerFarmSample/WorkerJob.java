@@ -0,0 +1,105 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  A unit of work run by a WorkerProcess: counting the pages of a PDF  *'
+//  document, rendering one of its pages, saving a copy of it, or       *'
+//  creating a document out of an image file.                           *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.WorkerFarmSample;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+final class WorkerJob
+{
+    final byte type;
+    final String inputPath;
+    final int pageNumber;
+    final double resolution;
+    final int smoothingFlags;
+    final String outputPath;
+    final boolean linearized;
+    final int compressionType;
+
+    private WorkerJob(byte type, String inputPath, int pageNumber, double resolution, int smoothingFlags, String outputPath, boolean linearized,
+        int compressionType)
+    {
+        this.type = type;
+        this.inputPath = inputPath;
+        this.pageNumber = pageNumber;
+        this.resolution = resolution;
+        this.smoothingFlags = smoothingFlags;
+        this.outputPath = outputPath;
+        this.linearized = linearized;
+        this.compressionType = compressionType;
+    }
+
+    static WorkerJob getPageCount(String inputPath)
+    {
+        return new WorkerJob(WorkerProtocol.GET_PAGE_COUNT, inputPath, 0, 0, -1, "", false, -1);
+    }
+
+    static WorkerJob renderPage(String inputPath, int pageNumber, double resolution, int smoothingFlags)
+    {
+        return new WorkerJob(WorkerProtocol.RENDER_PAGE, inputPath, pageNumber, resolution, smoothingFlags, "", false, -1);
+    }
+
+    static WorkerJob saveDocument(String inputPath, String outputPath, boolean linearized)
+    {
+        return new WorkerJob(WorkerProtocol.SAVE_DOCUMENT, inputPath, 0, 0, -1, outputPath, linearized, -1);
+    }
+
+    static WorkerJob addImage(String imagePath, String outputPath, int compressionType)
+    {
+        return new WorkerJob(WorkerProtocol.ADD_IMAGE, imagePath, 0, 0, -1, outputPath, false, compressionType);
+    }
+
+    // Describe the job in error messages.
+    String describe()
+    {
+        switch (this.type)
+        {
+            case WorkerProtocol.GET_PAGE_COUNT:
+                return "count the pages of '" + this.inputPath + "'";
+            case WorkerProtocol.RENDER_PAGE:
+                return "render page " + this.pageNumber + " of '" + this.inputPath + "'";
+            case WorkerProtocol.ADD_IMAGE:
+                return "add '" + this.inputPath + "' to '" + this.outputPath + "'";
+            default:
+                return "save '" + this.inputPath + "' to '" + this.outputPath + "'";
+        }
+    }
+
+    void write(DataOutputStream output) throws IOException
+    {
+        output.writeByte(this.type);
+        output.writeUTF(this.inputPath);
+        output.writeInt(this.pageNumber);
+        output.writeDouble(this.resolution);
+        output.writeInt(this.smoothingFlags);
+        output.writeUTF(this.outputPath);
+        output.writeBoolean(this.linearized);
+        output.writeInt(this.compressionType);
+    }
+
+    // Read the fields of a job whose type code has already been read.
+    static WorkerJob read(byte type, DataInputStream input) throws IOException
+    {
+        String inputPath = input.readUTF();
+        int pageNumber = input.readInt();
+        double resolution = input.readDouble();
+        int smoothingFlags = input.readInt();
+        String outputPath = input.readUTF();
+        boolean linearized = input.readBoolean();
+        int compressionType = input.readInt();
+        return new WorkerJob(type, inputPath, pageNumber, resolution, smoothingFlags, outputPath, linearized, compressionType);
+    }
+}
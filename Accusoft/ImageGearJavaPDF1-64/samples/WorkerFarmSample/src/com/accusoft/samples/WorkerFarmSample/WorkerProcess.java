@@ -0,0 +1,411 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  The child process of a WorkerFarm. It initializes its own PDF       *'
+//  session, then runs the jobs read from a loopback socket connected   *'
+//  to its supervisor one at a time and answers on the same socket (see *'
+//  WorkerProtocol). The standard output and error are left to the      *'
+//  native library and to diagnostics. The last opened document is kept *'
+//  open for the following jobs.                                        *'
+//                                                                      *'
+//  ARGUMENTS                                                           *'
+//                                                                      *'
+//   First:             The path to the result file shared with the     *'
+//                      supervisor.                                     *'
+//                                                                      *'
+//   Second:            The loopback port the supervisor listens on.    *'
+//                                                                      *'
+//  The token identifying this worker to the supervisor is read from    *'
+//  the first line of the standard input.                               *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.WorkerFarmSample;
+
+import com.accusoft.imagegearpdf.*;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+public class WorkerProcess
+{
+    private final RandomAccessFile resultFile;
+    private MappedByteBuffer result;
+
+    private PDF pdf;
+    private Document document;
+    private String documentPath;
+    private long documentModified;
+
+    static
+    {
+        System.loadLibrary("IgPdf");
+    }
+
+    private WorkerProcess(String resultPath) throws IOException
+    {
+        this.resultFile = new RandomAccessFile(resultPath, "rw");
+    }
+
+    // Worker entry point.
+    public static void main(String[] args)
+    {
+        if (args.length != 2)
+        {
+            System.err.println("Usage: WorkerProcess <result_file_path> <port>, with the token on the standard input");
+            System.exit(2);
+        }
+
+        WorkerProcess worker = null;
+        Socket socket = null;
+        try
+        {
+            String token = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII)).readLine();
+            if (token == null)
+            {
+                throw new IOException("The standard input does not hold the token.");
+            }
+
+            // The protocol has its own channel, so that anything the native library prints to the
+            // standard output cannot corrupt it.
+            socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(args[1]));
+            socket.setTcpNoDelay(true);
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            output.writeUTF(token);
+            output.flush();
+
+            worker = new WorkerProcess(args[0]);
+            long start = System.nanoTime();
+            worker.initPdf();
+            System.err.println("Worker initialized its PDF session in " + (System.nanoTime() - start) / 1000000 + " ms with " +
+                (PdfResources.getWorkerResources() != null ? PdfResources.getWorkerResources() : "the default resources") +
+                "; resident set: " + getResidentSetSize() + ".");
+            output.writeInt(WorkerProtocol.READY);
+            output.flush();
+            worker.run(input, output);
+        }
+        catch (IOException ex)
+        {
+            System.err.println("IOException: " + ex.toString());
+        }
+        catch (Throwable ex)
+        {
+            System.err.println("Exception: " + ex.toString());
+        }
+        finally
+        {
+            if (worker != null)
+            {
+                worker.terminate();
+            }
+
+            if (socket != null)
+            {
+                try
+                {
+                    socket.close();
+                }
+                catch (IOException ex)
+                {
+                    System.err.println("IOException: " + ex.toString());
+                }
+            }
+        }
+    }
+
+    // Run jobs until the supervisor asks to shut down or closes the socket.
+    private void run(DataInputStream input, DataOutputStream output) throws IOException
+    {
+        while (true)
+        {
+            byte type;
+            try
+            {
+                type = input.readByte();
+            }
+            catch (EOFException ex)
+            {
+                return;
+            }
+
+            if (type == WorkerProtocol.SHUTDOWN)
+            {
+                return;
+            }
+
+            WorkerJob job = WorkerJob.read(type, input);
+            try
+            {
+                long value = this.execute(job);
+                output.writeByte(WorkerProtocol.STATUS_OK);
+                output.writeLong(value);
+            }
+            catch (RuntimeException ex)
+            {
+                output.writeByte(WorkerProtocol.STATUS_ERROR);
+                output.writeUTF(String.valueOf(ex));
+            }
+
+            output.flush();
+        }
+    }
+
+    // Run a job and return its result.
+    private long execute(WorkerJob job) throws IOException
+    {
+        if (job.type == WorkerProtocol.ADD_IMAGE)
+        {
+            // The image goes to a new document; the cached one is left open.
+            this.addImage(job);
+            return 0;
+        }
+
+        Document document = this.openDocument(job.inputPath);
+        switch (job.type)
+        {
+            case WorkerProtocol.GET_PAGE_COUNT:
+                return document.getPageCount();
+            case WorkerProtocol.RENDER_PAGE:
+                return this.renderPage(document, job);
+            case WorkerProtocol.SAVE_DOCUMENT:
+                this.saveDocument(document, job);
+                return 0;
+            default:
+                throw new IllegalArgumentException("The job type '" + job.type + "' is not supported.");
+        }
+    }
+
+    // Render a page into the result file and return the length of the rendered image.
+    private long renderPage(Document document, WorkerJob job) throws IOException
+    {
+        Page page = document.getPage(job.pageNumber);
+        RenderOptions options = new RenderOptions();
+        try
+        {
+            if (job.resolution > 0)
+            {
+                options.setResolution(job.resolution);
+            }
+
+            if (job.smoothingFlags >= 0)
+            {
+                options.setSmoothingFlags(job.smoothingFlags);
+            }
+
+            byte[] imageData = page.render(options);
+            this.writeResult(imageData);
+            return imageData.length;
+        }
+        finally
+        {
+            options.delete();
+            page.close();
+            page.delete();
+        }
+    }
+
+    // Save a copy of the document.
+    private void saveDocument(Document document, WorkerJob job)
+    {
+        SaveOptions options = new SaveOptions();
+        try
+        {
+            options.setLinearized(job.linearized);
+            document.saveDocument(job.outputPath, options);
+        }
+        finally
+        {
+            options.delete();
+        }
+    }
+
+    // Create a document with a single page holding the image file, and save it.
+    private void addImage(WorkerJob job)
+    {
+        Document document = this.pdf.createDocument();
+        try
+        {
+            document.insertBlankPage(0);
+            Page page = document.getPage(0);
+            AddImageOptions options = new AddImageOptions();
+            try
+            {
+                if (job.compressionType >= 0)
+                {
+                    options.setCompressionType(job.compressionType);
+                }
+
+                page.addImage(job.inputPath, options);
+            }
+            finally
+            {
+                options.delete();
+                page.close();
+                page.delete();
+            }
+
+            SaveOptions saveOptions = new SaveOptions();
+            try
+            {
+                document.saveDocument(job.outputPath, saveOptions);
+            }
+            finally
+            {
+                saveOptions.delete();
+            }
+        }
+        finally
+        {
+            document.close();
+            document.delete();
+        }
+    }
+
+    // Copy the data to the start of the result file, growing its mapping when the data does not fit.
+    private void writeResult(byte[] data) throws IOException
+    {
+        if (this.result == null || this.result.capacity() < data.length)
+        {
+            // Grow in 1 MB steps so that pages of similar size reuse the mapping.
+            long size = ((long)data.length + 0xfffff) & ~0xfffffL;
+            this.result = this.resultFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+
+        this.result.clear();
+        this.result.put(data);
+    }
+
+    // Get the opened document of the file, reopening it only when another file is requested or it has changed.
+    private Document openDocument(String inputPath)
+    {
+        long modified = new File(inputPath).lastModified();
+        if (this.document != null && inputPath.equals(this.documentPath) && modified == this.documentModified)
+        {
+            return this.document;
+        }
+
+        this.closeDocument();
+        Document document = this.pdf.createDocument();
+        try
+        {
+            document.openDocument(inputPath);
+        }
+        catch (RuntimeException ex)
+        {
+            document.close();
+            document.delete();
+            throw ex;
+        }
+
+        this.document = document;
+        this.documentPath = inputPath;
+        this.documentModified = modified;
+        return document;
+    }
+
+    // Initialize the PDF session.
+    private void initPdf()
+    {
+        this.pdf = PDF.getInstance();
+
+        // Set license info.
+        // NOTE: The following three lines should be uncommented and modified using the corresponding license.
+        // pdf.setSolutionName("YourSolutionName");
+        // pdf.setSolutionKey(0x00000000,0x00000000,0x00000000,0x00000000);
+        // pdf.setOEMLicenseKey("YourOEMLicenseKey");
+
+        // The supervisor may start workers with a reduced resource tree (see PdfResources).
+        String resources = PdfResources.getWorkerResources();
+        if (resources != null)
+        {
+            this.pdf.setPDFResources(resources);
+        }
+
+        // Only initialize the PDF session after setting any licensing information is provided.
+        this.pdf.initialize();
+    }
+
+    private void closeDocument()
+    {
+        if (this.document != null)
+        {
+            try
+            {
+                this.document.close();
+            }
+            finally
+            {
+                this.document.delete();
+                this.document = null;
+                this.documentPath = null;
+            }
+        }
+    }
+
+    // Get the resident set size of this process as reported by Linux, to compare resource trees.
+    private static String getResidentSetSize()
+    {
+        try
+        {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"), StandardCharsets.ISO_8859_1))
+            {
+                if (line.startsWith("VmRSS:"))
+                {
+                    return line.substring("VmRSS:".length()).trim();
+                }
+            }
+        }
+        catch (IOException ex)
+        {
+            // Not on Linux.
+        }
+
+        return "unknown";
+    }
+
+    // Close the document, terminate the PDF session and close the result file.
+    private void terminate()
+    {
+        try
+        {
+            this.closeDocument();
+            if (this.pdf != null)
+            {
+                this.pdf.terminate();
+                this.pdf = null;
+            }
+        }
+        finally
+        {
+            try
+            {
+                this.resultFile.close();
+            }
+            catch (IOException ex)
+            {
+                System.err.println("IOException: " + ex.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+// ******************************************************************** *'
+//  Copyright - Accusoft Corporation, Tampa Florida.                    *'
+//  This sample code is provided to Accusoft licensees "as is"          *'
+//  with no restrictions on use or modification. No warranty for        *'
+//  use of this sample code is provided by Accusoft.                    *'
+//                                                                      *'
+//  CLASS PURPOSE                                                       *'
+//                                                                      *'
+//  Message codes exchanged between a WorkerFarm and its WorkerProcess  *'
+//  children over a loopback socket (see WorkerConnection).             *'
+//                                                                      *'
+//  A job is sent as its type code followed by the fields of            *'
+//  WorkerJob. The worker answers with a status code: STATUS_OK         *'
+//  followed by a long result, or STATUS_ERROR followed by a message.   *'
+//  Rendered pages are not sent over the socket; the worker writes      *'
+//  them to its memory mapped result file and the result is their       *'
+//  length in bytes.                                                    *'
+//                                                                      *'
+// ******************************************************************** *'
+
+package com.accusoft.samples.WorkerFarmSample;
+
+final class WorkerProtocol
+{
+    // Written once by a worker when its PDF session has been initialized.
+    static final int READY = 0x49475044;
+
+    static final byte GET_PAGE_COUNT = 1;
+    static final byte RENDER_PAGE = 2;
+    static final byte SAVE_DOCUMENT = 3;
+    static final byte SHUTDOWN = 4;
+    static final byte ADD_IMAGE = 5;
+
+    static final byte STATUS_OK = 0;
+    static final byte STATUS_ERROR = 1;
+
+    private WorkerProtocol()
+    {
+    }
+}